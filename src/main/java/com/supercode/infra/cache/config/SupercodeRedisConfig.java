@@ -2,13 +2,19 @@ package com.supercode.infra.cache.config;
 
 import com.supercode.infra.cache.lock.RedisLock;
 import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.spring.SupercodeRedisCacheManager;
 import com.supercode.infra.cache.utils.EnvironmentManager;
 import com.supercode.master.utils.spring.register.AbstractBeanRegistrar;
 import com.supercode.master.utils.spring.register.SupercodeBeanDefinition;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 
 import static com.supercode.infra.cache.constant.RedisClientConstant.*;
@@ -26,18 +32,36 @@ public class SupercodeRedisConfig extends AbstractBeanRegistrar {
     private int minIdle = MIN_IDLE;
     private boolean clusterFlag = true;
     private boolean preparePool = false;
+    private int sharedConnections = SHARED_CONNECTIONS;
+    private long cacheDefaultTtlMillis = CACHE_DEFAULT_TTL_MILLIS;
+    private final Map<String, Duration> cacheTtls = new LinkedHashMap<>();
+    private long cacheLocalMaxSize = CACHE_LOCAL_MAX_SIZE;
+    private long cacheLocalTtlMillis = CACHE_LOCAL_TTL_MILLIS;
 
     @Bean
     public RedisLock getRedisLock(@Autowired SupercodeRedisClient supercodeRedisClient) {
         return new RedisLock(supercodeRedisClient);
     }
 
+    /**
+     * 供@EnableCaching使用的CacheManager，配置supercode.redis.cache.enabled=true时才注册
+     * <p>
+     * 本配置通过@Import加载，早于业务配置解析，无法可靠地判断业务是否声明了CacheManager，因此需要显式开启
+     */
+    @Bean
+    @ConditionalOnProperty(name = REDIS_CACHE_ENABLED, havingValue = "true")
+    public CacheManager supercodeRedisCacheManager(@Autowired SupercodeRedisClient supercodeRedisClient) {
+        log.info("SupercodeRedisConfig.cacheManager defaultTtl is {} cacheTtls is {} localMaxSize is {}", cacheDefaultTtlMillis, cacheTtls, cacheLocalMaxSize);
+        return new SupercodeRedisCacheManager(supercodeRedisClient, Duration.ofMillis(cacheDefaultTtlMillis), cacheTtls,
+                cacheLocalMaxSize, Duration.ofMillis(cacheLocalTtlMillis));
+    }
+
     @Override
     public void registerBeans() {
         initConfig();
-        log.info("SupercodeRedisConfig.start.init address is {} port is {} maxTotal is {} maxIdle is {} minIdle is {} ", redisAddress, redisPort, maxTotal, maxIdle, minIdle);
+        log.info("SupercodeRedisConfig.start.init address is {} port is {} maxTotal is {} maxIdle is {} minIdle is {} sharedConnections is {}", redisAddress, redisPort, maxTotal, maxIdle, minIdle, sharedConnections);
         registerBeanDefinitionIfNotExists(SupercodeBeanDefinition.newInstance(SupercodeRedisClient.class)
-                .addConstructorArgValue(redisAddress, redisPort, maxTotal, maxIdle, minIdle, clusterFlag, preparePool)
+                .addConstructorArgValue(redisAddress, redisPort, maxTotal, maxIdle, minIdle, clusterFlag, preparePool, sharedConnections)
                 .setBeanName("SupercodeRedisClient"));
     }
 
@@ -69,5 +93,36 @@ public class SupercodeRedisConfig extends AbstractBeanRegistrar {
         if (redisPreparePool != null) {
             this.preparePool = Boolean.parseBoolean(redisPreparePool);
         }
+
+        String sharedConnectionsStr = EnvironmentManager.getProperty(super.env, REDIS_SHARED_CONNECTIONS);
+        if (sharedConnectionsStr != null) {
+            this.sharedConnections = Integer.parseInt(sharedConnectionsStr);
+        }
+
+        String cacheDefaultTtlStr = EnvironmentManager.getProperty(super.env, REDIS_CACHE_DEFAULT_TTL);
+        if (cacheDefaultTtlStr != null) {
+            this.cacheDefaultTtlMillis = Long.parseLong(cacheDefaultTtlStr);
+        }
+
+        // 格式 cacheName:ttlMillis,cacheName:ttlMillis
+        String cacheTtlsStr = EnvironmentManager.getProperty(super.env, REDIS_CACHE_TTLS);
+        if (cacheTtlsStr != null) {
+            for (String cacheTtl : cacheTtlsStr.split(",")) {
+                String[] pair = cacheTtl.trim().split(":");
+                if (pair.length == 2) {
+                    this.cacheTtls.put(pair[0].trim(), Duration.ofMillis(Long.parseLong(pair[1].trim())));
+                }
+            }
+        }
+
+        String cacheLocalMaxSizeStr = EnvironmentManager.getProperty(super.env, REDIS_CACHE_LOCAL_MAX_SIZE);
+        if (cacheLocalMaxSizeStr != null) {
+            this.cacheLocalMaxSize = Long.parseLong(cacheLocalMaxSizeStr);
+        }
+
+        String cacheLocalTtlStr = EnvironmentManager.getProperty(super.env, REDIS_CACHE_LOCAL_TTL);
+        if (cacheLocalTtlStr != null) {
+            this.cacheLocalTtlMillis = Long.parseLong(cacheLocalTtlStr);
+        }
     }
 }
@@ -1,5 +1,7 @@
 package com.supercode.infra.cache.constant;
 
+import java.util.List;
+
 /**
  * 客户端相关的参数
  *
@@ -15,6 +17,42 @@ public class RedisClientConstant {
     public static final int MIN_IDLE = 10;
     public static final long TIME_BETWEEN_EVICTION_RUNS_MILLIS = 30000;
     public static final long MAX_WAIT_MILLIS = 300;
+    public static final int SHARED_CONNECTIONS = 0;
+    public static final long PIPELINE_TIMEOUT_MILLIS = 10000;
+    public static final long BATCH_GET_TIMEOUT_MILLIS = 10000;
+    public static final double LOADER_XFETCH_BETA = 1.0;
+    public static final long LOADER_STALE_MILLIS = 30000;
+    public static final long LOADER_LOCK_MILLIS = 3000;
+    public static final long LOADER_LOCK_REPLICA_WAIT_MILLIS = 50;
+    public static final long LOADER_POLL_MILLIS = 200;
+    public static final long CACHE_DEFAULT_TTL_MILLIS = 0;
+    public static final long CACHE_LOCAL_MAX_SIZE = 0;
+    public static final long CACHE_LOCAL_TTL_MILLIS = 60000;
+    public static final int COMPRESSION_DEFLATE_LEVEL = 1;
+    public static final int DICTIONARY_DEFLATE_LEVEL = 9;
+    public static final int DICTIONARY_MIN_BYTES = 32;
+    public static final int DICTIONARY_MAX_BYTES = 16 * 1024;
+    public static final int DICTIONARY_SAMPLE_COUNT = 1000;
+    public static final int DICTIONARY_SAMPLE_RATE = 10;
+    public static final long DICTIONARY_REFRESH_MILLIS = 60000;
+    public static final int HOTKEY_SAMPLE_RATE = 16;
+    public static final int HOTKEY_WINDOW_SLOTS = 6;
+    public static final int HOTKEY_SKETCH_WIDTH = 1024;
+    public static final int HOTKEY_CANDIDATE_FACTOR = 4;
+    public static final long HOTKEY_NEAR_CACHE_SIZE = 1000;
+    public static final int REPLICATED_MAX_COPIES = 16;
+    public static final int SHARDED_COUNTER_MAX_SHARDS = 64;
+    public static final int AGGREGATOR_FLUSH_BATCH = 1000;
+    public static final List<String> AGGREGATOR_RETRYABLE_ERRORS = List.of("LOADING", "TRYAGAIN", "CLUSTERDOWN", "OOM");
+    public static final double IDGEN_PREFETCH_RATIO = 0.5;
+    public static final long IDGEN_SEGMENT_MILLIS = 60000;
+    public static final long IDGEN_MAX_STEP = 1000000;
+    public static final long LOCK_SUBSCRIBE_TIMEOUT_MILLIS = 3000;
+    public static final long LOCK_FALLBACK_POLL_MILLIS = 1000;
+    public static final long LOCK_RETRY_MILLIS = 5;
+    public static final long LOCK_WATCHDOG_TICK_MILLIS = 500;
+    public static final long LOCK_LEASE_MILLIS = 30000;
+    public static final long LOCK_LEASE_MIN_MILLIS = 3000;
 
     public static final String REDIS_URL = "supercode.redis.address";
     public static final String REDIS_PORT = "supercode.redis.port";
@@ -23,4 +61,10 @@ public class RedisClientConstant {
     public static final String REDIS_MIN_IDLE = "supercode.redis.min.idle";
     public static final String REDIS_CLUSTER_FLAG = "supercode.redis.cluster.flag";
     public static final String REDIS_PREPARE_POOL = "supercode.redis.prepare.pool";
+    public static final String REDIS_SHARED_CONNECTIONS = "supercode.redis.shared.connections";
+    public static final String REDIS_CACHE_ENABLED = "supercode.redis.cache.enabled";
+    public static final String REDIS_CACHE_DEFAULT_TTL = "supercode.redis.cache.default.ttl.millis";
+    public static final String REDIS_CACHE_TTLS = "supercode.redis.cache.ttls";
+    public static final String REDIS_CACHE_LOCAL_MAX_SIZE = "supercode.redis.cache.local.max.size";
+    public static final String REDIS_CACHE_LOCAL_TTL = "supercode.redis.cache.local.ttl.millis";
 }
@@ -1,8 +1,11 @@
 package com.supercode.infra.cache.lock;
 
+import com.supercode.infra.cache.constant.RedisClientConstant;
 import com.supercode.infra.cache.exception.RedisLockException;
 import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
 import com.supercode.infra.cache.redis.cmd.AbstractRedisCmd;
+import com.supercode.infra.cache.redis.script.RedisScript;
+import com.supercode.infra.cache.redis.script.RedisScriptManager;
 import com.supercode.master.monitor.annotation.Metrics;
 import io.lettuce.core.ScriptOutputType;
 import io.lettuce.core.SetArgs;
@@ -35,30 +38,38 @@ public class RedisLock<K, V> extends AbstractRedisCmd<K, V> {
 
     private static final int MIN_RED_LOCK_REPLICA_COUNT = 2;
 
-    private static final String RETRY_TIME_IS_TOO_LONG = "retry time is too long";
+    static final String RETRY_TIME_IS_TOO_LONG = "retry time is too long";
 
-    private static final long RED_LOCK_DEFAULT_MAX_RETRY_TIME = 5 * 60 * 1000L;
+    static final long RED_LOCK_DEFAULT_MAX_RETRY_TIME = 5 * 60 * 1000L;
 
     private static final long RED_LOCK_DEFAULT_DEFAULT_RETRY_TIME = 60 * 1000L;
 
-    private static final String RED_LOCK_SCRIPT = """
+    /**
+     * 删除锁之后通知等待者，ARGV[2]为该锁的channel
+     */
+    private static final RedisScript RED_LOCK_SCRIPT = RedisScriptManager.register("redlock-release", ScriptOutputType.INTEGER, """
             if redis.call("get",KEYS[1]) == ARGV[1] then
-            	return redis.call("del",KEYS[1])
+            	redis.call("del",KEYS[1])
+            	redis.call("publish",ARGV[2],KEYS[1])
+            	return 1
             else
             	return 0
-            end""";
+            end""");
 
-    private static final String RED_LOCK_REFRESH_SCRIPT = """
+    private static final RedisScript RED_LOCK_REFRESH_SCRIPT = RedisScriptManager.register("redlock-refresh", ScriptOutputType.INTEGER, """
             if redis.call("get", KEYS[1]) == ARGV[1] then
                 return redis.call("pexpire", KEYS[1], ARGV[2])
             else
                 return 0
-            end""";
+            end""");
+
+    private static final RedisScript EXISTS_SCRIPT = RedisScriptManager.register("redlock-exists", ScriptOutputType.BOOLEAN, "return redis.call(\"exists\",KEYS[1])");
 
-    private static final String EXISTS_SCRIPT = "return redis.call(\"exists\",KEYS[1])";
+    private final SupercodeRedisClient<K, V> redisClient;
 
     public RedisLock(SupercodeRedisClient<K, V> supercodeRedisClient) {
         super(supercodeRedisClient);
+        this.redisClient = supercodeRedisClient;
     }
 
     /**
@@ -73,28 +84,44 @@ public class RedisLock<K, V> extends AbstractRedisCmd<K, V> {
         if (locked) {
             return locked;
         }
-        return commontryRedLockWithRetry(() -> this.tryRedLock(lock), RED_LOCK_DEFAULT_DEFAULT_RETRY_TIME);
+        return commontryRedLockWithRetry(lock, () -> this.tryRedLock(lock), RED_LOCK_DEFAULT_DEFAULT_RETRY_TIME);
     }
 
-    private boolean commontryRedLockWithRetry(Callable<Boolean> command, long retryTime) {
-        boolean locked = false;
-        long startTime = System.currentTimeMillis();
-        while (System.currentTimeMillis() - startTime < retryTime) {
-            try {
-                locked = command.call();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-            if (locked) {
-                return locked;
-            }
-            try {
-                Thread.sleep(5l);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+    /**
+     * 订阅该锁的释放通知后循环抢锁：抢锁失败时等待释放通知，最多等到持有者的PTTL到期或兜底轮询间隔
+     */
+    private boolean commontryRedLockWithRetry(String lock, Callable<Boolean> command, long retryTime) {
+        long deadline = System.currentTimeMillis() + retryTime;
+        String resource = this.getLockKey(lock);
+        RedisLockSubscriber subscriber = this.redisClient.getLockSubscriber();
+        RedisLockSubscriber.Entry entry = subscriber.subscribe(this.getLockChannel(lock));
+        try {
+            for (; ; ) {
+                boolean locked;
+                try {
+                    locked = command.call();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (locked || remaining <= 0) {
+                    return locked;
+                }
+                long ttl = this.doSingleNodeCmd(resource, cmd -> cmd.pttl(resource));
+                long wait;
+                if (ttl > 0) {
+                    wait = Math.min(ttl, RedisClientConstant.LOCK_FALLBACK_POLL_MILLIS);
+                } else if (ttl == -2) {
+                    // 锁已经不存在，稍后重试
+                    wait = RedisClientConstant.LOCK_RETRY_MILLIS;
+                } else {
+                    wait = RedisClientConstant.LOCK_FALLBACK_POLL_MILLIS;
+                }
+                entry.await(Math.min(wait, remaining));
             }
+        } finally {
+            subscriber.unsubscribe(entry);
         }
-        return locked;
     }
 
 
@@ -112,7 +139,7 @@ public class RedisLock<K, V> extends AbstractRedisCmd<K, V> {
         if (locked) {
             return locked;
         }
-        return commontryRedLockWithRetry(() -> this.tryRedLock(lock), retryTime);
+        return commontryRedLockWithRetry(lock, () -> this.tryRedLock(lock), retryTime);
     }
 
     /**
@@ -130,7 +157,7 @@ public class RedisLock<K, V> extends AbstractRedisCmd<K, V> {
         if (locked) {
             return locked;
         }
-        return commontryRedLockWithRetry(() -> this.tryRedLock(lock, maxLockMilliseconds), retryTimeoutMillis);
+        return commontryRedLockWithRetry(lock, () -> this.tryRedLock(lock, maxLockMilliseconds), retryTimeoutMillis);
 
     }
 
@@ -150,13 +177,47 @@ public class RedisLock<K, V> extends AbstractRedisCmd<K, V> {
         if (locked) {
             return locked;
         }
-        return commontryRedLockWithRetry(() -> this.tryRedLock(lock, maxLockMilliseconds, maxWaitMilliseconds), retryTimeoutMillis);
+        return commontryRedLockWithRetry(lock, () -> this.tryRedLock(lock, maxLockMilliseconds, maxWaitMilliseconds), retryTimeoutMillis);
     }
 
     public boolean tryRedLock(String lock) {
         return this.tryRedLock(lock, 5000);
     }
 
+    /**
+     * lease模式：以默认30秒的租约加锁，持有期间由看门狗在后台续期，不需要预估任务的耗时
+     * 必须调用releaseRedLock释放；持有锁的线程结束或进程退出后停止续期，锁在剩余的租约内过期
+     *
+     * @param lock 业务传入的key名
+     */
+    public boolean tryRedLockWithLease(String lock) {
+        return this.tryRedLockWithLease(lock, RedisClientConstant.LOCK_LEASE_MILLIS, 0);
+    }
+
+    /**
+     * @param lock               业务传入的key名
+     * @param leaseMilliseconds  租约时长，持有者失联后最多经过该时间锁被释放，最小3秒
+     * @param retryTimeoutMillis 当获取锁失败时重新获取锁的重试时间，0表示不重试（最长不能超过5分钟）
+     */
+    public boolean tryRedLockWithLease(String lock, long leaseMilliseconds, long retryTimeoutMillis) {
+        if (leaseMilliseconds < RedisClientConstant.LOCK_LEASE_MIN_MILLIS) {
+            throw new RedisLockException("lease time is too short");
+        }
+        if (retryTimeoutMillis > RED_LOCK_DEFAULT_MAX_RETRY_TIME) {
+            throw new RedisLockException(RETRY_TIME_IS_TOO_LONG);
+        }
+        boolean locked = this.tryRedLock(lock, leaseMilliseconds);
+        if (!locked && retryTimeoutMillis > 0) {
+            locked = commontryRedLockWithRetry(lock, () -> this.tryRedLock(lock, leaseMilliseconds), retryTimeoutMillis);
+        }
+        if (locked) {
+            String resource = this.getLockKey(lock);
+            this.redisClient.getLockWatchdog().watch(resource, this.redLockThreadLocal.get().get(lock), leaseMilliseconds,
+                    RED_LOCK_REFRESH_SCRIPT, Thread.currentThread());
+        }
+        return locked;
+    }
+
     /**
      * 上锁+执行task+主动释放锁
      *
@@ -252,7 +313,7 @@ public class RedisLock<K, V> extends AbstractRedisCmd<K, V> {
             Map<String, String> redLocks = this.redLockThreadLocal.get();
             if (redLocks.containsKey(lock)) {
                 long result = this.doSingleNodeCmd(resource, (cmd) ->
-                        cmd.eval(RED_LOCK_REFRESH_SCRIPT, ScriptOutputType.INTEGER,
+                        RedisScriptManager.<Long>eval(cmd, RED_LOCK_REFRESH_SCRIPT,
                                 new String[]{resource}, redLocks.get(lock), String.valueOf(maxLockMilliseconds))
                 );
                 return result == 1;
@@ -284,14 +345,16 @@ public class RedisLock<K, V> extends AbstractRedisCmd<K, V> {
         }
         String resource = this.getLockKey(lock);
         String sign = redLocks.get(lock);
+        // 先停止续期，避免续期与删除交错
+        RedisLockWatchdog.unwatchIfPresent(this.redisClient, resource, sign);
         boolean success = this.doSingleNodeCmd(resource, cmd -> {
-            long result = cmd.eval(RED_LOCK_SCRIPT, ScriptOutputType.INTEGER, new String[]{resource}, sign);
+            long result = RedisScriptManager.eval(cmd, RED_LOCK_SCRIPT, new String[]{resource}, sign, this.getLockChannel(lock));
             return result > 0;
         });
         if (success) {
             redLocks.remove(lock);
         } else {
-            boolean exists = this.doSingleNodeCmd(resource, cmd -> cmd.eval(EXISTS_SCRIPT, ScriptOutputType.BOOLEAN, new String[]{resource}));
+            boolean exists = this.doSingleNodeCmd(resource, cmd -> RedisScriptManager.<Boolean>eval(cmd, EXISTS_SCRIPT, new String[]{resource}));
             if (!exists) {
                 redLocks.remove(lock);
                 return true;
@@ -360,7 +423,7 @@ public class RedisLock<K, V> extends AbstractRedisCmd<K, V> {
             if (masterSuccess && rollback) {
                 // unfortunately, i want to delete the data
                 this.doSingleNodeCmd(resource, cmd ->
-                        cmd.eval(RED_LOCK_SCRIPT, ScriptOutputType.INTEGER, new String[]{resource}, sign)
+                        RedisScriptManager.<Long>eval(cmd, RED_LOCK_SCRIPT, new String[]{resource}, sign, this.getLockChannel(lock))
                 );
             }
         }
@@ -412,4 +475,11 @@ public class RedisLock<K, V> extends AbstractRedisCmd<K, V> {
     public String getLockKey(String lock) {
         return String.format("{%s}_%s", RED_LOCK_HASH_TAG, lock);
     }
+
+    /**
+     * 锁释放通知的channel
+     */
+    public String getLockChannel(String lock) {
+        return String.format("%s_channel_%s", RED_LOCK_HASH_TAG, lock);
+    }
 }
@@ -0,0 +1,57 @@
+package com.supercode.infra.cache.lock;
+
+import java.util.UUID;
+
+/**
+ * 可重入锁的持有者标识，与线程无关：可以在线程池、虚拟线程以及CompletableFuture的回调之间传递，
+ * 持有同一个标识的调用方共享锁的重入次数
+ *
+ * @author jonathan.ji
+ */
+public final class RedisLockOwner {
+
+    private final String id;
+
+    private RedisLockOwner(String id) {
+        this.id = id;
+    }
+
+    /**
+     * 随机生成一个全局唯一的持有者
+     */
+    public static RedisLockOwner create() {
+        return new RedisLockOwner(UUID.randomUUID().toString());
+    }
+
+    /**
+     * 使用业务上全局唯一的标识作为持有者，例如请求id、任务id
+     */
+    public static RedisLockOwner of(String id) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("owner id cannot be empty");
+        }
+        return new RedisLockOwner(id);
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof RedisLockOwner && this.id.equals(((RedisLockOwner) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.id;
+    }
+}
@@ -0,0 +1,137 @@
+package com.supercode.infra.cache.lock;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisLockException;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * 锁释放通知：进程内所有等待锁的线程共用一条pub/sub连接，同一个channel按引用计数只订阅一次
+ * <p>
+ * 释放脚本删除锁之后PUBLISH到该锁的channel，收到一条消息唤醒一个等待者，被唤醒的线程抢锁失败时继续等待下一次释放；
+ * 消息内容为{@link #WAKE_ALL}时唤醒该channel上所有的等待者，用于读锁等可以同时被多个调用方获取的锁。
+ * 连接断开重连后Lettuce会自动重新订阅，期间丢失的通知以及锁过期(不会PUBLISH)由等待者按PTTL和兜底轮询补偿。
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class RedisLockSubscriber extends RedisPubSubAdapter<String, String> implements Closeable {
+
+    public static final String WAKE_ALL = "*";
+
+    private final StatefulRedisPubSubConnection<String, String> connection;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public RedisLockSubscriber(StatefulRedisPubSubConnection<String, String> connection) {
+        this.connection = connection;
+        this.connection.addListener(this);
+    }
+
+    /**
+     * 订阅channel，订阅成功后返回，用完后必须调用{@link #unsubscribe(Entry)}
+     */
+    public Entry subscribe(String channel) {
+        Entry entry;
+        synchronized (this.entries) {
+            entry = this.entries.computeIfAbsent(channel, Entry::new);
+            if (entry.refs++ == 0) {
+                entry.subscribed = this.connection.async().subscribe(channel).toCompletableFuture();
+            }
+        }
+        try {
+            entry.subscribed.get(RedisClientConstant.LOCK_SUBSCRIBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            return entry;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            this.unsubscribe(entry);
+            throw new RedisLockException("interrupted while subscribing " + channel, ex);
+        } catch (Exception ex) {
+            this.unsubscribe(entry);
+            throw new RedisLockException("failed to subscribe " + channel, ex);
+        }
+    }
+
+    public void unsubscribe(Entry entry) {
+        synchronized (this.entries) {
+            if (--entry.refs == 0) {
+                this.entries.remove(entry.channel);
+                this.connection.async().unsubscribe(entry.channel);
+            }
+        }
+    }
+
+    @Override
+    public void message(String channel, String message) {
+        Entry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(channel);
+        }
+        if (entry != null) {
+            entry.signal.release(WAKE_ALL.equals(message) ? Math.max(entry.waiting.get(), 1) : 1);
+        }
+    }
+
+    /**
+     * 订阅channel后循环尝试获取，直到获取成功或超时
+     *
+     * @param tryAcquire 返回0表示获取成功，否则返回最多需要等待的时间，例如锁的剩余时间
+     */
+    boolean acquire(String channel, LongSupplier tryAcquire, long retryTimeoutMillis) {
+        long deadline = System.currentTimeMillis() + retryTimeoutMillis;
+        Entry entry = this.subscribe(channel);
+        try {
+            for (; ; ) {
+                long wait = tryAcquire.getAsLong();
+                long remaining = deadline - System.currentTimeMillis();
+                if (wait == 0 || remaining <= 0) {
+                    return wait == 0;
+                }
+                entry.await(Math.min(Math.min(wait, RedisClientConstant.LOCK_FALLBACK_POLL_MILLIS), remaining));
+            }
+        } finally {
+            this.unsubscribe(entry);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.connection.close();
+    }
+
+    public static final class Entry {
+        private final String channel;
+        private final Semaphore signal = new Semaphore(0);
+        private final AtomicInteger waiting = new AtomicInteger();
+        private int refs;
+        private CompletableFuture<Void> subscribed;
+
+        private Entry(String channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * 等待释放通知，超时返回false
+         */
+        public boolean await(long millis) {
+            this.waiting.incrementAndGet();
+            try {
+                return this.signal.tryAcquire(millis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RedisLockException("interrupted while waiting for " + this.channel, ex);
+            } finally {
+                this.waiting.decrementAndGet();
+            }
+        }
+    }
+}
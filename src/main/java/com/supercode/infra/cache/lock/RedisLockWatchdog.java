@@ -0,0 +1,178 @@
+package com.supercode.infra.cache.lock;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.script.RedisScript;
+import com.supercode.infra.cache.redis.script.RedisScriptManager;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁的看门狗：lease模式的锁以较短的TTL加锁，由一个共享的调度线程在租约过去1/3时续期
+ * <p>
+ * 每个周期把所有到期需要续期的锁放进同一个管道发出EVALSHA(集群模式下按节点并行写出)，
+ * 续期返回0说明锁已经过期或被其他调用方持有，视为租约丢失并停止续期。
+ * releaseRedLock或持有锁的线程结束后不再续期，锁在剩余的租约内自然过期。
+ * <p>
+ * 指标：
+ * supercode.redis.lock.renewal{result} 续期次数，result为success/failure(网络等错误，下个周期重试)
+ * supercode.redis.lock.lost{reason}    租约丢失次数，reason为expired(续期时锁已不属于自己)/owner(持有线程已结束)
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class RedisLockWatchdog implements Closeable {
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private boolean closed;
+
+    public RedisLockWatchdog(SupercodeRedisClient<?, ?> supercodeRedisClient) {
+        this.supercodeRedisClient = supercodeRedisClient;
+    }
+
+    /**
+     * 开始为锁续期，重复调用时更新租约；调度线程在第一次续期时启动
+     *
+     * @param refreshScript 续期脚本，KEYS[1]为锁，ARGV[1]为持有者标识，ARGV[2]为租约时长，续期成功返回1
+     * @param owner         持有锁的线程，结束后停止续期；锁的持有者与线程无关时为null
+     */
+    void watch(String resource, String sign, long leaseMillis, RedisScript refreshScript, Thread owner) {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            if (this.scheduler == null) {
+                this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "supercode-redis-lock-watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                this.scheduler.scheduleWithFixedDelay(this::renewQuietly, RedisClientConstant.LOCK_WATCHDOG_TICK_MILLIS,
+                        RedisClientConstant.LOCK_WATCHDOG_TICK_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        }
+        this.leases.put(leaseKey(resource, sign), new Lease(resource, sign, leaseMillis, refreshScript, owner));
+    }
+
+    void unwatch(String resource, String sign) {
+        this.leases.remove(leaseKey(resource, sign));
+    }
+
+    /**
+     * 释放锁时停止续期；看门狗还没有创建时什么都不做，不会为了释放锁创建看门狗(客户端关闭过程中创建会抛出异常)
+     */
+    static void unwatchIfPresent(SupercodeRedisClient<?, ?> supercodeRedisClient, String resource, String sign) {
+        RedisLockWatchdog watchdog = supercodeRedisClient.peekLockWatchdog();
+        if (watchdog != null) {
+            watchdog.unwatch(resource, sign);
+        }
+    }
+
+    /**
+     * 读锁等共享锁同一个resource可以有多个持有者，按resource和持有者标识区分租约
+     */
+    private static String leaseKey(String resource, String sign) {
+        return resource + "#" + sign;
+    }
+
+    /**
+     * 正在续期的锁的数量
+     */
+    public int size() {
+        return this.leases.size();
+    }
+
+    private void renewQuietly() {
+        try {
+            this.renew();
+        } catch (Exception ex) {
+            log.error("RedisLockWatchdog.renew error.", ex);
+        }
+    }
+
+    private void renew() {
+        long now = System.currentTimeMillis();
+        List<Lease> due = new ArrayList<>();
+        for (Lease lease : this.leases.values()) {
+            if (lease.owner != null && !lease.owner.isAlive()) {
+                this.lost(lease, "owner");
+            } else if (now - lease.renewedAt >= lease.leaseMillis / 3) {
+                due.add(lease);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Object> results = this.supercodeRedisClient.pipeline(p -> {
+            for (Lease lease : due) {
+                p.evalsha(lease.refreshScript, new String[]{lease.resource}, lease.sign, String.valueOf(lease.leaseMillis));
+            }
+        });
+        for (int i = 0; i < due.size(); i++) {
+            Lease lease = due.get(i);
+            Object result = results.get(i);
+            if (result instanceof Throwable) {
+                // 例如主从切换后新的主节点上还没有脚本，单独执行一次以加载脚本
+                try {
+                    result = this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(lease.resource, cmd -> RedisScriptManager.eval(cmd,
+                            lease.refreshScript, new String[]{lease.resource}, lease.sign, String.valueOf(lease.leaseMillis)));
+                } catch (Exception ex) {
+                    Metrics.counter("supercode.redis.lock.renewal", "result", "failure").increment();
+                    log.warn("RedisLockWatchdog renew failed, retry in the next round. resource is {}", lease.resource, ex);
+                    continue;
+                }
+            }
+            if (Long.valueOf(1).equals(result)) {
+                lease.renewedAt = now;
+                Metrics.counter("supercode.redis.lock.renewal", "result", "success").increment();
+            } else {
+                this.lost(lease, "expired");
+            }
+        }
+    }
+
+    private void lost(Lease lease, String reason) {
+        // 只移除同一次加锁的租约，避免误删同一个锁重新加锁后的租约
+        if (this.leases.remove(leaseKey(lease.resource, lease.sign), lease)) {
+            Metrics.counter("supercode.redis.lock.lost", "reason", reason).increment();
+            log.warn("RedisLockWatchdog lease lost. resource is {} sign is {} reason is {}", lease.resource, lease.sign, reason);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+        }
+        this.leases.clear();
+    }
+
+    private static final class Lease {
+        private final String resource;
+        private final String sign;
+        private final long leaseMillis;
+        private final RedisScript refreshScript;
+        private final Thread owner;
+        private volatile long renewedAt = System.currentTimeMillis();
+
+        private Lease(String resource, String sign, long leaseMillis, RedisScript refreshScript, Thread owner) {
+            this.resource = resource;
+            this.sign = sign;
+            this.leaseMillis = leaseMillis;
+            this.refreshScript = refreshScript;
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.supercode.infra.cache.lock;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisLockException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.script.RedisScript;
+import com.supercode.infra.cache.redis.script.RedisScriptManager;
+import io.lettuce.core.ScriptOutputType;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 读写锁：读锁可以被多个持有者同时获取，写锁独占，持有者由{@link RedisLockOwner}区分，读锁和写锁都可以重入
+ * <p>
+ * 锁是一个hash：mode为read/write，r:{owner}、w:{owner}为各持有者的重入次数，readers为读锁的总次数。
+ * 写优先：等待中的写锁把自己登记在 {redlock}_rw_{name}_writers 的zset中(score为等待截止时间)，
+ * 此时新的读锁需要等待，已经持有读锁的持有者仍可重入，写锁不会被源源不断的读锁饿死。
+ * 写锁的持有者可以再获取读锁(降级)，读锁不能升级为写锁。
+ * <p>
+ * 锁释放时以{@link RedisLockSubscriber#WAKE_ALL}通知所有等待者，等待中的读锁可以同时获取。
+ * 所有读锁共用hash的过期时间，取各持有者过期时间的最大值，持有者失联时在其他读锁都释放后过期。
+ *
+ * @author jonathan.ji
+ */
+public class RedisReadWriteLock {
+
+    /**
+     * 加锁成功返回0，否则返回建议的等待时间
+     */
+    private static final RedisScript READ_ACQUIRE_SCRIPT = RedisScriptManager.register("rwlock-read-acquire", ScriptOutputType.INTEGER, """
+            local mode = redis.call("hget", KEYS[1], "mode")
+            local reader = "r:" .. ARGV[1]
+            if mode == "write" then
+                if redis.call("hexists", KEYS[1], "w:" .. ARGV[1]) == 0 then
+                    return math.max(redis.call("pttl", KEYS[1]), 1)
+                end
+            elseif redis.call("hexists", KEYS[1], reader) == 0 then
+                local t = redis.call("time")
+                local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+                redis.call("zremrangebyscore", KEYS[2], "-inf", now)
+                local writer = redis.call("zrange", KEYS[2], -1, -1, "withscores")
+                if #writer > 0 then
+                    return math.max(tonumber(writer[2]) - now, 1)
+                end
+            end
+            if mode == false then
+                redis.call("hset", KEYS[1], "mode", "read")
+            end
+            redis.call("hincrby", KEYS[1], reader, 1)
+            redis.call("hincrby", KEYS[1], "readers", 1)
+            if redis.call("pttl", KEYS[1]) < tonumber(ARGV[2]) then
+                redis.call("pexpire", KEYS[1], ARGV[2])
+            end
+            return 0""");
+
+    /**
+     * 加锁成功返回0并移除自己的等待登记；否则ARGV[3]大于0时登记等待ARGV[3]毫秒，返回锁的剩余时间
+     */
+    private static final RedisScript WRITE_ACQUIRE_SCRIPT = RedisScriptManager.register("rwlock-write-acquire", ScriptOutputType.INTEGER, """
+            local mode = redis.call("hget", KEYS[1], "mode")
+            local writer = "w:" .. ARGV[1]
+            if mode == false or (mode == "write" and redis.call("hexists", KEYS[1], writer) == 1) then
+                redis.call("hset", KEYS[1], "mode", "write")
+                redis.call("hincrby", KEYS[1], writer, 1)
+                redis.call("pexpire", KEYS[1], ARGV[2])
+                redis.call("zrem", KEYS[2], ARGV[1])
+                return 0
+            end
+            if tonumber(ARGV[3]) > 0 then
+                local t = redis.call("time")
+                local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+                redis.call("zadd", KEYS[2], now + tonumber(ARGV[3]), ARGV[1])
+                if redis.call("pttl", KEYS[2]) < tonumber(ARGV[3]) then
+                    redis.call("pexpire", KEYS[2], ARGV[3])
+                end
+            end
+            return math.max(redis.call("pttl", KEYS[1]), 1)""");
+
+    /**
+     * 返回owner剩余的读锁次数，未持有时返回-1，最后一个读锁释放时删除锁并通知所有等待者
+     */
+    private static final RedisScript READ_RELEASE_SCRIPT = RedisScriptManager.register("rwlock-read-release", ScriptOutputType.INTEGER, """
+            local reader = "r:" .. ARGV[1]
+            if redis.call("hexists", KEYS[1], reader) == 0 then
+                return -1
+            end
+            local count = redis.call("hincrby", KEYS[1], reader, -1)
+            if count == 0 then
+                redis.call("hdel", KEYS[1], reader)
+            end
+            local readers = redis.call("hincrby", KEYS[1], "readers", -1)
+            if readers == 0 and redis.call("hget", KEYS[1], "mode") == "read" then
+                redis.call("del", KEYS[1])
+                redis.call("publish", ARGV[2], "*")
+            end
+            return count""");
+
+    /**
+     * 返回owner剩余的写锁次数，未持有时返回-1；写锁全部释放时，仍持有读锁(降级)则切换为读模式，否则删除锁，并通知所有等待者
+     */
+    private static final RedisScript WRITE_RELEASE_SCRIPT = RedisScriptManager.register("rwlock-write-release", ScriptOutputType.INTEGER, """
+            local writer = "w:" .. ARGV[1]
+            if redis.call("hexists", KEYS[1], writer) == 0 then
+                return -1
+            end
+            local count = redis.call("hincrby", KEYS[1], writer, -1)
+            if count > 0 then
+                return count
+            end
+            redis.call("hdel", KEYS[1], writer)
+            if tonumber(redis.call("hget", KEYS[1], "readers") or "0") > 0 then
+                redis.call("hset", KEYS[1], "mode", "read")
+            else
+                redis.call("del", KEYS[1])
+            end
+            redis.call("publish", ARGV[2], "*")
+            return 0""");
+
+    /**
+     * ARGV[1]为r:{owner}或w:{owner}，只延长不缩短过期时间
+     */
+    private static final RedisScript REFRESH_SCRIPT = RedisScriptManager.register("rwlock-refresh", ScriptOutputType.INTEGER, """
+            if redis.call("hexists", KEYS[1], ARGV[1]) == 1 then
+                if redis.call("pttl", KEYS[1]) < tonumber(ARGV[2]) then
+                    redis.call("pexpire", KEYS[1], ARGV[2])
+                end
+                return 1
+            end
+            return 0""");
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final String name;
+    private final String resource;
+    private final String writersKey;
+    private final String channel;
+
+    public RedisReadWriteLock(SupercodeRedisClient<?, ?> supercodeRedisClient, String name) {
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.name = name;
+        RedisLock<?, ?> redisLock = supercodeRedisClient.redisLockCmd();
+        this.resource = redisLock.getLockKey("rw_" + name);
+        this.writersKey = this.resource + "_writers";
+        this.channel = redisLock.getLockChannel("rw_" + name);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @param maxLockMilliseconds 锁过期时间
+     * @param retryTimeoutMillis  当获取锁失败时重新获取锁的重试时间，0表示不重试（最长不能超过5分钟）
+     */
+    public boolean tryReadLock(RedisLockOwner owner, long maxLockMilliseconds, long retryTimeoutMillis) {
+        return maxLockMilliseconds > 0 && this.acquireRead(owner, maxLockMilliseconds, retryTimeoutMillis);
+    }
+
+    /**
+     * lease模式的读锁，持有期间由看门狗续期
+     */
+    public boolean tryReadLockWithLease(RedisLockOwner owner, long leaseMilliseconds, long retryTimeoutMillis) {
+        checkLease(leaseMilliseconds);
+        if (!this.acquireRead(owner, leaseMilliseconds, retryTimeoutMillis)) {
+            return false;
+        }
+        this.supercodeRedisClient.getLockWatchdog().watch(this.resource, "r:" + owner.getId(), leaseMilliseconds, REFRESH_SCRIPT, null);
+        return true;
+    }
+
+    /**
+     * 释放一次读锁
+     *
+     * @return owner剩余的读锁次数，未持有时返回-1
+     */
+    public long unlockRead(RedisLockOwner owner) {
+        long remaining = this.release(READ_RELEASE_SCRIPT, owner);
+        if (remaining <= 0) {
+            RedisLockWatchdog.unwatchIfPresent(this.supercodeRedisClient, this.resource, "r:" + owner.getId());
+        }
+        return remaining;
+    }
+
+    /**
+     * @param maxLockMilliseconds 锁过期时间
+     * @param retryTimeoutMillis  当获取锁失败时重新获取锁的重试时间，等待期间阻止新的读锁，0表示不重试（最长不能超过5分钟）
+     */
+    public boolean tryWriteLock(RedisLockOwner owner, long maxLockMilliseconds, long retryTimeoutMillis) {
+        return maxLockMilliseconds > 0 && this.acquireWrite(owner, maxLockMilliseconds, retryTimeoutMillis);
+    }
+
+    /**
+     * lease模式的写锁，持有期间由看门狗续期
+     */
+    public boolean tryWriteLockWithLease(RedisLockOwner owner, long leaseMilliseconds, long retryTimeoutMillis) {
+        checkLease(leaseMilliseconds);
+        if (!this.acquireWrite(owner, leaseMilliseconds, retryTimeoutMillis)) {
+            return false;
+        }
+        this.supercodeRedisClient.getLockWatchdog().watch(this.resource, "w:" + owner.getId(), leaseMilliseconds, REFRESH_SCRIPT, null);
+        return true;
+    }
+
+    /**
+     * 释放一次写锁
+     *
+     * @return owner剩余的写锁次数，未持有时返回-1
+     */
+    public long unlockWrite(RedisLockOwner owner) {
+        long remaining = this.release(WRITE_RELEASE_SCRIPT, owner);
+        if (remaining <= 0) {
+            RedisLockWatchdog.unwatchIfPresent(this.supercodeRedisClient, this.resource, "w:" + owner.getId());
+        }
+        return remaining;
+    }
+
+    /**
+     * 当前模式：read、write，未被持有时返回null
+     */
+    public String getMode() {
+        return this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(this.resource, cmd -> cmd.hget(this.resource, "mode"));
+    }
+
+    private boolean acquireRead(RedisLockOwner owner, long expireMillis, long retryTimeoutMillis) {
+        if (!this.checkAcquire(retryTimeoutMillis)) {
+            return false;
+        }
+        long wait = this.eval(READ_ACQUIRE_SCRIPT, new String[]{this.resource, this.writersKey}, owner.getId(), String.valueOf(expireMillis));
+        if (wait == 0 || retryTimeoutMillis <= 0) {
+            return wait == 0;
+        }
+        return this.supercodeRedisClient.getLockSubscriber().acquire(this.channel, () -> this.eval(READ_ACQUIRE_SCRIPT,
+                new String[]{this.resource, this.writersKey}, owner.getId(), String.valueOf(expireMillis)), retryTimeoutMillis);
+    }
+
+    private boolean acquireWrite(RedisLockOwner owner, long expireMillis, long retryTimeoutMillis) {
+        if (!this.checkAcquire(retryTimeoutMillis)) {
+            return false;
+        }
+        long deadline = System.currentTimeMillis() + retryTimeoutMillis;
+        LongSupplier attempt = () -> this.eval(WRITE_ACQUIRE_SCRIPT, new String[]{this.resource, this.writersKey}, owner.getId(),
+                String.valueOf(expireMillis), String.valueOf(Math.max(deadline - System.currentTimeMillis(), 0)));
+        long wait = attempt.getAsLong();
+        if (wait == 0 || retryTimeoutMillis <= 0) {
+            return wait == 0;
+        }
+        boolean acquired = false;
+        try {
+            acquired = this.supercodeRedisClient.getLockSubscriber().acquire(this.channel, attempt, deadline - System.currentTimeMillis());
+            return acquired;
+        } finally {
+            if (!acquired) {
+                // 放弃等待，不再阻止新的读锁
+                this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(this.writersKey, cmd -> cmd.zrem(this.writersKey, owner.getId()));
+            }
+        }
+    }
+
+    private boolean checkAcquire(long retryTimeoutMillis) {
+        if (retryTimeoutMillis > RedisLock.RED_LOCK_DEFAULT_MAX_RETRY_TIME) {
+            throw new RedisLockException(RedisLock.RETRY_TIME_IS_TOO_LONG);
+        }
+        return !this.supercodeRedisClient.getCloseFlag();
+    }
+
+    private static void checkLease(long leaseMilliseconds) {
+        if (leaseMilliseconds < RedisClientConstant.LOCK_LEASE_MIN_MILLIS) {
+            throw new RedisLockException("lease time is too short");
+        }
+    }
+
+    private long release(RedisScript script, RedisLockOwner owner) {
+        return this.eval(script, new String[]{this.resource}, owner.getId(), this.channel);
+    }
+
+    private long eval(RedisScript script, String[] keys, String... args) {
+        return this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(this.resource, cmd -> RedisScriptManager.<Long>eval(cmd, script, keys, args));
+    }
+}
@@ -0,0 +1,147 @@
+package com.supercode.infra.cache.lock;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisLockException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.script.RedisScript;
+import com.supercode.infra.cache.redis.script.RedisScriptManager;
+import io.lettuce.core.ScriptOutputType;
+
+/**
+ * 以持有者标识({@link RedisLockOwner})而不是线程区分持有者的可重入锁
+ * <p>
+ * 锁是一个hash，field为持有者标识，value为重入次数，加锁、释放、续期都在Lua脚本中原子完成，
+ * 本地不保存任何ThreadLocal状态，因此可以在虚拟线程、线程池以及异步回调之间传递持有者。
+ * 最后一次释放时删除锁并通知等待者，等待方式与{@link RedisLock#tryRedLockWithRetry}相同。
+ * <p>
+ * 例如 supercodeRedisClient.reentrantLock("order:1").tryLockWithLease(owner, 30000, 10000)
+ *
+ * @author jonathan.ji
+ */
+public class RedisReentrantLock {
+
+    /**
+     * 未被持有或者由ARGV[1]持有时重入次数+1并重置过期时间，返回0；否则返回锁的剩余时间
+     */
+    private static final RedisScript ACQUIRE_SCRIPT = RedisScriptManager.register("reentrant-lock-acquire", ScriptOutputType.INTEGER, """
+            if redis.call("exists", KEYS[1]) == 0 or redis.call("hexists", KEYS[1], ARGV[1]) == 1 then
+                redis.call("hincrby", KEYS[1], ARGV[1], 1)
+                redis.call("pexpire", KEYS[1], ARGV[2])
+                return 0
+            end
+            return math.max(redis.call("pttl", KEYS[1]), 1)""");
+
+    /**
+     * 返回剩余的重入次数，不是ARGV[1]持有时返回-1，减到0时删除锁并PUBLISH到ARGV[2]
+     */
+    private static final RedisScript RELEASE_SCRIPT = RedisScriptManager.register("reentrant-lock-release", ScriptOutputType.INTEGER, """
+            if redis.call("hexists", KEYS[1], ARGV[1]) == 0 then
+                return -1
+            end
+            local count = redis.call("hincrby", KEYS[1], ARGV[1], -1)
+            if count > 0 then
+                return count
+            end
+            redis.call("del", KEYS[1])
+            redis.call("publish", ARGV[2], KEYS[1])
+            return 0""");
+
+    private static final RedisScript REFRESH_SCRIPT = RedisScriptManager.register("reentrant-lock-refresh", ScriptOutputType.INTEGER, """
+            if redis.call("hexists", KEYS[1], ARGV[1]) == 1 then
+                return redis.call("pexpire", KEYS[1], ARGV[2])
+            end
+            return 0""");
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final String name;
+    private final String resource;
+    private final String channel;
+
+    public RedisReentrantLock(SupercodeRedisClient<?, ?> supercodeRedisClient, String name) {
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.name = name;
+        RedisLock<?, ?> redisLock = supercodeRedisClient.redisLockCmd();
+        this.resource = redisLock.getLockKey("reentrant_" + name);
+        this.channel = redisLock.getLockChannel("reentrant_" + name);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @param maxLockMilliseconds 锁过期时间，每次重入时重置
+     * @param retryTimeoutMillis  当获取锁失败时重新获取锁的重试时间，0表示不重试（最长不能超过5分钟）
+     */
+    public boolean tryLock(RedisLockOwner owner, long maxLockMilliseconds, long retryTimeoutMillis) {
+        if (maxLockMilliseconds <= 0) {
+            return false;
+        }
+        return this.acquire(owner, maxLockMilliseconds, retryTimeoutMillis);
+    }
+
+    /**
+     * lease模式：持有期间由看门狗续期，最后一次unlock时停止续期
+     *
+     * @param leaseMilliseconds  租约时长，持有者失联后最多经过该时间锁被释放，最小3秒
+     * @param retryTimeoutMillis 当获取锁失败时重新获取锁的重试时间，0表示不重试（最长不能超过5分钟）
+     */
+    public boolean tryLockWithLease(RedisLockOwner owner, long leaseMilliseconds, long retryTimeoutMillis) {
+        if (leaseMilliseconds < RedisClientConstant.LOCK_LEASE_MIN_MILLIS) {
+            throw new RedisLockException("lease time is too short");
+        }
+        if (!this.acquire(owner, leaseMilliseconds, retryTimeoutMillis)) {
+            return false;
+        }
+        this.supercodeRedisClient.getLockWatchdog().watch(this.resource, owner.getId(), leaseMilliseconds, REFRESH_SCRIPT, null);
+        return true;
+    }
+
+    /**
+     * 释放一次重入，重入次数减到0时释放锁
+     *
+     * @return 剩余的重入次数，锁不由owner持有(已过期或从未加锁)时返回-1
+     */
+    public long unlock(RedisLockOwner owner) {
+        long remaining = this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(this.resource, cmd -> RedisScriptManager.<Long>eval(cmd,
+                RELEASE_SCRIPT, new String[]{this.resource}, owner.getId(), this.channel));
+        if (remaining <= 0) {
+            RedisLockWatchdog.unwatchIfPresent(this.supercodeRedisClient, this.resource, owner.getId());
+        }
+        return remaining;
+    }
+
+    /**
+     * owner当前的重入次数，未持有时返回0
+     */
+    public int getHoldCount(RedisLockOwner owner) {
+        String count = this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(this.resource, cmd -> cmd.hget(this.resource, owner.getId()));
+        return count == null ? 0 : Integer.parseInt(count);
+    }
+
+    public boolean isLocked() {
+        return this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(this.resource, cmd -> cmd.exists(this.resource)) > 0;
+    }
+
+    private boolean acquire(RedisLockOwner owner, long expireMillis, long retryTimeoutMillis) {
+        if (retryTimeoutMillis > RedisLock.RED_LOCK_DEFAULT_MAX_RETRY_TIME) {
+            throw new RedisLockException(RedisLock.RETRY_TIME_IS_TOO_LONG);
+        }
+        if (this.supercodeRedisClient.getCloseFlag()) {
+            return false;
+        }
+        long ttl = this.tryAcquire(owner, expireMillis);
+        if (ttl == 0 || retryTimeoutMillis <= 0) {
+            return ttl == 0;
+        }
+        return this.supercodeRedisClient.getLockSubscriber().acquire(this.channel, () -> this.tryAcquire(owner, expireMillis), retryTimeoutMillis);
+    }
+
+    /**
+     * 返回0表示加锁成功，否则返回锁的剩余时间
+     */
+    private long tryAcquire(RedisLockOwner owner, long expireMillis) {
+        return this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(this.resource, cmd -> RedisScriptManager.<Long>eval(cmd,
+                ACQUIRE_SCRIPT, new String[]{this.resource}, owner.getId(), String.valueOf(expireMillis)));
+    }
+}
@@ -0,0 +1,215 @@
+package com.supercode.infra.cache.lock;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisLockException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.script.RedisScript;
+import com.supercode.infra.cache.redis.script.RedisScriptManager;
+import com.supercode.infra.cache.utils.MetricUtils;
+import io.lettuce.core.ScriptOutputType;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * 分布式信号量：限制同时访问下游服务的并发数，一次可以获取多个许可
+ * <p>
+ * 每次获取得到一个租约：{redlock}_semaphore_{name} 的zset中member为租约id，score为到期时间，
+ * {redlock}_semaphore_{name}_permits 的hash中保存每个租约的许可数以及已占用的总数(used)。
+ * 获取时先回收已到期的租约，因此持有者失联后许可最多在租约到期后归还，不需要后台清理。
+ * 许可不足时返回最早到期的租约的剩余时间，等待者订阅释放通知，最多等到该时间再重试，不轮询。
+ * 所有使用同一个name的调用方必须配置相同的许可总数。
+ * <p>
+ * 指标：supercode.redis.semaphore.wait{name, result} 获取许可的等待时间，result为acquired/timeout
+ *
+ * @author jonathan.ji
+ */
+public class RedisSemaphore {
+
+    /**
+     * ARGV: 租约id、许可数、许可总数、租约时长；获取成功返回0，否则返回建议的等待时间
+     */
+    private static final RedisScript ACQUIRE_SCRIPT = RedisScriptManager.register("semaphore-acquire", ScriptOutputType.INTEGER, """
+            local t = redis.call("time")
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local expired = redis.call("zrangebyscore", KEYS[1], "-inf", now)
+            for _, id in ipairs(expired) do
+                local permits = redis.call("hget", KEYS[2], id)
+                if permits then
+                    redis.call("hincrby", KEYS[2], "used", -tonumber(permits))
+                    redis.call("hdel", KEYS[2], id)
+                end
+            end
+            if #expired > 0 then
+                redis.call("zremrangebyscore", KEYS[1], "-inf", now)
+            end
+            local used = tonumber(redis.call("hget", KEYS[2], "used") or "0")
+            if used + tonumber(ARGV[2]) > tonumber(ARGV[3]) then
+                local first = redis.call("zrange", KEYS[1], 0, 0, "withscores")
+                if #first > 0 then
+                    return math.max(tonumber(first[2]) - now, 1)
+                end
+                return 1
+            end
+            redis.call("zadd", KEYS[1], now + tonumber(ARGV[4]), ARGV[1])
+            redis.call("hset", KEYS[2], ARGV[1], ARGV[2])
+            redis.call("hincrby", KEYS[2], "used", ARGV[2])
+            return 0""");
+
+    /**
+     * 返回归还的许可数，租约已到期被回收时返回0；归还后通知所有等待者
+     */
+    private static final RedisScript RELEASE_SCRIPT = RedisScriptManager.register("semaphore-release", ScriptOutputType.INTEGER, """
+            local permits = redis.call("hget", KEYS[2], ARGV[1])
+            if not permits then
+                return 0
+            end
+            redis.call("hdel", KEYS[2], ARGV[1])
+            redis.call("zrem", KEYS[1], ARGV[1])
+            redis.call("hincrby", KEYS[2], "used", -tonumber(permits))
+            redis.call("publish", ARGV[2], "*")
+            return tonumber(permits)""");
+
+    /**
+     * 看门狗续期：租约未到期时把到期时间延后ARGV[2]毫秒
+     */
+    private static final RedisScript REFRESH_SCRIPT = RedisScriptManager.register("semaphore-refresh", ScriptOutputType.INTEGER, """
+            local score = redis.call("zscore", KEYS[1], ARGV[1])
+            local t = redis.call("time")
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            if score and tonumber(score) > now then
+                redis.call("zadd", KEYS[1], "XX", now + tonumber(ARGV[2]), ARGV[1])
+                return 1
+            end
+            return 0""");
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final String name;
+    private final int permits;
+    private final String leasesKey;
+    private final String permitsKey;
+    private final String channel;
+
+    /**
+     * @param permits 许可总数
+     */
+    public RedisSemaphore(SupercodeRedisClient<?, ?> supercodeRedisClient, String name, int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits must be positive");
+        }
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.name = name;
+        this.permits = permits;
+        RedisLock<?, ?> redisLock = supercodeRedisClient.redisLockCmd();
+        this.leasesKey = redisLock.getLockKey("semaphore_" + name);
+        this.permitsKey = this.leasesKey + "_permits";
+        this.channel = redisLock.getLockChannel("semaphore_" + name);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getPermits() {
+        return this.permits;
+    }
+
+    /**
+     * 获取count个许可，租约到期后许可自动归还
+     *
+     * @param maxLeaseMilliseconds 租约时长
+     * @param retryTimeoutMillis   许可不足时的等待时间，0表示不等待（最长不能超过5分钟）
+     * @return 获取到的许可，失败时返回null
+     */
+    public Permit tryAcquire(int count, long maxLeaseMilliseconds, long retryTimeoutMillis) {
+        if (maxLeaseMilliseconds <= 0) {
+            return null;
+        }
+        return this.acquire(count, maxLeaseMilliseconds, retryTimeoutMillis);
+    }
+
+    /**
+     * lease模式：持有期间由看门狗续期，进程退出后许可在租约到期后归还
+     *
+     * @param leaseMilliseconds  租约时长，最小3秒
+     * @param retryTimeoutMillis 许可不足时的等待时间，0表示不等待（最长不能超过5分钟）
+     * @return 获取到的许可，失败时返回null
+     */
+    public Permit tryAcquireWithLease(int count, long leaseMilliseconds, long retryTimeoutMillis) {
+        if (leaseMilliseconds < RedisClientConstant.LOCK_LEASE_MIN_MILLIS) {
+            throw new RedisLockException("lease time is too short");
+        }
+        Permit permit = this.acquire(count, leaseMilliseconds, retryTimeoutMillis);
+        if (permit != null) {
+            this.supercodeRedisClient.getLockWatchdog().watch(this.leasesKey, permit.id, leaseMilliseconds, REFRESH_SCRIPT, null);
+        }
+        return permit;
+    }
+
+    /**
+     * 归还许可
+     *
+     * @return 归还的许可数，租约已经到期被回收时返回0
+     */
+    public int release(Permit permit) {
+        RedisLockWatchdog.unwatchIfPresent(this.supercodeRedisClient, this.leasesKey, permit.id);
+        return (int) this.eval(RELEASE_SCRIPT, permit.id, this.channel);
+    }
+
+    /**
+     * 当前已被占用的许可数，包括已到期但还没有被回收的租约
+     */
+    public int usedPermits() {
+        String used = this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(this.permitsKey, cmd -> cmd.hget(this.permitsKey, "used"));
+        return used == null ? 0 : Integer.parseInt(used);
+    }
+
+    private Permit acquire(int count, long leaseMillis, long retryTimeoutMillis) {
+        if (count <= 0 || count > this.permits) {
+            throw new IllegalArgumentException("count must be between 1 and " + this.permits);
+        }
+        if (retryTimeoutMillis > RedisLock.RED_LOCK_DEFAULT_MAX_RETRY_TIME) {
+            throw new RedisLockException(RedisLock.RETRY_TIME_IS_TOO_LONG);
+        }
+        if (this.supercodeRedisClient.getCloseFlag()) {
+            return null;
+        }
+        String id = UUID.randomUUID().toString();
+        LongSupplier attempt = () -> this.eval(ACQUIRE_SCRIPT, id, String.valueOf(count), String.valueOf(this.permits), String.valueOf(leaseMillis));
+        long start = System.currentTimeMillis();
+        boolean acquired = attempt.getAsLong() == 0;
+        if (!acquired && retryTimeoutMillis > 0) {
+            acquired = this.supercodeRedisClient.getLockSubscriber().acquire(this.channel, attempt, retryTimeoutMillis);
+        }
+        MetricUtils.recordTime("supercode.redis.semaphore.wait", "time spent waiting for semaphore permits",
+                Duration.ofMillis(System.currentTimeMillis() - start), "name", this.name, "result", acquired ? "acquired" : "timeout");
+        return acquired ? new Permit(id, count) : null;
+    }
+
+    private long eval(RedisScript script, String... args) {
+        return this.supercodeRedisClient.redisLockCmd().doSingleNodeCmd(this.leasesKey, cmd -> RedisScriptManager.<Long>eval(cmd,
+                script, new String[]{this.leasesKey, this.permitsKey}, args));
+    }
+
+    /**
+     * 一次获取得到的许可，可以在线程之间传递，通过{@link #release(Permit)}归还
+     */
+    public static final class Permit {
+        private final String id;
+        private final int count;
+
+        private Permit(String id, int count) {
+            this.id = id;
+            this.count = count;
+        }
+
+        public String getId() {
+            return this.id;
+        }
+
+        public int getCount() {
+            return this.count;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.supercode.infra.cache.pojo;
+
+/**
+ * 热点key的检测结果
+ */
+public class HotKey {
+
+    private final String key;
+    private final String node;
+    private final long count;
+
+    public HotKey(String key, String node, long count) {
+        this.key = key;
+        this.node = node;
+        this.count = count;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * key所在的节点(host:port)，非集群模式下为standalone
+     */
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * 滑动窗口内的估计访问次数(已按抽样率放大)
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return key + "@" + node + "=" + count;
+    }
+}
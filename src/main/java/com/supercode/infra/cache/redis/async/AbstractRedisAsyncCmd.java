@@ -0,0 +1,32 @@
+package com.supercode.infra.cache.redis.async;
+
+import io.lettuce.core.RedisFuture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public abstract class AbstractRedisAsyncCmd<K, V> {
+    SupercodeRedisAsyncClient<K, V> asyncClient;
+
+    protected AbstractRedisAsyncCmd(SupercodeRedisAsyncClient<K, V> asyncClient) {
+        this.asyncClient = asyncClient;
+    }
+
+    protected <T, R> CompletableFuture<R> doAsyncCmd(Function<T, RedisFuture<R>> cmd) {
+        return asyncClient.dispatch(cmd);
+    }
+
+    /**
+     * 执行写命令，完成后(无论成功与否)失效近端缓存中对应的key
+     */
+    protected <T, R> CompletableFuture<R> doAsyncWriteCmd(Function<T, RedisFuture<R>> cmd, String... keys) {
+        return asyncClient.dispatch(cmd).whenComplete((result, ex) -> asyncClient.supercodeRedisClient.invalidateNearCache(keys));
+    }
+
+    /**
+     * 阻塞命令(如BLPOP)会独占连接直到返回，借用连接池中独立的连接执行
+     */
+    protected <T, R> CompletableFuture<R> doPooledAsyncCmd(Function<T, RedisFuture<R>> cmd) {
+        return asyncClient.dispatchPooled(cmd);
+    }
+}
@@ -0,0 +1,58 @@
+package com.supercode.infra.cache.redis.async;
+
+import com.supercode.infra.cache.pojo.GeoObject;
+import io.lettuce.core.GeoArgs;
+import io.lettuce.core.GeoWithin;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.async.RedisGeoAsyncCommands;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public class RedisGeoAsyncCmd<K, V> extends AbstractRedisAsyncCmd<K, V> {
+
+    public RedisGeoAsyncCmd(SupercodeRedisAsyncClient<K, V> asyncClient) {
+        super(asyncClient);
+    }
+
+    private <R> CompletableFuture<R> doGeoCmd(Function<RedisGeoAsyncCommands<String, String>, RedisFuture<R>> geoCmd) {
+        return super.doAsyncCmd(geoCmd);
+    }
+
+    public CompletableFuture<List<GeoWithin<String>>> georadius(String key, double longitude, double latitude, double distance, GeoArgs geoArgs) {
+        return this.doGeoCmd(cmd -> cmd.georadius(key, longitude, latitude, distance, GeoArgs.Unit.m, geoArgs));
+    }
+
+    public CompletableFuture<Set<String>> georadius(String key, double longitude, double latitude, double distance) {
+        return this.doGeoCmd(cmd -> cmd.georadius(key, longitude, latitude, distance, GeoArgs.Unit.m));
+    }
+
+    public CompletableFuture<Set<String>> georadiusbymember(String key, String member, double distance) {
+        return this.doGeoCmd(cmd -> cmd.georadiusbymember(key, member, distance, GeoArgs.Unit.m));
+    }
+
+    public CompletableFuture<Double> geodist(String key, String from, String to) {
+        return this.doGeoCmd(cmd -> cmd.geodist(key, from, to, GeoArgs.Unit.m));
+    }
+
+    public CompletableFuture<Long> geoadd(String key, List<GeoObject> lngLatMember) {
+        Object[] args = new Object[lngLatMember.size() * 3];
+        for (int i = 0; i < lngLatMember.size(); i++) {
+            GeoObject object = lngLatMember.get(i);
+            args[3 * i] = object.getCoord().getLongitude();
+            args[3 * i + 1] = object.getCoord().getLatitude();
+            args[3 * i + 2] = object.getName();
+        }
+        return this.doGeoCmd(cmd -> cmd.geoadd(key, args));
+    }
+
+    /**
+     * 按距离从近到远返回带坐标、距离的结果，最多返回limit条
+     */
+    public CompletableFuture<List<GeoWithin<String>>> georadius(String redisKey, double longitude, double latitude, double distance, int limit) {
+        GeoArgs geoArgs = new GeoArgs().withHash().withDistance().withCoordinates().withCount(limit).asc();
+        return georadius(redisKey, longitude, latitude, distance, geoArgs);
+    }
+}
@@ -0,0 +1,142 @@
+package com.supercode.infra.cache.redis.async;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.async.RedisHashAsyncCommands;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 与Redis Hash相关的异步操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisHashAsyncCmd<K, V> extends AbstractRedisAsyncCmd<K, V> {
+
+    public RedisHashAsyncCmd(SupercodeRedisAsyncClient<K, V> asyncClient) {
+        super(asyncClient);
+    }
+
+    private <R> CompletableFuture<R> doHashCmd(Function<RedisHashAsyncCommands<String, String>, RedisFuture<R>> hashCmd) {
+        return super.doAsyncCmd(hashCmd);
+    }
+
+    private <R> CompletableFuture<R> doHashWriteCmd(Function<RedisHashAsyncCommands<String, String>, RedisFuture<R>> hashCmd, String... keys) {
+        return super.doAsyncWriteCmd(hashCmd, keys);
+    }
+
+    /**
+     * Delete one or more hash fields
+     * Time complexity: O(N) where N is the number of fields to be removed
+     */
+    public CompletableFuture<Long> hdel(String key, String... fields) {
+        return this.doHashWriteCmd(cmd -> cmd.hdel(key, fields), key);
+    }
+
+    /**
+     * Determine if a hash field exists
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> hexists(String key, String field) {
+        return this.doHashCmd(cmd -> cmd.hexists(key, field));
+    }
+
+    /**
+     * Get the value of a hash field
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<String> hget(String key, String field) {
+        return this.doHashCmd(cmd -> cmd.hget(key, field));
+    }
+
+    /**
+     * Increment the integer value of a hash field by the given number
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> hincrby(String key, String field, long amount) {
+        return this.doHashWriteCmd(cmd -> cmd.hincrby(key, field, amount), key);
+    }
+
+    /**
+     * Increment the float value of a hash field by the given amount
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Double> hincrbyfloat(String key, String field, double amount) {
+        return this.doHashWriteCmd(cmd -> cmd.hincrbyfloat(key, field, amount), key);
+    }
+
+    /**
+     * Get all the fields and values in a hash
+     * Time complexity: O(N) where N is the size of the hash
+     */
+    public CompletableFuture<Map<String, String>> hgetall(String key) {
+        return this.doHashCmd(cmd -> cmd.hgetall(key));
+    }
+
+    /**
+     * Get all the fields in a hash
+     * Time complexity: O(N) where N is the size of the hash
+     */
+    public CompletableFuture<List<String>> hkeys(String key) {
+        return this.doHashCmd(cmd -> cmd.hkeys(key));
+    }
+
+    /**
+     * Get the number of fields in a hash
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> hlen(String key) {
+        return this.doHashCmd(cmd -> cmd.hlen(key));
+    }
+
+    /**
+     * Get the values of all the given hash fields
+     * Time complexity: O(N) where N is the number of fields being requested
+     */
+    public CompletableFuture<List<KeyValue<String, String>>> hmget(String key, String... fields) {
+        return this.doHashCmd(cmd -> cmd.hmget(key, fields));
+    }
+
+    /**
+     * Set multiple hash fields to multiple value
+     * Time complexity: O(N) where N is the number of fields being set
+     */
+    public CompletableFuture<String> hmset(String key, Map<String, String> map) {
+        return this.doHashWriteCmd(cmd -> cmd.hmset(key, map), key);
+    }
+
+    /**
+     * Set the string value of a hash field
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> hset(String key, String field, String value) {
+        return this.doHashWriteCmd(cmd -> cmd.hset(key, field, value), key);
+    }
+
+    /**
+     * Set the value of a hash field, only if the field does not exist
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> hsetnx(String key, String field, String value) {
+        return this.doHashWriteCmd(cmd -> cmd.hsetnx(key, field, value), key);
+    }
+
+    /**
+     * Get the string length of the field value in a hash
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> hstrlen(String key, String field) {
+        return this.doHashCmd(cmd -> cmd.hstrlen(key, field));
+    }
+
+    /**
+     * Get all the values in a hash
+     * Time complexity: O(N) where N is the size of the hash.
+     */
+    public CompletableFuture<List<String>> hvals(String key) {
+        return this.doHashCmd(cmd -> cmd.hvals(key));
+    }
+}
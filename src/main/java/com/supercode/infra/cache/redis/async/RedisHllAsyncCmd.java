@@ -0,0 +1,33 @@
+package com.supercode.infra.cache.redis.async;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.async.RedisHLLAsyncCommands;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public class RedisHllAsyncCmd<K, V> extends AbstractRedisAsyncCmd<K, V> {
+
+    public RedisHllAsyncCmd(SupercodeRedisAsyncClient<K, V> asyncClient) {
+        super(asyncClient);
+    }
+
+    private <R> CompletableFuture<R> doHllCmd(Function<RedisHLLAsyncCommands<String, String>, RedisFuture<R>> hllCmd) {
+        return super.doAsyncCmd(hllCmd);
+    }
+
+    /**
+     * Adds all the element arguments to the HyperLogLog data structure
+     * Time complexity: O(1) to add every element.
+     */
+    public CompletableFuture<Long> pfadd(String key, String... values) {
+        return this.doHllCmd(cmd -> cmd.pfadd(key, values));
+    }
+
+    /**
+     * Time complexity: O(1) with a very small average constant time when called with a single key.
+     */
+    public CompletableFuture<Long> pfcount(String key) {
+        return this.doHllCmd(cmd -> cmd.pfcount(key));
+    }
+}
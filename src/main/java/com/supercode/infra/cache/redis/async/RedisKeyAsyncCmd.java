@@ -0,0 +1,100 @@
+package com.supercode.infra.cache.redis.async;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 与Redis key相关的异步操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisKeyAsyncCmd<K, V> extends AbstractRedisAsyncCmd<K, V> {
+
+    public RedisKeyAsyncCmd(SupercodeRedisAsyncClient<K, V> asyncClient) {
+        super(asyncClient);
+    }
+
+    private <R> CompletableFuture<R> doKeyCmd(Function<RedisKeyAsyncCommands<String, String>, RedisFuture<R>> keyCmd) {
+        return super.doAsyncCmd(keyCmd);
+    }
+
+    private <R> CompletableFuture<R> doKeyWriteCmd(Function<RedisKeyAsyncCommands<String, String>, RedisFuture<R>> keyCmd, String... keys) {
+        return super.doAsyncWriteCmd(keyCmd, keys);
+    }
+
+    /**
+     * Determine how many keys exist
+     * Time complexity: O(N) where N is the number of keys to check
+     */
+    public CompletableFuture<Long> exists(String... keys) {
+        return this.doKeyCmd(cmd -> cmd.exists(keys));
+    }
+
+    /**
+     * Set a key's time to live in seconds
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> expire(String key, long seconds) {
+        return this.doKeyWriteCmd(cmd -> cmd.expire(key, seconds), key);
+    }
+
+    /**
+     * Delete one or more keys
+     * Time complexity: O(N) where N is the number of keys that will be removed.
+     */
+    public CompletableFuture<Long> del(String... keys) {
+        return this.doKeyWriteCmd(cmd -> cmd.del(keys), keys);
+    }
+
+    /**
+     * Set the expiration for a key as a UNIX timestamp
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> expireat(String key, Date timestamp) {
+        return this.doKeyWriteCmd(cmd -> cmd.expireat(key, timestamp), key);
+    }
+
+    /**
+     * Set a key's time to live in milliseconds
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> pexpire(String key, long milliseconds) {
+        return this.doKeyWriteCmd(cmd -> cmd.pexpire(key, milliseconds), key);
+    }
+
+    /**
+     * Set the expiration for a key as a UNIX timestamp specified in milliseconds
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> pexpireat(String key, long timestamp) {
+        return this.doKeyWriteCmd(cmd -> cmd.pexpireat(key, timestamp), key);
+    }
+
+    /**
+     * Get the time to live for a key in milliseconds
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> pttl(String key) {
+        return this.doKeyCmd(cmd -> cmd.pttl(key));
+    }
+
+    /**
+     * Get the time to live for a key in seconds
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> ttl(String key) {
+        return this.doKeyCmd(cmd -> cmd.ttl(key));
+    }
+
+    /**
+     * Determine the type stored at key
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<String> type(String key) {
+        return this.doKeyCmd(cmd -> cmd.type(key));
+    }
+}
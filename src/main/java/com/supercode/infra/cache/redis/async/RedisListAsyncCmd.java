@@ -0,0 +1,140 @@
+package com.supercode.infra.cache.redis.async;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.async.RedisListAsyncCommands;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 与Redis List相关的异步操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisListAsyncCmd<K, V> extends AbstractRedisAsyncCmd<K, V> {
+
+    public RedisListAsyncCmd(SupercodeRedisAsyncClient<K, V> asyncClient) {
+        super(asyncClient);
+    }
+
+    private <R> CompletableFuture<R> doListCmd(Function<RedisListAsyncCommands<String, String>, RedisFuture<R>> listCmd) {
+        return super.doAsyncCmd(listCmd);
+    }
+
+    private <R> CompletableFuture<R> doBlockingListCmd(Function<RedisListAsyncCommands<String, String>, RedisFuture<R>> listCmd) {
+        return super.doPooledAsyncCmd(listCmd);
+    }
+
+    /**
+     * Get an element from a list by its index
+     * Time complexity: O(N) where N is the number of elements to traverse to get to the element at index.
+     */
+    public CompletableFuture<String> lindex(String key, long index) {
+        return this.doListCmd(cmd -> cmd.lindex(key, index));
+    }
+
+    /**
+     * Insert an element before or after another element in a list
+     * Time complexity: O(N) where N is the number of elements to traverse before seeing the value pivot.
+     */
+    public CompletableFuture<Long> linsert(String key, boolean before, String pivot, String value) {
+        return this.doListCmd(cmd -> cmd.linsert(key, before, pivot, value));
+    }
+
+    /**
+     * Get the length of a list
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> llen(String key) {
+        return this.doListCmd(cmd -> cmd.llen(key));
+    }
+
+    /**
+     * Remove and get the first element in a list
+     * Time complexity: O(N) where N is the number of elements returned
+     */
+    public CompletableFuture<String> lpop(String key) {
+        return this.doListCmd(cmd -> cmd.lpop(key));
+    }
+
+    /**
+     * Remove and get the first element in a list, or block until one is available
+     * 阻塞命令会独占连接，借用连接池中的连接，命令完成后归还
+     */
+    public CompletableFuture<KeyValue<String, String>> blpop(String key, long timeout) {
+        return this.doBlockingListCmd(cmd -> cmd.blpop(timeout, key));
+    }
+
+    /**
+     * Prepend one or multiple values to a list
+     * Time complexity: O(1) for each element added
+     */
+    public CompletableFuture<Long> lpush(String key, String... values) {
+        return this.doListCmd(cmd -> cmd.lpush(key, values));
+    }
+
+    /**
+     * Prepend values to a list, only if the list exists
+     * Time complexity: O(1) for each element added
+     */
+    public CompletableFuture<Long> lpushx(String key, String... values) {
+        return this.doListCmd(cmd -> cmd.lpushx(key, values));
+    }
+
+    /**
+     * Get a range of elements from a list
+     * Time complexity: O(S+N)
+     */
+    public CompletableFuture<List<String>> lrange(String key, long start, long stop) {
+        return this.doListCmd(cmd -> cmd.lrange(key, start, stop));
+    }
+
+    /**
+     * Remove elements from a list
+     * Time complexity: O(N+M) where N is the length of the list and M is the number of elements removed
+     */
+    public CompletableFuture<Long> lrem(String key, long count, String value) {
+        return this.doListCmd(cmd -> cmd.lrem(key, count, value));
+    }
+
+    /**
+     * Set the value of an element in a list by its index
+     * Time complexity: O(N) where N is the length of the list.
+     */
+    public CompletableFuture<String> lset(String key, long index, String value) {
+        return this.doListCmd(cmd -> cmd.lset(key, index, value));
+    }
+
+    /**
+     * Trim a list to the specified range
+     * Time complexity: O(N) where N is the number of elements to be removed by the operation
+     */
+    public CompletableFuture<String> ltrim(String key, long start, long stop) {
+        return this.doListCmd(cmd -> cmd.ltrim(key, start, stop));
+    }
+
+    /**
+     * Remove and get the last element in a list
+     */
+    public CompletableFuture<String> rpop(String key) {
+        return this.doListCmd(cmd -> cmd.rpop(key));
+    }
+
+    /**
+     * Append one or multiple values to a list
+     * Time complexity: O(1) for each element added
+     */
+    public CompletableFuture<Long> rpush(String key, String... values) {
+        return this.doListCmd(cmd -> cmd.rpush(key, values));
+    }
+
+    /**
+     * Inserts specified values at the tail of the list stored at key, only if key already exists and holds a list.
+     * Time complexity: O(1) for each element added
+     */
+    public CompletableFuture<Long> rpushx(String key, String... values) {
+        return this.doListCmd(cmd -> cmd.rpushx(key, values));
+    }
+}
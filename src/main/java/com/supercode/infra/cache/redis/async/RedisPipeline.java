@@ -0,0 +1,123 @@
+package com.supercode.infra.cache.redis.async;
+
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulConnection;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 显式的命令管道：在一个独占的连接上关闭自动flush，收集block中发出的所有命令后一次性flush并等待结果
+ * <p>
+ * 集群模式下命令按slot路由到各个节点的连接上缓冲，flush时各节点连接并行写出，等价于按节点拆分批次并行发送。
+ * block中各个命令组返回的CompletableFuture可以拿到带类型的单条结果，
+ * {@link #execute}按调用顺序返回结果列表，每次调用对应一项，与调用返回的CompletableFuture的结果相同，
+ * 例如setnx(key, value, seconds)对应Boolean，getAndDel对应GET的值；失败的调用在对应位置返回异常对象。
+ * <p>
+ * 管道对象不是线程安全的，只能在block所在的线程中使用
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class RedisPipeline<K, V> extends SupercodeRedisAsyncClient<K, V> {
+
+    private final Object pipelineCmd;
+    private final List<CompletableFuture<?>> futures = new ArrayList<>();
+
+    RedisPipeline(SupercodeRedisClient<K, V> supercodeRedisClient, StatefulConnection<String, String> connection) {
+        super(supercodeRedisClient);
+        this.pipelineCmd = super.asyncCmd(connection);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T, R> CompletableFuture<R> dispatch(Function<T, RedisFuture<R>> cmd) {
+        CompletableFuture<R> future = cmd.apply((T) this.pipelineCmd).toCompletableFuture();
+        this.futures.add(future);
+        return future;
+    }
+
+    /**
+     * 管道本身已经独占了连接，阻塞命令直接在管道连接上排队
+     */
+    @Override
+    protected <T, R> CompletableFuture<R> dispatchPooled(Function<T, RedisFuture<R>> cmd) {
+        return this.dispatch(cmd);
+    }
+
+    @Override
+    protected <R> CompletableFuture<R> combine(int commands, CompletableFuture<R> result) {
+        this.futures.subList(this.futures.size() - commands, this.futures.size()).clear();
+        this.futures.add(result);
+        return result;
+    }
+
+    public int size() {
+        return this.futures.size();
+    }
+
+    public static <K, V> List<Object> execute(SupercodeRedisClient<K, V> supercodeRedisClient,
+                                              Consumer<RedisPipeline<K, V>> block, long timeoutMillis) {
+        StatefulConnection<String, String> connection;
+        try {
+            connection = supercodeRedisClient.getPool().borrowObject();
+        } catch (Exception ex) {
+            throw new RedisInfraException("failed to obtain redis connection", ex);
+        }
+
+        boolean broken = true;
+        try {
+            connection.setAutoFlushCommands(false);
+            RedisPipeline<K, V> pipeline = new RedisPipeline<>(supercodeRedisClient, connection);
+            block.accept(pipeline);
+            connection.flushCommands();
+            List<Object> results = pipeline.awaitResults(timeoutMillis);
+            broken = false;
+            return results;
+        } finally {
+            if (broken) {
+                // commands may still be buffered on the connection, never hand it out again
+                try {
+                    supercodeRedisClient.getPool().invalidateObject(connection);
+                } catch (Exception ex) {
+                    log.error("RedisPipeline invalidate connection error.", ex);
+                }
+            } else {
+                connection.setAutoFlushCommands(true);
+                supercodeRedisClient.getPool().returnObject(connection);
+            }
+        }
+    }
+
+    private List<Object> awaitResults(long timeoutMillis) {
+        try {
+            CompletableFuture.allOf(this.futures.toArray(new CompletableFuture[0])).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // single command failures are reported in the result list
+        } catch (TimeoutException ex) {
+            throw new RedisInfraException("pipeline of " + this.futures.size() + " calls timed out");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RedisInfraException("pipeline interrupted", ex);
+        }
+        List<Object> results = new ArrayList<>(this.futures.size());
+        for (CompletableFuture<?> future : this.futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException ex) {
+                results.add(ex.getCause());
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,101 @@
+package com.supercode.infra.cache.redis.async;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.async.RedisSetAsyncCommands;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 与Redis Set相关的异步操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisSetAsyncCmd<K, V> extends AbstractRedisAsyncCmd<K, V> {
+
+    public RedisSetAsyncCmd(SupercodeRedisAsyncClient<K, V> asyncClient) {
+        super(asyncClient);
+    }
+
+    private <R> CompletableFuture<R> doSetCmd(Function<RedisSetAsyncCommands<String, String>, RedisFuture<R>> setCmd) {
+        return super.doAsyncCmd(setCmd);
+    }
+
+    /**
+     * Add one or more members to a set.
+     * Time complexity: O(1) for each element added
+     */
+    public CompletableFuture<Long> sadd(String key, String... members) {
+        return this.doSetCmd(cmd -> cmd.sadd(key, members));
+    }
+
+    /**
+     * Get the number of members in a set
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> scard(String key) {
+        return this.doSetCmd(cmd -> cmd.scard(key));
+    }
+
+    /**
+     * Determine if a given value is a member of a set
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> sismember(String key, String member) {
+        return this.doSetCmd(cmd -> cmd.sismember(key, member));
+    }
+
+    /**
+     * Move a member from one set to another
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> smove(String source, String destination, String member) {
+        return this.doSetCmd(cmd -> cmd.smove(source, destination, member));
+    }
+
+    /**
+     * Get all the members in a set.
+     * Time complexity: O(N) where N is the set cardinality
+     */
+    public CompletableFuture<Set<String>> smembers(String key) {
+        return this.doSetCmd(cmd -> cmd.smembers(key));
+    }
+
+    /**
+     * Remove and return a random member from a set.
+     */
+    public CompletableFuture<String> spop(String key) {
+        return this.doSetCmd(cmd -> cmd.spop(key));
+    }
+
+    /**
+     * Remove and return one or multiple random members from a set
+     */
+    public CompletableFuture<Set<String>> spop(String key, long count) {
+        return this.doSetCmd(cmd -> cmd.spop(key, count));
+    }
+
+    /**
+     * Get one random member from a set
+     */
+    public CompletableFuture<String> srandmember(String key) {
+        return this.doSetCmd(cmd -> cmd.srandmember(key));
+    }
+
+    /**
+     * Get one or multiple random members from a set
+     */
+    public CompletableFuture<List<String>> srandmember(String key, long count) {
+        return this.doSetCmd(cmd -> cmd.srandmember(key, count));
+    }
+
+    /**
+     * Remove one or more members from a set
+     * Time complexity: O(N) where N is the number of members to be removed
+     */
+    public CompletableFuture<Long> srem(String key, String... members) {
+        return this.doSetCmd(cmd -> cmd.srem(key, members));
+    }
+}
@@ -0,0 +1,128 @@
+package com.supercode.infra.cache.redis.async;
+
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.api.async.RedisSortedSetAsyncCommands;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 与Redis SortedSet相关的异步操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisSortedSetAsyncCmd<K, V> extends AbstractRedisAsyncCmd<K, V> {
+
+    public RedisSortedSetAsyncCmd(SupercodeRedisAsyncClient<K, V> asyncClient) {
+        super(asyncClient);
+    }
+
+    private <R> CompletableFuture<R> doSortSetCmd(Function<RedisSortedSetAsyncCommands<String, String>, RedisFuture<R>> sortedSetCmd) {
+        return super.doAsyncCmd(sortedSetCmd);
+    }
+
+    /**
+     * Add one or more members to a sorted set, or update its score if it already exists.
+     * Time complexity: O(log(N)) for each item added, where N is the number of elements in the sorted set
+     */
+    public CompletableFuture<Long> zadd(String key, ScoredValue<V>... scoredValue) {
+        return this.doSortSetCmd(cmd -> cmd.zadd(key, scoredValue));
+    }
+
+    /**
+     * Add one or more members to a sorted set, or update its score if it already exists.
+     */
+    public CompletableFuture<Long> zadd(String key, double score, String member) {
+        return this.doSortSetCmd(cmd -> cmd.zadd(key, score, member));
+    }
+
+    /**
+     * Return a range of members in a sorted set, by index
+     * Time complexity: O(log(N)+M)
+     */
+    public CompletableFuture<List<String>> zrange(String key, long start, long stop) {
+        return this.doSortSetCmd(cmd -> cmd.zrange(key, start, stop));
+    }
+
+    /**
+     * Return a range of members in a sorted set, by score, closed interval by default.
+     */
+    public CompletableFuture<List<String>> zrangebyscore(String key, double min, double max) {
+        return this.zrangebyscore(key, min, true, max, true);
+    }
+
+    /**
+     * Return a range of members in a sorted set, by score.
+     *
+     * @param isMinInclude is min Closed interval?
+     * @param isMaxInclude is max Closed interval?
+     */
+    public CompletableFuture<List<String>> zrangebyscore(String key, double min, boolean isMinInclude, double max, boolean isMaxInclude) {
+        Range range = Range.from(isMinInclude ? Range.Boundary.including(min) : Range.Boundary.excluding(min),
+                isMaxInclude ? Range.Boundary.including(max) : Range.Boundary.excluding(max));
+        return this.doSortSetCmd(cmd -> cmd.zrangebyscore(key, range));
+    }
+
+    /**
+     * Return a range of members in a sorted set, by index, with scores ordered from high to low
+     * Time complexity: O(log(N)+M)
+     */
+    public CompletableFuture<List<String>> zrevrange(String key, long start, long stop) {
+        return this.doSortSetCmd(cmd -> cmd.zrevrange(key, start, stop));
+    }
+
+    /**
+     * Remove one or more members from a sorted set
+     * Time complexity: O(M*log(N))
+     */
+    public CompletableFuture<Long> zrem(String key, String... members) {
+        return this.doSortSetCmd(cmd -> cmd.zrem(key, members));
+    }
+
+    /**
+     * Get the score associated with the given member in a sorted set.
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Double> zscore(String key, String value) {
+        return this.doSortSetCmd(cmd -> cmd.zscore(key, value));
+    }
+
+    /**
+     * Determine the index of a member in a sorted set
+     * Time complexity: O(log(N))
+     */
+    public CompletableFuture<Long> zrank(String key, String value) {
+        return this.doSortSetCmd(cmd -> cmd.zrank(key, value));
+    }
+
+    /**
+     * Remove all members in a sorted set within the given indexes.
+     */
+    public CompletableFuture<Long> zremrangebyrank(String key, long start, long stop) {
+        return this.doSortSetCmd(cmd -> cmd.zremrangebyrank(key, start, stop));
+    }
+
+    /**
+     * Get the number of members in a sorted set.
+     */
+    public CompletableFuture<Long> zcard(String key) {
+        return this.doSortSetCmd(cmd -> cmd.zcard(key));
+    }
+
+    /**
+     * Count the members in a sorted set with scores within the given Range.
+     */
+    public CompletableFuture<Long> zcountByRange(String key, double min, double max) {
+        return this.doSortSetCmd(cmd -> cmd.zcount(key, Range.create(min, max)));
+    }
+
+    /**
+     * Remove all members in a sorted set within the given scores.
+     */
+    public CompletableFuture<Long> zremrangeByScore(String key, double min, double max) {
+        return this.doSortSetCmd(cmd -> cmd.zremrangebyscore(key, Range.create(min, max)));
+    }
+}
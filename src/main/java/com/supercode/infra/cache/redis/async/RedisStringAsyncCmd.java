@@ -0,0 +1,226 @@
+package com.supercode.infra.cache.redis.async;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.async.RedisStringAsyncCommands;
+import io.lettuce.core.cluster.SlotHash;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Redis关于字符串相关的异步操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisStringAsyncCmd<K, V> extends AbstractRedisAsyncCmd<K, V> {
+
+    public RedisStringAsyncCmd(SupercodeRedisAsyncClient<K, V> asyncClient) {
+        super(asyncClient);
+    }
+
+    private <R> CompletableFuture<R> doStringCmd(Function<RedisStringAsyncCommands<String, String>, RedisFuture<R>> stringCmd) {
+        return super.doAsyncCmd(stringCmd);
+    }
+
+    private <R> CompletableFuture<R> doStringWriteCmd(Function<RedisStringAsyncCommands<String, String>, RedisFuture<R>> stringCmd, String... keys) {
+        return super.doAsyncWriteCmd(stringCmd, keys);
+    }
+
+    /**
+     * Append a value to a key
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> append(String key, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.append(key, value), key);
+    }
+
+    /**
+     * Decrement the integer value of a key by one
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> decr(String key) {
+        return this.doStringWriteCmd(cmd -> cmd.decr(key), key);
+    }
+
+    /**
+     * Decrement the integer value of a key by the given number
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> decrby(String key, long amount) {
+        return this.doStringWriteCmd(cmd -> cmd.decrby(key, amount), key);
+    }
+
+    /**
+     * Get the value of a key.
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<String> get(String key) {
+        return this.doStringCmd(cmd -> cmd.get(key));
+    }
+
+    /**
+     * Returns the bit value at offset in the string value stored at key
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> getbit(String key, long offset) {
+        return this.doStringCmd(cmd -> cmd.getbit(key, offset));
+    }
+
+    /**
+     * Get a substring of the string stored at a key
+     * Time complexity: O(N) where N is the length of the returned string
+     */
+    public CompletableFuture<String> getrange(String key, long start, long end) {
+        return this.doStringCmd(cmd -> cmd.getrange(key, start, end));
+    }
+
+    /**
+     * Set the string value of a key
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<String> set(String key, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.set(key, value), key);
+    }
+
+    /**
+     * Sets or clears the bit at offset in the string value stored at key
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> setbit(String key, long offset, int value) {
+        return this.doStringWriteCmd(cmd -> cmd.setbit(key, offset, value), key);
+    }
+
+    /**
+     * Set the value and expiration of a key
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<String> setex(String key, long seconds, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.setex(key, seconds, value), key);
+    }
+
+    /**
+     * Set the value and expiration in milliseconds of a key
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<String> psetex(String key, long milliseconds, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.psetex(key, milliseconds, value), key);
+    }
+
+    /**
+     * Set the value of a key, only if the key does not exist
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Boolean> setnx(String key, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.setnx(key, value), key);
+    }
+
+    /**
+     * 使用SET NX EX一条命令完成，所有命令在调用时立即发出，可以安全地在管道中使用
+     */
+    public CompletableFuture<Boolean> setnx(String key, String value, long seconds) {
+        return super.asyncClient.combine(1, this.doStringWriteCmd(cmd -> cmd.set(key, value, SetArgs.Builder.nx().ex(seconds)), key).thenApply("OK"::equals));
+    }
+
+    /**
+     * Overwrite part of a string at key starting at the specified offset
+     * Time complexity: O(1), not counting the time taken to copy the new string in place.
+     */
+    public CompletableFuture<Long> setrange(String key, long offset, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.setrange(key, offset, value), key);
+    }
+
+    /**
+     * Get the length of the value stored in a key
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> strlen(String key) {
+        return this.doStringCmd(cmd -> cmd.strlen(key));
+    }
+
+    /**
+     * Set the string value of a key and return its old value
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<String> getset(String key, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.getset(key, value), key);
+    }
+
+    /**
+     * Increment the integer value of a key by one
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> incr(String key) {
+        return this.doStringWriteCmd(cmd -> cmd.incr(key), key);
+    }
+
+    /**
+     * Increment the integer value of a key by the given amount
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Long> incrby(String key, long amount) {
+        return this.doStringWriteCmd(cmd -> cmd.incrby(key, amount), key);
+    }
+
+    /**
+     * Increment the float value of a key by the given amount
+     * Time complexity: O(1)
+     */
+    public CompletableFuture<Double> incrbyfloat(String key, double amount) {
+        return this.doStringWriteCmd(cmd -> cmd.incrbyfloat(key, amount), key);
+    }
+
+    /**
+     * Get the values of all the given keys
+     * Time complexity: O(N) where N is the number of keys to retrieve.
+     */
+    public CompletableFuture<List<KeyValue<String, String>>> mget(String... keys) {
+        return this.doStringCmd(cmd -> cmd.mget(keys));
+    }
+
+    /**
+     * Set multiple keys to multiple values
+     * Time complexity: O(N) where N is the number of keys to set.
+     */
+    public CompletableFuture<String> mset(Map<String, String> kv) {
+        return this.doStringWriteCmd(cmd -> cmd.mset(kv), kv.keySet().toArray(new String[0]));
+    }
+
+    /**
+     * Set multiple keys to multiple values, only if none of the keys exist
+     * Time complexity: O(N) where N is the number of keys to set.
+     */
+    public CompletableFuture<Boolean> msetnx(Map<String, String> kv) {
+        if (kv.size() == 0) {
+            return super.asyncClient.combine(0, CompletableFuture.completedFuture(true));
+        }
+        Integer keySlot = null;
+        for (String key : kv.keySet()) {
+            int slot = SlotHash.getSlot(key);
+            if (keySlot == null) {
+                keySlot = slot;
+            } else if (slot != keySlot) {
+                return super.asyncClient.combine(0, CompletableFuture.completedFuture(false));
+            }
+        }
+        return this.doStringWriteCmd(cmd -> cmd.msetnx(kv), kv.keySet().toArray(new String[0]));
+    }
+
+    /**
+     * 管道中GET与DEL写在同一条连接上，一起发出也按顺序执行；管道之外两条命令可能落在不同的共享连接上，等GET返回后再发出DEL
+     */
+    public CompletableFuture<String> getAndDel(String key) {
+        if (super.asyncClient instanceof RedisPipeline) {
+            return super.asyncClient.combine(2, this.get(key).thenCombine(super.asyncClient.redisKeyCmd().del(key), (value, deleted) -> value));
+        }
+        return this.get(key).thenCompose(value -> super.asyncClient.redisKeyCmd().del(key).thenApply(deleted -> value));
+    }
+
+    public CompletableFuture<Long> getLong(String key) {
+        return super.asyncClient.combine(1, this.get(key).thenApply(value -> Long.parseLong(StringUtils.defaultString(value, "0"))));
+    }
+}
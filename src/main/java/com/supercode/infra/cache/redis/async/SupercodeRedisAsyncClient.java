@@ -0,0 +1,119 @@
+package com.supercode.infra.cache.redis.async;
+
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.script.RedisScript;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisScriptingAsyncCommands;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 基于Lettuce async命令的异步客户端，所有命令返回{@link CompletableFuture}，调用线程不会阻塞等待网络往返
+ * <p>
+ * 普通命令走多路复用的共享连接，阻塞命令(BLPOP)借用连接池中的独立连接并在命令完成后归还
+ * 异步命令不参与当前线程通过{@link com.supercode.infra.cache.redis.cmd.RedisTransactionCmd}开启的事务
+ *
+ * @author jonathan.ji
+ */
+public class SupercodeRedisAsyncClient<K, V> {
+
+    protected final SupercodeRedisClient<K, V> supercodeRedisClient;
+
+    private final RedisStringAsyncCmd<K, V> redisStringCmd = new RedisStringAsyncCmd<>(this);
+    private final RedisListAsyncCmd<K, V> redisListCmd = new RedisListAsyncCmd<>(this);
+    private final RedisHashAsyncCmd<K, V> redisHashCmd = new RedisHashAsyncCmd<>(this);
+    private final RedisSetAsyncCmd<K, V> redisSetCmd = new RedisSetAsyncCmd<>(this);
+    private final RedisSortedSetAsyncCmd<K, V> redisSortedSetCmd = new RedisSortedSetAsyncCmd<>(this);
+    private final RedisGeoAsyncCmd<K, V> redisGeoCmd = new RedisGeoAsyncCmd<>(this);
+    private final RedisHllAsyncCmd<K, V> redisHllCmd = new RedisHllAsyncCmd<>(this);
+    private final RedisKeyAsyncCmd<K, V> redisKeyCmd = new RedisKeyAsyncCmd<>(this);
+
+    public SupercodeRedisAsyncClient(SupercodeRedisClient<K, V> supercodeRedisClient) {
+        this.supercodeRedisClient = supercodeRedisClient;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T, R> CompletableFuture<R> dispatch(Function<T, RedisFuture<R>> cmd) {
+        try {
+            return cmd.apply((T) this.asyncCmd(supercodeRedisClient.getSharedConnection())).toCompletableFuture();
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(new RedisInfraException("failed to execute redis async command", ex));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T, R> CompletableFuture<R> dispatchPooled(Function<T, RedisFuture<R>> cmd) {
+        StatefulConnection<String, String> connection;
+        try {
+            connection = supercodeRedisClient.getPool().borrowObject();
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(new RedisInfraException("failed to obtain redis connection", ex));
+        }
+        try {
+            return cmd.apply((T) this.asyncCmd(connection)).toCompletableFuture()
+                    .whenComplete((result, ex) -> supercodeRedisClient.getPool().returnObject(connection));
+        } catch (Exception ex) {
+            supercodeRedisClient.getPool().returnObject(connection);
+            return CompletableFuture.failedFuture(new RedisInfraException("failed to execute redis async command", ex));
+        }
+    }
+
+    /**
+     * 由多条命令组合(或不发出命令直接得到)的结果，管道中用它替换组成它的命令，使结果列表中每次调用只对应一项
+     *
+     * @param commands 组成该结果的命令条数，必须是最近发出的命令
+     */
+    protected <R> CompletableFuture<R> combine(int commands, CompletableFuture<R> result) {
+        return result;
+    }
+
+    protected Object asyncCmd(StatefulConnection<String, String> connection) {
+        return supercodeRedisClient.getClusterFlag() ? ((StatefulRedisClusterConnection<String, String>) connection).async()
+                : ((StatefulRedisConnection<String, String>) connection).async();
+    }
+
+    /**
+     * 以EVALSHA执行已注册的脚本，在管道中可以与其他命令一起批量发送
+     * 节点上没有该脚本时返回NOSCRIPT异常，由调用方改用{@link com.supercode.infra.cache.redis.script.RedisScriptManager#eval}加载
+     */
+    public <R> CompletableFuture<R> evalsha(RedisScript script, String[] keys, String... args) {
+        return this.dispatch((RedisScriptingAsyncCommands<String, String> cmd) -> cmd.<R>evalsha(script.getSha1(), script.getOutputType(), keys, args));
+    }
+
+    public RedisStringAsyncCmd<K, V> redisStringCmd() {
+        return redisStringCmd;
+    }
+
+    public RedisListAsyncCmd<K, V> redisListCmd() {
+        return redisListCmd;
+    }
+
+    public RedisHashAsyncCmd<K, V> redisHashCmd() {
+        return redisHashCmd;
+    }
+
+    public RedisSetAsyncCmd<K, V> redisSetCmd() {
+        return redisSetCmd;
+    }
+
+    public RedisSortedSetAsyncCmd<K, V> redisSortedSetCmd() {
+        return redisSortedSetCmd;
+    }
+
+    public RedisGeoAsyncCmd<K, V> redisGeoCmd() {
+        return redisGeoCmd;
+    }
+
+    public RedisHllAsyncCmd<K, V> redisHllCmd() {
+        return redisHllCmd;
+    }
+
+    public RedisKeyAsyncCmd<K, V> redisKeyCmd() {
+        return redisKeyCmd;
+    }
+}
@@ -0,0 +1,188 @@
+package com.supercode.infra.cache.redis.batch;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.cluster.SlotHash;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将并发的单key GET合并为按slot分组的MGET
+ * <p>
+ * 第一个请求入队后开始计时，在window时间内或者攒够maxKeys个key后统一发送，每个slot一条MGET(Redis Cluster不允许跨slot的MGET)，
+ * 结果按key拆分回各个等待的调用方。同一个批次内重复的key只查询一次。
+ * <p>
+ * 指标：
+ * supercode.redis.batch.get.size  每个批次包含的请求数
+ * supercode.redis.batch.get.delay 请求在队列中额外等待的时间，用于权衡window与p99
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class RedisGetBatcher implements Closeable {
+
+    private static final long POLL_IDLE_MILLIS = 100;
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final long windowNanos;
+    private final int maxKeys;
+    private final LinkedBlockingQueue<PendingGet> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSize;
+    private final Timer queueDelay;
+
+    public RedisGetBatcher(SupercodeRedisClient<?, ?> supercodeRedisClient, Duration window, int maxKeys) {
+        if (window.isNegative() || maxKeys <= 0) {
+            throw new IllegalArgumentException("window must not be negative and maxKeys must be positive");
+        }
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.windowNanos = window.toNanos();
+        this.maxKeys = maxKeys;
+        this.batchSize = DistributionSummary.builder("supercode.redis.batch.get.size")
+                .description("number of GET requests coalesced into one batch")
+                .register(Metrics.globalRegistry);
+        this.queueDelay = Timer.builder("supercode.redis.batch.get.delay")
+                .description("time a GET request waited for its batch to be sent")
+                .register(Metrics.globalRegistry);
+        this.flusher = new Thread(this::runLoop, "supercode-redis-get-batcher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 返回的future最多等待BATCH_GET_TIMEOUT_MILLIS，超时以TimeoutException结束
+     */
+    public CompletableFuture<String> get(String key) {
+        PendingGet pending = new PendingGet(key, System.nanoTime());
+        if (!this.running) {
+            pending.future.completeExceptionally(new RedisInfraException("get batcher is closed"));
+            return pending.future;
+        }
+        this.queue.offer(pending);
+        // close可能已经在offer之前清空了队列
+        if (!this.running && this.queue.remove(pending)) {
+            pending.future.completeExceptionally(new RedisInfraException("get batcher is closed"));
+        }
+        return pending.future.orTimeout(RedisClientConstant.BATCH_GET_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void runLoop() {
+        List<PendingGet> batch = new ArrayList<>(this.maxKeys);
+        while (this.running) {
+            try {
+                PendingGet first = this.queue.poll(POLL_IDLE_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch = new ArrayList<>(this.maxKeys);
+                batch.add(first);
+                long deadline = first.enqueueNanos + this.windowNanos;
+                while (batch.size() < this.maxKeys) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingGet next = remaining > 0 ? this.queue.poll(remaining, TimeUnit.NANOSECONDS) : this.queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    this.queue.drainTo(batch, this.maxKeys - batch.size());
+                }
+                List<PendingGet> flushing = batch;
+                batch = new ArrayList<>(0);
+                this.flush(flushing);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("RedisGetBatcher.runLoop error.", e);
+                fail(batch, e);
+                batch = new ArrayList<>(0);
+            }
+        }
+        // 关闭时已经从队列取出、还没有发送的请求
+        fail(batch, new RedisInfraException("get batcher is closed"));
+    }
+
+    private static void fail(List<PendingGet> batch, Throwable ex) {
+        for (PendingGet pending : batch) {
+            pending.future.completeExceptionally(ex);
+        }
+    }
+
+    private void flush(List<PendingGet> batch) {
+        long now = System.nanoTime();
+        this.batchSize.record(batch.size());
+
+        // group by slot, and de-duplicate keys inside each slot
+        Map<Integer, Map<String, List<PendingGet>>> slotGroups = new HashMap<>();
+        for (PendingGet pending : batch) {
+            this.queueDelay.record(now - pending.enqueueNanos, TimeUnit.NANOSECONDS);
+            int slot = this.supercodeRedisClient.getClusterFlag() ? SlotHash.getSlot(pending.key) : 0;
+            slotGroups.computeIfAbsent(slot, s -> new LinkedHashMap<>())
+                    .computeIfAbsent(pending.key, k -> new ArrayList<>(1))
+                    .add(pending);
+        }
+
+        for (Map<String, List<PendingGet>> keyGroup : slotGroups.values()) {
+            String[] keys = keyGroup.keySet().toArray(new String[0]);
+            this.supercodeRedisClient.async().redisStringCmd().mget(keys).whenComplete((values, ex) -> {
+                if (ex != null) {
+                    keyGroup.values().forEach(waiters -> waiters.forEach(w -> w.future.completeExceptionally(ex)));
+                    return;
+                }
+                for (KeyValue<String, String> kv : values) {
+                    List<PendingGet> waiters = keyGroup.get(kv.getKey());
+                    if (waiters != null) {
+                        String value = kv.getValueOrElse(null);
+                        waiters.forEach(w -> w.future.complete(value));
+                    }
+                }
+                // defensive: every waiter must be released
+                keyGroup.values().forEach(waiters -> waiters.forEach(w -> w.future.complete(null)));
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        this.flusher.interrupt();
+        try {
+            this.flusher.join(RedisClientConstant.BATCH_GET_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // flusher退出之后再清空一次，避免遗漏关闭过程中入队的请求
+        PendingGet pending;
+        while ((pending = this.queue.poll()) != null) {
+            pending.future.completeExceptionally(new RedisInfraException("get batcher is closed"));
+        }
+    }
+
+    private static final class PendingGet {
+        private final String key;
+        private final long enqueueNanos;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        private PendingGet(String key, long enqueueNanos) {
+            this.key = key;
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.supercode.infra.cache.redis.batch;
+
+import com.supercode.infra.cache.exception.RedisInfraException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 进程内的single-flight：同一时刻对同一个flightKey的多个调用只有第一个真正执行，其余调用等待并共享它的结果(或异常)
+ * <p>
+ * 结果为Map/List/Set时每个等待的调用拿到各自的浅拷贝，修改返回的集合不会影响其他调用。
+ * <p>
+ * 指标：
+ * supercode.redis.singleflight.executed  真正执行的调用次数
+ * supercode.redis.singleflight.collapsed 被合并、未产生网络请求的调用次数
+ *
+ * @author jonathan.ji
+ */
+public class RedisSingleFlight {
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter collapsed;
+
+    /**
+     * @param group 指标的group标签，例如命令组的名称
+     */
+    public RedisSingleFlight(String group) {
+        this.executed = Counter.builder("supercode.redis.singleflight.executed")
+                .description("calls executed by the single-flight leader")
+                .tag("group", group)
+                .register(Metrics.globalRegistry);
+        this.collapsed = Counter.builder("supercode.redis.singleflight.collapsed")
+                .description("calls collapsed into an in-flight call with the same key")
+                .tag("group", group)
+                .register(Metrics.globalRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> R execute(Object flightKey, Supplier<R> call) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = this.inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            this.collapsed.increment();
+            try {
+                return (R) copyOf(existing.join());
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw new RedisInfraException("single-flight call failed", ex.getCause());
+            }
+        }
+        this.executed.increment();
+        try {
+            R result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            this.inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private static Object copyOf(Object result) {
+        if (result instanceof Map) {
+            return new LinkedHashMap<>((Map<?, ?>) result);
+        } else if (result instanceof List) {
+            return new ArrayList<>((List<?>) result);
+        } else if (result instanceof Set) {
+            return new LinkedHashSet<>((Set<?>) result);
+        }
+        return result;
+    }
+
+    public int inFlightSize() {
+        return this.inFlight.size();
+    }
+}
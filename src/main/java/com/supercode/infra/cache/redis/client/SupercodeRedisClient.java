@@ -1,8 +1,28 @@
 package com.supercode.infra.cache.redis.client;
 
 import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisInfraException;
 import com.supercode.infra.cache.lock.RedisLock;
+import com.supercode.infra.cache.lock.RedisLockSubscriber;
+import com.supercode.infra.cache.lock.RedisLockWatchdog;
+import com.supercode.infra.cache.lock.RedisReadWriteLock;
+import com.supercode.infra.cache.lock.RedisReentrantLock;
+import com.supercode.infra.cache.lock.RedisSemaphore;
+import com.supercode.infra.cache.redis.async.RedisPipeline;
+import com.supercode.infra.cache.redis.async.SupercodeRedisAsyncClient;
+import com.supercode.infra.cache.redis.batch.RedisGetBatcher;
 import com.supercode.infra.cache.redis.cmd.*;
+import com.supercode.infra.cache.redis.codec.CompressionAlgorithm;
+import com.supercode.infra.cache.redis.codec.CompressionCodec;
+import com.supercode.infra.cache.redis.codec.CompressionDictionary;
+import com.supercode.infra.cache.redis.counter.RedisCounterAggregator;
+import com.supercode.infra.cache.redis.counter.RedisIdGenerator;
+import com.supercode.infra.cache.redis.counter.RedisShardedCounter;
+import com.supercode.infra.cache.redis.hotkey.RedisHotKeyDetector;
+import com.supercode.infra.cache.redis.loader.RedisLoadingCache;
+import com.supercode.infra.cache.redis.near.RedisClientTracking;
+import com.supercode.infra.cache.redis.near.RedisNearCache;
+import com.supercode.infra.cache.redis.reactive.SupercodeRedisReactiveClient;
 import io.lettuce.core.ReadFrom;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
@@ -13,6 +33,11 @@ import io.lettuce.core.cluster.ClusterClientOptions;
 import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
 import io.lettuce.core.cluster.RedisClusterClient;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
 import io.lettuce.core.metrics.MicrometerCommandLatencyRecorder;
 import io.lettuce.core.metrics.MicrometerOptions;
 import io.lettuce.core.resource.ClientResources;
@@ -25,6 +50,12 @@ import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import java.io.Closeable;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 
 /**
  * @author jonathan.ji
@@ -32,6 +63,11 @@ import java.time.temporal.ChronoUnit;
 @Log4j2
 public class SupercodeRedisClient<K, V> implements Closeable {
 
+    /**
+     * String的key、byte[]的value，不经过压缩codec，withCodec时使用同一个实例可以共用一个客户端
+     */
+    public static final RedisCodec<String, byte[]> BYTE_ARRAY_CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
     public boolean isCluster = false;
     private RedisClient client;
     private RedisClusterClient clusterClient;
@@ -51,6 +87,9 @@ public class SupercodeRedisClient<K, V> implements Closeable {
     private final RedisKeyCmd<K, V> redisKeyCmd = new RedisKeyCmd<>(this);
     private final RedisLock<K, V> redisLockCmd = new RedisLock<>(this);
     private final RedisTransactionCmd<K, V> redisTransactionCmd = new RedisTransactionCmd<>(this, transactionConn, transactionCmd);
+    private final SupercodeRedisAsyncClient<K, V> asyncClient = new SupercodeRedisAsyncClient<>(this);
+    private final SupercodeRedisReactiveClient<K, V> reactiveClient = new SupercodeRedisReactiveClient<>(this);
+    private final RedisLoadingCache<K, V> loadingCache = new RedisLoadingCache<>(this);
 
 
     /**
@@ -61,17 +100,51 @@ public class SupercodeRedisClient<K, V> implements Closeable {
      */
     public GenericObjectPool<StatefulConnection<String, String>> pool;
 
+    /**
+     * Lettuce的连接是线程安全的，普通的非阻塞命令可以多路复用在少量共享连接上，避免连接池借还的锁竞争
+     * 数量为0时表示不启用，所有命令仍然走连接池
+     */
+    private int sharedConnectionCount;
+    private AtomicReferenceArray<StatefulConnection<String, String>> sharedConnections;
+    private final AtomicInteger sharedConnectionCursor = new AtomicInteger();
+    private boolean readFromMaster;
+
+    private GenericObjectPoolConfig poolConfig;
+    private final Map<RedisCodec<?, ?>, SupercodeRedisCodecClient<?, ?>> codecClients = new ConcurrentHashMap<>();
+    // enableCompression之后只有String/Hash写value的命令经由该codec的连接压缩写入
+    private final CompressionCodec<String, String> compressionCodec = new CompressionCodec<>(StringCodec.UTF8);
+    // 其余命令使用的codec，始终能解码压缩过的value，但不压缩写入的参数
+    private final RedisCodec<String, String> stringCodec = this.compressionCodec.decodeOnly();
+    private final Map<String, RedisIdGenerator> idGenerators = new ConcurrentHashMap<>();
+
+    private volatile RedisGetBatcher getBatcher;
+    private volatile RedisNearCache nearCache;
+    private volatile RedisClientTracking clientTracking;
+    private volatile RedisHotKeyDetector hotKeyDetector;
+    private volatile RedisCounterAggregator counterAggregator;
+    private volatile RedisLockSubscriber lockSubscriber;
+    private volatile RedisLockWatchdog lockWatchdog;
+
     public SupercodeRedisClient(String uri, int port) {
         this(uri, port, true, true);
     }
 
     public SupercodeRedisClient(String uri, int port, boolean isCluster, boolean readFromMaster) {
-        this(uri, port, RedisClientConstant.MAX_TOTAL, RedisClientConstant.MAX_IDLE, RedisClientConstant.MIN_IDLE, isCluster, readFromMaster, false);
+        this(uri, port, RedisClientConstant.MAX_TOTAL, RedisClientConstant.MAX_IDLE, RedisClientConstant.MIN_IDLE, isCluster, readFromMaster, false,
+                RedisClientConstant.SHARED_CONNECTIONS);
     }
 
     public SupercodeRedisClient(String uri, int port, Integer maxTotal, Integer maxIdle, Integer minIdle,
                                 boolean isCluster, boolean preparePool) {
-        this(uri, port, maxTotal, maxIdle, minIdle, isCluster, true, preparePool);
+        this(uri, port, maxTotal, maxIdle, minIdle, isCluster, true, preparePool, RedisClientConstant.SHARED_CONNECTIONS);
+    }
+
+    /**
+     * @param sharedConnections 多路复用的共享连接数量，0表示不启用
+     */
+    public SupercodeRedisClient(String uri, int port, Integer maxTotal, Integer maxIdle, Integer minIdle,
+                                boolean isCluster, boolean preparePool, int sharedConnections) {
+        this(uri, port, maxTotal, maxIdle, minIdle, isCluster, true, preparePool, sharedConnections);
     }
 
     /**
@@ -83,9 +156,10 @@ public class SupercodeRedisClient<K, V> implements Closeable {
      * @param isCluster      是否使用Cluster集群模式，true-使用cluster
      * @param readFromMaster 是否从主节点读取数据
      * @param preparePool    是否初始化线程池
+     * @param sharedConnections 多路复用的共享连接数量，0表示不启用
      */
     private SupercodeRedisClient(String uri, int port, Integer maxTotal, Integer maxIdle, Integer minIdle,
-                                 boolean isCluster, boolean readFromMaster, boolean preparePool) {
+                                 boolean isCluster, boolean readFromMaster, boolean preparePool, int sharedConnections) {
         GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
         poolConfig.setMaxTotal(maxTotal);
         poolConfig.setMaxIdle(maxIdle);
@@ -97,6 +171,7 @@ public class SupercodeRedisClient<K, V> implements Closeable {
         poolConfig.setJmxEnabled(true);
         poolConfig.setJmxNamePrefix("supercode-redis-pool");
 
+        this.sharedConnectionCount = Math.max(sharedConnections, 0);
         this.init(uri, port, poolConfig, isCluster, readFromMaster, preparePool);
     }
 
@@ -122,18 +197,24 @@ public class SupercodeRedisClient<K, V> implements Closeable {
             this.client = RedisClient.create(resources, redisUri);
             this.client.setOptions(options);
         }
+        // Lettuce在建立连接时复制监听器列表，因此在建立任何连接之前注册一次，转发给当前开启的热点key检测器
+        (this.isCluster ? this.clusterClient : this.client).addListener(new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                RedisHotKeyDetector detector = hotKeyDetector;
+                if (detector != null) {
+                    detector.commandStarted(event);
+                }
+            }
+        });
 
         // init redis connection pool
-        this.pool = ConnectionPoolSupport.createGenericObjectPool(this.isCluster ? () -> {
-                    StatefulRedisClusterConnection<String, String> conn = clusterClient.connect();
-                    if (readFromMaster) {
-                        conn.setReadFrom(ReadFrom.MASTER);
-                    } else {
-                        conn.setReadFrom(ReadFrom.SLAVE_PREFERRED);
-                    }
-                    return conn;
-                } : () -> this.client.connect(), poolConfig
-        );
+        this.readFromMaster = readFromMaster;
+        this.poolConfig = poolConfig;
+        this.pool = ConnectionPoolSupport.createGenericObjectPool(this::newConnection, poolConfig);
+
+        // shared connections are created lazily, at least one slot is kept for async usage
+        this.sharedConnections = new AtomicReferenceArray<>(Math.max(this.sharedConnectionCount, 1));
         if (preparePool) {
             try {
                 log.info("supercode redis init prepare pool");
@@ -144,6 +225,71 @@ public class SupercodeRedisClient<K, V> implements Closeable {
         }
     }
 
+    private StatefulConnection<String, String> newConnection() {
+        return this.connect(this.stringCodec);
+    }
+
+    /**
+     * 使用指定的codec建立一条新连接，与连接池中的连接共享同一个客户端(事件循环、拓扑以及命令耗时指标)
+     */
+    public <C, D> StatefulConnection<C, D> connect(RedisCodec<C, D> codec) {
+        if (this.isCluster) {
+            StatefulRedisClusterConnection<C, D> conn = clusterClient.connect(codec);
+            if (readFromMaster) {
+                conn.setReadFrom(ReadFrom.MASTER);
+            } else {
+                conn.setReadFrom(ReadFrom.SLAVE_PREFERRED);
+            }
+            return conn;
+        }
+        return this.client.connect(codec);
+    }
+
+    /**
+     * 返回使用指定codec的客户端，例如withCodec(ByteArrayCodec.INSTANCE)直接读写byte[]，避免经过String编解码以及Base64
+     * 同一个codec实例只会创建一次，随本客户端一起关闭
+     */
+    @SuppressWarnings("unchecked")
+    public <C, D> SupercodeRedisCodecClient<C, D> withCodec(RedisCodec<C, D> codec) {
+        return (SupercodeRedisCodecClient<C, D>) this.codecClients.computeIfAbsent(codec, c -> {
+            if (this.closing) {
+                throw new RedisInfraException("redis client is closing");
+            }
+            GenericObjectPoolConfig codecPoolConfig = this.poolConfig.clone();
+            codecPoolConfig.setJmxNamePrefix("supercode-redis-codec-pool");
+            return new SupercodeRedisCodecClient<>(this, codec, codecPoolConfig);
+        });
+    }
+
+    /**
+     * 以轮询的方式获取一个共享连接，共享连接不能用于阻塞命令、事务以及关闭自动flush的批量操作
+     */
+    public StatefulConnection<String, String> getSharedConnection() {
+        int index = Math.floorMod(this.sharedConnectionCursor.getAndIncrement(), this.sharedConnections.length());
+        StatefulConnection<String, String> conn = this.sharedConnections.get(index);
+        if (conn != null && conn.isOpen()) {
+            return conn;
+        }
+        synchronized (this.sharedConnections) {
+            conn = this.sharedConnections.get(index);
+            if (conn == null || !conn.isOpen()) {
+                if (this.closing) {
+                    throw new RedisInfraException("redis client is closing");
+                }
+                conn = this.newConnection();
+                this.sharedConnections.set(index, conn);
+            }
+            return conn;
+        }
+    }
+
+    /**
+     * 普通命令是否走多路复用的共享连接
+     */
+    public boolean isMultiplexed() {
+        return this.sharedConnectionCount > 0;
+    }
+
     private SocketOptions wrapperSocketOptions() {
         return SocketOptions.builder()
                 .connectTimeout(Duration.of(2, ChronoUnit.SECONDS))
@@ -250,6 +396,330 @@ public class SupercodeRedisClient<K, V> implements Closeable {
         return redisLockCmd;
     }
 
+    /**
+     * 以持有者标识区分持有者的可重入锁，例如 supercodeRedisClient.reentrantLock("order:1").tryLockWithLease(owner, 30000, 10000)
+     */
+    public RedisReentrantLock reentrantLock(String name) {
+        return new RedisReentrantLock(this, name);
+    }
+
+    /**
+     * 写优先的读写锁，例如 supercodeRedisClient.readWriteLock("config").tryReadLock(owner, 30000, 10000)
+     */
+    public RedisReadWriteLock readWriteLock(String name) {
+        return new RedisReadWriteLock(this, name);
+    }
+
+    /**
+     * 分布式信号量，例如 supercodeRedisClient.semaphore("downstream", 20).tryAcquireWithLease(2, 30000, 10000)
+     *
+     * @param permits 许可总数，使用同一个name的调用方必须一致
+     */
+    public RedisSemaphore semaphore(String name, int permits) {
+        return new RedisSemaphore(this, name, permits);
+    }
+
+    /**
+     * 等待锁释放通知的共享pub/sub连接，第一次使用时建立
+     */
+    public RedisLockSubscriber getLockSubscriber() {
+        RedisLockSubscriber subscriber = this.lockSubscriber;
+        if (subscriber != null) {
+            return subscriber;
+        }
+        synchronized (this) {
+            if (this.lockSubscriber == null) {
+                if (this.closing) {
+                    throw new RedisInfraException("redis client is closing");
+                }
+                this.lockSubscriber = new RedisLockSubscriber(this.isCluster ? this.clusterClient.connectPubSub() : this.client.connectPubSub());
+            }
+            return this.lockSubscriber;
+        }
+    }
+
+    /**
+     * 返回已经创建的看门狗，不会创建新的看门狗，还没有使用过lease模式的锁时返回null
+     */
+    public RedisLockWatchdog peekLockWatchdog() {
+        return this.lockWatchdog;
+    }
+
+    /**
+     * 为lease模式的锁续期的看门狗，第一次使用时创建
+     */
+    public RedisLockWatchdog getLockWatchdog() {
+        RedisLockWatchdog watchdog = this.lockWatchdog;
+        if (watchdog != null) {
+            return watchdog;
+        }
+        synchronized (this) {
+            if (this.lockWatchdog == null) {
+                if (this.closing) {
+                    throw new RedisInfraException("redis client is closing");
+                }
+                this.lockWatchdog = new RedisLockWatchdog(this);
+            }
+            return this.lockWatchdog;
+        }
+    }
+
+    /**
+     * 异步命令入口，例如 supercodeRedisClient.async().redisStringCmd().get(key)
+     */
+    public SupercodeRedisAsyncClient<K, V> async() {
+        return asyncClient;
+    }
+
+    /**
+     * 响应式命令入口，例如 supercodeRedisClient.reactive().redisListCmd().lrange(key, 0, -1)
+     */
+    public SupercodeRedisReactiveClient<K, V> reactive() {
+        return reactiveClient;
+    }
+
+    /**
+     * Cache-aside加载入口，例如 supercodeRedisClient.loadingCache().get(key, Duration.ofMinutes(5), () -> loadFromDb(id))
+     */
+    public RedisLoadingCache<K, V> loadingCache() {
+        return loadingCache;
+    }
+
+    /**
+     * 分片计数器，例如 supercodeRedisClient.shardedCounter("pv:home", 8, Duration.ofSeconds(1)).incr()
+     *
+     * @param shards   子key的数量
+     * @param cacheTtl 读取总数的本地缓存时间
+     */
+    public RedisShardedCounter shardedCounter(String key, int shards, Duration cacheTtl) {
+        return new RedisShardedCounter(this, key, shards, cacheTtl);
+    }
+
+    /**
+     * 号段模式的ID生成器，例如 supercodeRedisClient.idGenerator("id:order", 1000).nextId()
+     * 同一个key返回同一个生成器，避免重复预留号段
+     *
+     * @param initialStep 初始步长，同时也是最小步长，首次调用时生效
+     */
+    public RedisIdGenerator idGenerator(String key, long initialStep) {
+        return idGenerators.computeIfAbsent(key, k -> new RedisIdGenerator(this, k, initialStep));
+    }
+
+    /**
+     * 批量发送异构命令，例如
+     * supercodeRedisClient.pipeline(p -> { p.redisHashCmd().hset(key, field, value); p.redisKeyCmd().expire(key, 60); })
+     *
+     * @return 按调用顺序排列的结果，每次调用一项(组合命令如getAndDel也只占一项)，失败的调用在对应位置返回异常对象
+     */
+    public List<Object> pipeline(Consumer<RedisPipeline<K, V>> block) {
+        return RedisPipeline.execute(this, block, RedisClientConstant.PIPELINE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * 开启GET合并：window时间内或攒够maxKeys个key的并发GET合并为按slot分组的MGET
+     *
+     * @param window  第一个请求最多等待的时间，例如200微秒
+     * @param maxKeys 单个批次最多包含的请求数
+     */
+    public synchronized void enableGetBatching(Duration window, int maxKeys) {
+        RedisGetBatcher previous = this.getBatcher;
+        this.getBatcher = new RedisGetBatcher(this, window, maxKeys);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public synchronized void disableGetBatching() {
+        RedisGetBatcher previous = this.getBatcher;
+        this.getBatcher = null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public RedisGetBatcher getGetBatcher() {
+        return this.getBatcher;
+    }
+
+    /**
+     * 开启进程内近端缓存：String的GET以及Hash的HGET/HGETALL优先读本地，通过本客户端的写操作会失效本地对应的key
+     * 其他客户端的写入只能依赖ttl过期，适用于读多写少且能容忍ttl内旧数据的key
+     *
+     * @param maximumSize 本地最多缓存的key数量，超出后按W-TinyLFU淘汰
+     * @param ttl         本地条目写入后的存活时间
+     */
+    public synchronized void enableNearCache(long maximumSize, Duration ttl) {
+        // 先关闭旧实例，指标才能绑定到新实例
+        this.disableNearCache();
+        this.nearCache = new RedisNearCache(maximumSize, ttl);
+    }
+
+    public synchronized void disableNearCache() {
+        RedisNearCache previous = this.nearCache;
+        this.nearCache = null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public RedisNearCache getNearCache() {
+        return this.nearCache;
+    }
+
+    /**
+     * 开启value压缩：编码后达到thresholdBytes的value压缩后写入，读取时按头部自动解压，已有的未压缩value不受影响
+     * 只对同步的String/Hash写value命令(SET/SETEX/PSETEX/SETNX/GETSET/MSET/MSETNX/HSET/HMSET/HSETNX)生效，这些命令经由独立的压缩连接发送；
+     * 事务、管道、异步与响应式命令、跨slot的MSET以及脚本参数、PUBLISH、集合成员等不会被压缩
+     *
+     * @param thresholdBytes 达到该字节数的value才压缩
+     * @param algorithm      压缩算法，LZ4需要业务引入org.lz4:lz4-java
+     */
+    public void enableCompression(int thresholdBytes, CompressionAlgorithm algorithm) {
+        this.compressionCodec.enable(thresholdBytes, algorithm);
+    }
+
+    /**
+     * 停止压缩新写入的value，已压缩的value仍然可以正常读取
+     */
+    public void disableCompression() {
+        this.compressionCodec.disable();
+    }
+
+    /**
+     * 开启小value的字典压缩：未达到压缩阈值但达到minBytes的value使用抽样训练出的预置字典压缩，字典按版本存储在Redis中
+     * 读取字典压缩的value需要本实例开启过写入时使用的字典，切换到其他名字后旧字典仍保留用于读取，适用于大量结构相同的小value(例如Hash的field)
+     *
+     * @param name     字典名，同一类value的所有实例使用同一个名字
+     * @param minBytes 编码后达到该字节数的value才使用字典压缩，不能小于RedisClientConstant.DICTIONARY_MIN_BYTES
+     */
+    public synchronized void enableDictionaryCompression(String name, int minBytes) {
+        CompressionDictionary current = this.compressionCodec.getDictionary(name);
+        if (current != null && current.getMinBytes() == minBytes) {
+            this.compressionCodec.enableDictionary(current);
+            return;
+        }
+        CompressionDictionary dictionary = new CompressionDictionary(this, name, minBytes);
+        CompressionDictionary previous;
+        try {
+            previous = this.compressionCodec.enableDictionary(dictionary);
+        } catch (RuntimeException ex) {
+            dictionary.close();
+            throw ex;
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * 停止用字典压缩新写入的value，字典仍然保留，已压缩的value可以正常读取
+     */
+    public void disableDictionaryCompression() {
+        this.compressionCodec.disableDictionary();
+    }
+
+    public CompressionCodec<String, String> getStringCodec() {
+        return this.compressionCodec;
+    }
+
+    /**
+     * 开启了value压缩时返回写value命令使用的压缩客户端，否则返回null
+     */
+    public SupercodeRedisCodecClient<String, String> getCompressionClient() {
+        return this.compressionCodec.isCompressing() ? this.withCodec(this.compressionCodec) : null;
+    }
+
+    /**
+     * 开启服务端辅助的近端缓存失效(CLIENT TRACKING)，其他客户端修改key后本地缓存会被及时清除，需要Redis 6以上版本
+     *
+     * @param prefixes 为空时使用默认模式(只追踪本客户端读过的key)，否则使用BCAST模式追踪这些前缀，不匹配前缀的key不再进入近端缓存
+     */
+    public synchronized void enableClientTracking(String... prefixes) {
+        this.disableClientTracking();
+        this.clientTracking = new RedisClientTracking(this, this.isCluster ? this.clusterClient : this.client, this.newConnection(), prefixes);
+    }
+
+    public synchronized void disableClientTracking() {
+        RedisClientTracking previous = this.clientTracking;
+        this.clientTracking = null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public RedisClientTracking getClientTracking() {
+        return this.clientTracking;
+    }
+
+    /**
+     * 开启计数器的本地聚合，之后通过getCounterAggregator().incrby/hincrby累加，定期或累计次数达到阈值后批量写入
+     *
+     * @param interval       定期flush的间隔
+     * @param flushThreshold 累计的自增次数达到该值时提前flush
+     * @param maxKeys        本地最多聚合的key数量，超出后新的key直接写入Redis
+     */
+    public synchronized void enableCounterAggregation(Duration interval, long flushThreshold, int maxKeys) {
+        RedisCounterAggregator previous = this.counterAggregator;
+        this.counterAggregator = new RedisCounterAggregator(this, interval, flushThreshold, maxKeys);
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * 关闭本地聚合，关闭前把未写入的增量写入Redis
+     */
+    public synchronized void disableCounterAggregation() {
+        RedisCounterAggregator previous = this.counterAggregator;
+        this.counterAggregator = null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public RedisCounterAggregator getCounterAggregator() {
+        return this.counterAggregator;
+    }
+
+    /**
+     * 开启热点key检测：抽样记录所有命令(同步、异步、响应式、pipeline)的第一个key，估计滑动窗口内的访问次数
+     * 通过getHotKeyDetector().topKeys()/topKeysByNode()查询，指标supercode.redis.hotkey.*
+     *
+     * @param window    滑动窗口的长度
+     * @param threshold 窗口内估计访问次数达到该值视为热点key
+     * @param topK      每次查询返回的热点key数量
+     * @param promote   为true时近端缓存只缓存热点key，未开启近端缓存时以HOTKEY_NEAR_CACHE_SIZE和window开启
+     */
+    public synchronized void enableHotKeyDetection(Duration window, long threshold, int topK, boolean promote) {
+        this.disableHotKeyDetection();
+        if (promote && this.nearCache == null) {
+            this.enableNearCache(RedisClientConstant.HOTKEY_NEAR_CACHE_SIZE, window);
+        }
+        this.hotKeyDetector = new RedisHotKeyDetector(this, window, threshold, topK, promote);
+    }
+
+    public synchronized void disableHotKeyDetection() {
+        RedisHotKeyDetector previous = this.hotKeyDetector;
+        this.hotKeyDetector = null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    public RedisHotKeyDetector getHotKeyDetector() {
+        return this.hotKeyDetector;
+    }
+
+    /**
+     * 写操作完成后失效近端缓存中的key，未开启近端缓存时什么也不做
+     */
+    public void invalidateNearCache(String... keys) {
+        RedisNearCache nearCache = this.nearCache;
+        if (nearCache != null) {
+            nearCache.invalidate(keys);
+        }
+    }
+
     public GenericObjectPool<StatefulConnection<String, String>> getPool() {
         return this.pool;
     }
@@ -268,8 +738,32 @@ public class SupercodeRedisClient<K, V> implements Closeable {
 
     @Override
     public void close() {
+        // 聚合的计数需要在连接关闭之前写入
+        this.disableCounterAggregation();
         this.closing = true;
+        this.disableGetBatching();
+        this.disableHotKeyDetection();
+        this.disableClientTracking();
+        this.disableNearCache();
+        this.compressionCodec.getDictionaries().forEach(CompressionDictionary::close);
+        this.codecClients.values().forEach(SupercodeRedisCodecClient::close);
+        synchronized (this) {
+            if (this.lockWatchdog != null) {
+                this.lockWatchdog.close();
+            }
+            if (this.lockSubscriber != null) {
+                this.lockSubscriber.close();
+            }
+        }
         this.pool.close();
+        synchronized (this.sharedConnections) {
+            for (int i = 0; i < this.sharedConnections.length(); i++) {
+                StatefulConnection<String, String> conn = this.sharedConnections.getAndSet(i, null);
+                if (conn != null) {
+                    conn.close();
+                }
+            }
+        }
         if (this.isCluster) {
             this.clusterClient.shutdown();
         } else {
@@ -0,0 +1,208 @@
+package com.supercode.infra.cache.redis.client;
+
+import com.supercode.infra.cache.exception.RedisInfraException;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.support.ConnectionPoolSupport;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * 使用自定义{@link RedisCodec}的客户端，通过{@link SupercodeRedisClient#withCodec(RedisCodec)}获取
+ * <p>
+ * 与SupercodeRedisClient共享底层的Lettuce客户端，拥有独立的连接池；SupercodeRedisClient开启共享连接时，
+ * 普通命令同样多路复用在一条共享连接上。值由codec直接编码进Netty的缓冲区，不经过String以及Base64。
+ * <p>
+ * 近端缓存、GET合并、分布式锁等功能只作用于String客户端；事务与阻塞命令请使用String客户端。
+ *
+ * @author jonathan.ji
+ */
+public class SupercodeRedisCodecClient<K, V> implements Closeable {
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final RedisCodec<K, V> codec;
+    private final GenericObjectPool<StatefulConnection<K, V>> pool;
+    private volatile StatefulConnection<K, V> sharedConnection;
+
+    SupercodeRedisCodecClient(SupercodeRedisClient<?, ?> supercodeRedisClient, RedisCodec<K, V> codec, GenericObjectPoolConfig poolConfig) {
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.codec = codec;
+        this.pool = ConnectionPoolSupport.createGenericObjectPool(() -> supercodeRedisClient.connect(codec), poolConfig);
+    }
+
+    public RedisCodec<K, V> getCodec() {
+        return this.codec;
+    }
+
+    public GenericObjectPool<StatefulConnection<K, V>> getPool() {
+        return this.pool;
+    }
+
+    /**
+     * 执行任意同步命令，例如 codecClient.sync(cmd -> cmd.getrange(key, 0, 10))
+     */
+    public <R> R sync(Function<RedisClusterCommands<K, V>, R> cmd) {
+        if (supercodeRedisClient.isMultiplexed()) {
+            try {
+                return cmd.apply(this.syncCmd(this.getSharedConnection()));
+            } catch (Exception ex) {
+                throw new RedisInfraException("failed to execute redis command on shared connection", ex);
+            }
+        }
+        try (StatefulConnection<K, V> connection = this.pool.borrowObject()) {
+            return cmd.apply(this.syncCmd(connection));
+        } catch (Exception ex) {
+            throw new RedisInfraException("failed to obtain redis connection", ex);
+        }
+    }
+
+    /**
+     * 在共享连接上执行任意异步命令
+     */
+    public <R> CompletableFuture<R> async(Function<RedisClusterAsyncCommands<K, V>, RedisFuture<R>> cmd) {
+        try {
+            return cmd.apply(this.asyncCmd(this.getSharedConnection())).toCompletableFuture();
+        } catch (Exception ex) {
+            return CompletableFuture.failedFuture(new RedisInfraException("failed to dispatch redis command", ex));
+        }
+    }
+
+    /**
+     * Get the value of a key.
+     * Time complexity: O(1)
+     */
+    public V get(K key) {
+        return this.sync(cmd -> cmd.get(key));
+    }
+
+    /**
+     * Get the values of all the given keys
+     * Time complexity: O(N) where N is the number of keys to retrieve.
+     */
+    @SafeVarargs
+    public final List<KeyValue<K, V>> mget(K... keys) {
+        return this.sync(cmd -> cmd.mget(keys));
+    }
+
+    /**
+     * Set the string value of a key
+     * Time complexity: O(1)
+     */
+    public String set(K key, V value) {
+        return this.sync(cmd -> cmd.set(key, value));
+    }
+
+    /**
+     * Set the value and expiration of a key
+     * Time complexity: O(1)
+     */
+    public String setex(K key, long seconds, V value) {
+        return this.sync(cmd -> cmd.setex(key, seconds, value));
+    }
+
+    /**
+     * Set the value and expiration in milliseconds of a key
+     * Time complexity: O(1)
+     */
+    public String psetex(K key, long milliseconds, V value) {
+        return this.sync(cmd -> cmd.psetex(key, milliseconds, value));
+    }
+
+    /**
+     * Set multiple keys to multiple values
+     * Time complexity: O(N) where N is the number of keys to set.
+     */
+    public String mset(Map<K, V> kv) {
+        return this.sync(cmd -> cmd.mset(kv));
+    }
+
+    /**
+     * Delete one or more keys
+     * Time complexity: O(N) where N is the number of keys that will be removed.
+     */
+    @SafeVarargs
+    public final Long del(K... keys) {
+        return this.sync(cmd -> cmd.del(keys));
+    }
+
+    /**
+     * Set a key's time to live in seconds
+     * Time complexity: O(1)
+     */
+    public Boolean expire(K key, long seconds) {
+        return this.sync(cmd -> cmd.expire(key, seconds));
+    }
+
+    /**
+     * Get the value of a hash field
+     * Time complexity: O(1)
+     */
+    public V hget(K key, K field) {
+        return this.sync(cmd -> cmd.hget(key, field));
+    }
+
+    /**
+     * Set the value of a hash field
+     * Time complexity: O(1)
+     */
+    public Boolean hset(K key, K field, V value) {
+        return this.sync(cmd -> cmd.hset(key, field, value));
+    }
+
+    /**
+     * Get all the fields and values in a hash
+     * Time complexity: O(N) where N is the size of the hash
+     */
+    public Map<K, V> hgetall(K key) {
+        return this.sync(cmd -> cmd.hgetall(key));
+    }
+
+    private StatefulConnection<K, V> getSharedConnection() {
+        StatefulConnection<K, V> connection = this.sharedConnection;
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+        synchronized (this) {
+            if (this.sharedConnection == null || !this.sharedConnection.isOpen()) {
+                if (supercodeRedisClient.getCloseFlag()) {
+                    throw new RedisInfraException("redis client is closing");
+                }
+                this.sharedConnection = supercodeRedisClient.connect(this.codec);
+            }
+            return this.sharedConnection;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisClusterCommands<K, V> syncCmd(StatefulConnection<K, V> connection) {
+        return supercodeRedisClient.getClusterFlag() ? ((StatefulRedisClusterConnection<K, V>) connection).sync()
+                : ((StatefulRedisConnection<K, V>) connection).sync();
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisClusterAsyncCommands<K, V> asyncCmd(StatefulConnection<K, V> connection) {
+        return supercodeRedisClient.getClusterFlag() ? ((StatefulRedisClusterConnection<K, V>) connection).async()
+                : ((StatefulRedisConnection<K, V>) connection).async();
+    }
+
+    @Override
+    public synchronized void close() {
+        this.pool.close();
+        if (this.sharedConnection != null) {
+            this.sharedConnection.close();
+            this.sharedConnection = null;
+        }
+    }
+}
@@ -1,41 +1,171 @@
 package com.supercode.infra.cache.redis.cmd;
 
+import com.supercode.infra.cache.constant.RedisClientConstant;
 import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.async.RedisPipeline;
+import com.supercode.infra.cache.redis.batch.RedisSingleFlight;
 import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.client.SupercodeRedisCodecClient;
+import com.supercode.infra.cache.redis.hotkey.RedisHotKeyDetector;
+import com.supercode.infra.cache.redis.near.RedisClientTracking;
+import com.supercode.infra.cache.redis.near.RedisNearCache;
+import com.supercode.infra.cache.utils.SlotUtils;
 import io.lettuce.core.api.StatefulConnection;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.sync.RedisCommands;
 import io.lettuce.core.cluster.SlotHash;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.models.partitions.Partitions;
 import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class AbstractRedisCmd<K, V> {
     SupercodeRedisClient<K, V> supercodeRedisClient;
 
+    /**
+     * 开启后该命令组的读命令在同一时刻对同一个key只发出一个请求，其余并发调用共享结果
+     */
+    private volatile RedisSingleFlight singleFlight;
+
     protected AbstractRedisCmd(SupercodeRedisClient<K, V> supercodeRedisClient) {
         this.supercodeRedisClient = supercodeRedisClient;
     }
 
+    public synchronized void setSingleFlight(boolean enabled) {
+        if (!enabled) {
+            this.singleFlight = null;
+        } else if (this.singleFlight == null) {
+            this.singleFlight = new RedisSingleFlight(this.getClass().getSimpleName());
+        }
+    }
+
+    public boolean isSingleFlight() {
+        return this.singleFlight != null;
+    }
+
 
     @SuppressWarnings("unchecked")
     protected <T, R> R doCmd(Function<T, R> cmd) {
         RedisCommands<String, String> txCmd = supercodeRedisClient.transactionCmd.get();
         if (txCmd != null) {
             return cmd.apply((T) txCmd);
-        } else {
-            try (StatefulConnection<String, String> connection = supercodeRedisClient.pool.borrowObject()) {
-                Object redisCmd = supercodeRedisClient.isCluster ? ((StatefulRedisClusterConnection<String, String>) connection).sync()
-                        : ((StatefulRedisConnection<String, String>) connection).sync();
-                return (R) cmd.apply((T) redisCmd);
+        } else if (supercodeRedisClient.isMultiplexed()) {
+            try {
+                return cmd.apply((T) this.syncCmd(supercodeRedisClient.getSharedConnection()));
             } catch (Exception ex) {
-                throw new RedisInfraException("failed to obtain redis connection", ex);
+                throw new RedisInfraException("failed to execute redis command on shared connection", ex);
             }
+        } else {
+            return this.doPooledCmd(cmd);
+        }
+    }
+
+    /**
+     * 执行读命令，开启single-flight时(事务之外)与相同flightKey的并发调用合并为一次请求
+     *
+     * @param flightKey 能唯一标识命令及其参数的key，例如Arrays.asList("HGET", key, field)
+     */
+    protected <T, R> R doReadCmd(Object flightKey, Function<T, R> cmd) {
+        return this.doSingleFlight(flightKey, () -> this.doCmd(cmd));
+    }
+
+    protected <R> R doSingleFlight(Object flightKey, Supplier<R> call) {
+        RedisSingleFlight singleFlight = this.singleFlight;
+        if (singleFlight == null || this.inTransaction()) {
+            return call.get();
+        }
+        return singleFlight.execute(flightKey, call);
+    }
+
+    /**
+     * 执行写命令，完成后(无论成功与否)失效近端缓存中对应的key
+     */
+    protected <T, R> R doWriteCmd(Function<T, R> cmd, String... keys) {
+        try {
+            return this.doCmd(cmd);
+        } finally {
+            supercodeRedisClient.invalidateNearCache(keys);
         }
     }
 
+    /**
+     * 执行写入value的写命令(SET/HSET等)，开启value压缩时(事务之外)经由压缩客户端发送，完成后失效近端缓存中对应的key
+     */
+    @SuppressWarnings("unchecked")
+    protected <T, R> R doValueWriteCmd(Function<T, R> cmd, String... keys) {
+        SupercodeRedisCodecClient<String, String> compressionClient = supercodeRedisClient.getCompressionClient();
+        if (compressionClient == null || this.inTransaction()) {
+            return this.doWriteCmd(cmd, keys);
+        }
+        try {
+            return compressionClient.sync(c -> cmd.apply((T) c));
+        } finally {
+            supercodeRedisClient.invalidateNearCache(keys);
+        }
+    }
+
+    /**
+     * 返回可用于该key的近端缓存：未开启、处于事务中、key不在CLIENT TRACKING的追踪范围内，
+     * 或者开启了热点key提升但该key不是热点key时返回null
+     */
+    protected RedisNearCache getNearCache(String key) {
+        RedisNearCache nearCache = supercodeRedisClient.getNearCache();
+        if (nearCache == null || this.inTransaction()) {
+            return null;
+        }
+        RedisHotKeyDetector hotKeyDetector = supercodeRedisClient.getHotKeyDetector();
+        if (hotKeyDetector != null && hotKeyDetector.isPromote() && !hotKeyDetector.isHot(key)) {
+            return null;
+        }
+        RedisClientTracking tracking = supercodeRedisClient.getClientTracking();
+        return tracking == null || tracking.tracks(key) ? nearCache : null;
+    }
+
+    /**
+     * 近端缓存未命中时从Redis加载，开启CLIENT TRACKING后必须经由追踪连接读取，服务端才会推送该key的失效通知
+     */
+    protected <T, R> R doNearCacheLoad(Object flightKey, String key, Function<T, R> cmd) {
+        RedisClientTracking tracking = supercodeRedisClient.getClientTracking();
+        return tracking != null ? this.doSingleFlight(flightKey, () -> tracking.doTrackedCmd(key, cmd)) : this.doReadCmd(flightKey, cmd);
+    }
+
+    /**
+     * 阻塞命令(如BLPOP)会独占连接直到返回，不能在共享连接上执行，总是从连接池中借用独立的连接
+     */
+    @SuppressWarnings("unchecked")
+    protected <T, R> R doPooledCmd(Function<T, R> cmd) {
+        RedisCommands<String, String> txCmd = supercodeRedisClient.transactionCmd.get();
+        if (txCmd != null) {
+            return cmd.apply((T) txCmd);
+        }
+        try (StatefulConnection<String, String> connection = supercodeRedisClient.pool.borrowObject()) {
+            return (R) cmd.apply((T) this.syncCmd(connection));
+        } catch (Exception ex) {
+            throw new RedisInfraException("failed to obtain redis connection", ex);
+        }
+    }
+
+    private Object syncCmd(StatefulConnection<String, String> connection) {
+        return supercodeRedisClient.isCluster ? ((StatefulRedisClusterConnection<String, String>) connection).sync()
+                : ((StatefulRedisConnection<String, String>) connection).sync();
+    }
+
+    /**
+     * 当前线程是否处于{@link RedisTransactionCmd}开启的事务中
+     */
+    protected boolean inTransaction() {
+        return supercodeRedisClient.transactionCmd.get() != null;
+    }
+
     public GenericObjectPool<StatefulConnection<String, String>> getPool() {
         return supercodeRedisClient.getPool();
     }
@@ -48,6 +178,94 @@ public abstract class AbstractRedisCmd<K, V> {
         return supercodeRedisClient.getClusterFlag();
     }
 
+    /**
+     * 集群模式下按key所在slot的归属节点(Partitions)对key分组，同一节点的slot排在一起
+     *
+     * @return slot -> key在原始数组中的下标；非集群、事务中或者所有key落在同一个slot时返回null，直接执行原命令
+     */
+    protected Map<Integer, List<Integer>> partitionBySlot(String... keys) {
+        if (!this.getClusterFlag() || this.inTransaction() || keys.length < 2) {
+            return null;
+        }
+        Partitions partitions = supercodeRedisClient.getClusterClient().getPartitions();
+        Map<String, Map<Integer, List<Integer>>> nodeSlots = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            int slot = SlotHash.getSlot(keys[i]);
+            RedisClusterNode node = partitions.getPartitionBySlot(slot);
+            String nodeId = node == null ? "" : node.getNodeId();
+            nodeSlots.computeIfAbsent(nodeId, n -> new LinkedHashMap<>())
+                    .computeIfAbsent(slot, s -> new ArrayList<>())
+                    .add(i);
+        }
+        Map<Integer, List<Integer>> slotIndexes = new LinkedHashMap<>();
+        nodeSlots.values().forEach(slotIndexes::putAll);
+        return slotIndexes.size() < 2 ? null : slotIndexes;
+    }
+
+    protected static String[] pickKeys(String[] keys, List<Integer> indexes) {
+        String[] picked = new String[indexes.size()];
+        for (int i = 0; i < picked.length; i++) {
+            picked[i] = keys[indexes.get(i)];
+        }
+        return picked;
+    }
+
+    /**
+     * 取出管道中单条命令的结果，命令失败时抛出异常
+     */
+    @SuppressWarnings("unchecked")
+    protected static <R> R pipelineResult(Object result) {
+        if (result instanceof Throwable) {
+            throw new RedisInfraException("failed to execute redis command", (Throwable) result);
+        }
+        return (R) result;
+    }
+
+    /**
+     * 复制key的所有副本名，第0个副本就是key本身，副本分布规则见{@link SlotUtils}
+     */
+    protected static String[] replicaKeys(String key, int copies) {
+        checkCopies(copies);
+        return SlotUtils.spreadKeys(key, copies);
+    }
+
+    private static void checkCopies(int copies) {
+        if (copies < 1 || copies > RedisClientConstant.REPLICATED_MAX_COPIES) {
+            throw new IllegalArgumentException("copies must be between 1 and " + RedisClientConstant.REPLICATED_MAX_COPIES);
+        }
+    }
+
+    /**
+     * 通过管道写入所有副本，返回第0个副本(key本身)的结果，完成后失效近端缓存中的所有副本；各副本之间不保证原子性
+     */
+    protected <R> R doReplicatedWrite(String key, int copies, BiConsumer<RedisPipeline<K, V>, String> write) {
+        String[] keys = replicaKeys(key, copies);
+        try {
+            List<Object> results = supercodeRedisClient.pipeline(p -> {
+                for (String replica : keys) {
+                    write.accept(p, replica);
+                }
+            });
+            R reply = null;
+            for (int i = results.size() - 1; i >= 0; i--) {
+                reply = pipelineResult(results.get(i));
+            }
+            return reply;
+        } finally {
+            supercodeRedisClient.invalidateNearCache(keys);
+        }
+    }
+
+    /**
+     * 从随机的一个副本读取，该副本不存在(写入一半失败或被淘汰)时回退到key本身
+     */
+    protected <R> R doReplicatedRead(String key, int copies, Function<String, R> read) {
+        checkCopies(copies);
+        int index = ThreadLocalRandom.current().nextInt(copies);
+        R value = read.apply(SlotUtils.spreadKey(key, copies, index));
+        return value == null && index != 0 ? read.apply(key) : value;
+    }
+
     /**
      * Retrieve the cluster view and get a {@link RedisClusterNode} by its slot number
      */
@@ -1,9 +1,11 @@
 package com.supercode.infra.cache.redis.cmd;
 
 import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.near.RedisNearCache;
 import io.lettuce.core.KeyValue;
 import io.lettuce.core.api.sync.RedisHashCommands;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -23,12 +25,31 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
         return super.doCmd(hashCmd);
     }
 
+    private <R> R doHashReadCmd(Object flightKey, Function<RedisHashCommands<String, String>, R> hashCmd) {
+        return super.doReadCmd(flightKey, hashCmd);
+    }
+
+    private <R> R doHashNearCacheLoad(Object flightKey, String key, Function<RedisHashCommands<String, String>, R> hashCmd) {
+        return super.doNearCacheLoad(flightKey, key, hashCmd);
+    }
+
+    private <R> R doHashWriteCmd(String key, Function<RedisHashCommands<String, String>, R> hashCmd) {
+        return super.doWriteCmd(hashCmd, key);
+    }
+
+    /**
+     * 写入field值的命令，开启value压缩时field值会被压缩，field名不压缩
+     */
+    private <R> R doHashValueWriteCmd(String key, Function<RedisHashCommands<String, String>, R> hashCmd) {
+        return super.doValueWriteCmd(hashCmd, key);
+    }
+
     /**
      * Delete one or more hash fields
      * Time complexity: O(N) where N is the number of fields to be removed
      */
     public Long hdel(String key, String... fields) {
-        return this.doHashCmd(cmd -> cmd.hdel(key, fields));
+        return this.doHashWriteCmd(key, cmd -> cmd.hdel(key, fields));
     }
 
     /**
@@ -42,9 +63,15 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
     /**
      * Get the value of a hash field
      * Time complexity: O(1)
+     * <p>
+     * 开启近端缓存后(事务之外)优先读本地缓存
      */
     public String hget(String key, String field) {
-        return this.doHashCmd(cmd -> cmd.hget(key, field));
+        RedisNearCache nearCache = super.getNearCache(key);
+        if (nearCache != null) {
+            return nearCache.hget(key, field, () -> this.doHashNearCacheLoad(Arrays.asList("HGET", key, field), key, cmd -> cmd.hget(key, field)));
+        }
+        return this.doHashReadCmd(Arrays.asList("HGET", key, field), cmd -> cmd.hget(key, field));
     }
 
     /**
@@ -52,7 +79,7 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Long hincrby(String key, String field, long amount) {
-        return this.doHashCmd(cmd -> cmd.hincrby(key, field, amount));
+        return this.doHashWriteCmd(key, cmd -> cmd.hincrby(key, field, amount));
     }
 
     /**
@@ -60,15 +87,21 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Double hincrbyfloat(String key, String field, double amount) {
-        return this.doHashCmd(cmd -> cmd.hincrbyfloat(key, field, amount));
+        return this.doHashWriteCmd(key, cmd -> cmd.hincrbyfloat(key, field, amount));
     }
 
     /**
      * Get all the fields and values in a hash
      * Time complexity: O(N) where N is the size of the hash
+     * <p>
+     * 开启近端缓存后(事务之外)优先读本地缓存
      */
     public Map<String, String> hgetall(String key) {
-        return this.doHashCmd(cmd -> cmd.hgetall(key));
+        RedisNearCache nearCache = super.getNearCache(key);
+        if (nearCache != null) {
+            return nearCache.hgetall(key, () -> this.doHashNearCacheLoad(Arrays.asList("HGETALL", key), key, cmd -> cmd.hgetall(key)));
+        }
+        return this.doHashReadCmd(Arrays.asList("HGETALL", key), cmd -> cmd.hgetall(key));
     }
 
     /**
@@ -76,7 +109,7 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(N) where N is the size of the hash
      */
     public List<String> hkeys(String key) {
-        return this.doHashCmd((cmd) -> cmd.hkeys(key));
+        return this.doHashReadCmd(Arrays.asList("HKEYS", key), cmd -> cmd.hkeys(key));
     }
 
     /**
@@ -92,7 +125,7 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(N) where N is the number of fields being requested
      */
     public List<KeyValue<String, String>> hmget(String key, String... fields) {
-        return this.doHashCmd(cmd -> cmd.hmget(key, fields));
+        return this.doHashReadCmd(Arrays.asList("HMGET", key, Arrays.asList(fields)), cmd -> cmd.hmget(key, fields));
     }
 
     /**
@@ -100,7 +133,7 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(N) where N is the number of fields being set
      */
     public String hmset(String key, Map<String, String> map) {
-        return this.doHashCmd(cmd -> cmd.hmset(key, map));
+        return this.doHashValueWriteCmd(key, cmd -> cmd.hmset(key, map));
     }
 
     /**
@@ -108,7 +141,7 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1) for each field/value pair added, so O(N) to add N field/value pairs when the command is called with multiple field/value pairs
      */
     public Boolean hset(String key, String field, String value) {
-        return this.doHashCmd(cmd -> cmd.hset(key, field, value));
+        return this.doHashValueWriteCmd(key, cmd -> cmd.hset(key, field, value));
     }
 
     /**
@@ -116,7 +149,7 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Boolean hsetnx(String key, String field, String value) {
-        return this.doHashCmd(cmd -> cmd.hsetnx(key, field, value));
+        return this.doHashValueWriteCmd(key, cmd -> cmd.hsetnx(key, field, value));
     }
 
     /**
@@ -132,7 +165,32 @@ public class RedisHashCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(N) where N is the size of the hash.
      */
     public List<String> hvals(String key) {
-        return this.doHashCmd((cmd) -> cmd.hvals(key));
+        return this.doHashReadCmd(Arrays.asList("HVALS", key), cmd -> cmd.hvals(key));
+    }
+
+
+    /**
+     * 热点key的复制写：通过管道写入copies个分布在不同slot的副本(第0个副本是key本身)，各副本之间不保证原子性
+     */
+    public Boolean hsetReplicated(String key, String field, String value, int copies) {
+        return super.doReplicatedWrite(key, copies, (p, replica) -> p.redisHashCmd().hset(replica, field, value));
+    }
+
+    public String hmsetReplicated(String key, Map<String, String> map, int copies) {
+        return super.doReplicatedWrite(key, copies, (p, replica) -> p.redisHashCmd().hmset(replica, map));
     }
 
+    /**
+     * 从随机的一个副本读取，copies必须与写入时一致
+     */
+    public String hgetReplicated(String key, String field, int copies) {
+        return super.doReplicatedRead(key, copies, replica -> this.hget(replica, field));
+    }
+
+    public Map<String, String> hgetallReplicated(String key, int copies) {
+        return super.doReplicatedRead(key, copies, replica -> {
+            Map<String, String> value = this.hgetall(replica);
+            return value == null || value.isEmpty() ? null : value;
+        });
+    }
 }
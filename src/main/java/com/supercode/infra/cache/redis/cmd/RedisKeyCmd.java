@@ -1,9 +1,14 @@
 package com.supercode.infra.cache.redis.cmd;
 
 import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
 import io.lettuce.core.api.sync.RedisKeyCommands;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 /**
@@ -21,12 +26,23 @@ public class RedisKeyCmd<K, V> extends AbstractRedisCmd<K, V> {
         return super.doCmd(keyCmd);
     }
 
+    private <R> R doKeyWriteCmd(String key, Function<RedisKeyCommands<String, String>, R> keyCmd) {
+        return super.doWriteCmd(keyCmd, key);
+    }
+
     /**
      * Determine how many keys exist
      * Time complexity: O(N) where N is the number of keys to check
+     * <p>
+     * 集群模式下跨slot的key按slot拆分后通过管道在各节点上并行执行，结果求和
      */
     public Long exists(String... keys) {
-        return this.doKeyCmd(cmd -> cmd.exists(keys));
+        Map<Integer, List<Integer>> slotIndexes = super.partitionBySlot(keys);
+        if (slotIndexes == null) {
+            return this.doKeyCmd(cmd -> cmd.exists(keys));
+        }
+        return this.sumPipelineResults(supercodeRedisClient.pipeline(p ->
+                slotIndexes.values().forEach(indexes -> p.redisKeyCmd().exists(pickKeys(keys, indexes)))));
     }
 
     /**
@@ -34,7 +50,7 @@ public class RedisKeyCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Boolean expire(String key, long seconds) {
-        return this.doKeyCmd(cmd -> cmd.expire(key, seconds));
+        return this.doKeyWriteCmd(key, cmd -> cmd.expire(key, seconds));
     }
 
     /**
@@ -42,9 +58,29 @@ public class RedisKeyCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(N) where N is the number of keys that will be removed.
      * When a key to remove holds a value other than a string, the individual complexity for this key is O(M) where M is the number of elements in the list, set, sorted set or hash.
      * Removing a single key that holds a string value is O(1).
+     * <p>
+     * 集群模式下跨slot的key按slot拆分后通过管道在各节点上并行执行，结果求和
      */
     public Long del(String... keys) {
-        return this.doKeyCmd(cmd -> cmd.del(keys));
+        try {
+            Map<Integer, List<Integer>> slotIndexes = super.partitionBySlot(keys);
+            if (slotIndexes == null) {
+                return this.doKeyCmd(cmd -> cmd.del(keys));
+            }
+            return this.sumPipelineResults(supercodeRedisClient.pipeline(p ->
+                    slotIndexes.values().forEach(indexes -> p.redisKeyCmd().del(pickKeys(keys, indexes)))));
+        } finally {
+            supercodeRedisClient.invalidateNearCache(keys);
+        }
+    }
+
+    private Long sumPipelineResults(List<Object> results) {
+        long sum = 0;
+        for (Object result : results) {
+            Long count = pipelineResult(result);
+            sum += count == null ? 0 : count;
+        }
+        return sum;
     }
 
     /**
@@ -52,7 +88,7 @@ public class RedisKeyCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Boolean expireat(String key, Date timestamp) {
-        return this.doKeyCmd(cmd -> cmd.expireat(key, timestamp));
+        return this.doKeyWriteCmd(key, cmd -> cmd.expireat(key, timestamp));
     }
 
     /**
@@ -60,7 +96,7 @@ public class RedisKeyCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Boolean pexpire(String key, long milliseconds) {
-        return this.doKeyCmd(cmd -> cmd.pexpire(key, milliseconds));
+        return this.doKeyWriteCmd(key, cmd -> cmd.pexpire(key, milliseconds));
     }
 
     /**
@@ -68,7 +104,7 @@ public class RedisKeyCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Boolean pexpireat(String key, long timestamp) {
-        return this.doKeyCmd(cmd -> cmd.pexpireat(key, timestamp));
+        return this.doKeyWriteCmd(key, cmd -> cmd.pexpireat(key, timestamp));
     }
 
     /**
@@ -100,4 +136,28 @@ public class RedisKeyCmd<K, V> extends AbstractRedisCmd<K, V> {
     public String type(String key) {
         return this.doKeyCmd(cmd -> cmd.type(key));
     }
+
+    /**
+     * Incrementally iterate the keys space
+     * Time complexity: O(1) for every call. O(N) for a complete iteration.
+     * <p>
+     * 集群模式下游标会依次遍历所有节点，直到cursor.isFinished()
+     */
+    public KeyScanCursor<String> scan(ScanCursor cursor, ScanArgs args) {
+        return this.doKeyCmd(cmd -> cmd.scan(cursor, args));
+    }
+
+    /**
+     * 删除复制key的所有副本，返回删除的副本数
+     */
+    public Long delReplicated(String key, int copies) {
+        return this.del(replicaKeys(key, copies));
+    }
+
+    /**
+     * 设置复制key所有副本的过期时间
+     */
+    public Boolean expireReplicated(String key, long seconds, int copies) {
+        return super.doReplicatedWrite(key, copies, (p, replica) -> p.redisKeyCmd().expire(replica, seconds));
+    }
 }
@@ -4,6 +4,7 @@ import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
 import io.lettuce.core.KeyValue;
 import io.lettuce.core.api.sync.RedisListCommands;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 
@@ -23,6 +24,14 @@ public class RedisListCmd<K, V> extends AbstractRedisCmd<K, V> {
         return super.doCmd(listCmd);
     }
 
+    private <R> R doListReadCmd(Object flightKey, Function<RedisListCommands<String, String>, R> listCmd) {
+        return super.doReadCmd(flightKey, listCmd);
+    }
+
+    private <R> R doBlockingListCmd(Function<RedisListCommands<String, String>, R> listCmd) {
+        return super.doPooledCmd(listCmd);
+    }
+
     /**
      * Get an element from a list by its index
      * Time complexity: O(N) where N is the number of elements to traverse to get to the element at index.
@@ -57,8 +66,12 @@ public class RedisListCmd<K, V> extends AbstractRedisCmd<K, V> {
         return this.doListCmd(cmd -> cmd.lpop(key));
     }
 
+    /**
+     * Remove and get the first element in a list, or block until one is available
+     * 阻塞命令会独占连接，总是走连接池
+     */
     public KeyValue<String, String> blpop(String key, long timeout) {
-        return this.doListCmd(cmd -> cmd.blpop(timeout, key));
+        return this.doBlockingListCmd(cmd -> cmd.blpop(timeout, key));
     }
 
     /**
@@ -87,7 +100,7 @@ public class RedisListCmd<K, V> extends AbstractRedisCmd<K, V> {
      * 谨慎使用
      */
     public List<String> lrange(String key, long start, long stop) {
-        return this.doListCmd(cmd -> cmd.lrange(key, start, stop));
+        return this.doListReadCmd(Arrays.asList("LRANGE", key, start, stop), cmd -> cmd.lrange(key, start, stop));
     }
 
     /**
@@ -3,6 +3,7 @@ package com.supercode.infra.cache.redis.cmd;
 import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
 import io.lettuce.core.api.sync.RedisSetCommands;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
@@ -17,6 +18,10 @@ public class RedisSetCmd<K, V> extends AbstractRedisCmd<K, V> {
         return super.doCmd(setCmd);
     }
 
+    private <R> R doSetReadCmd(Object flightKey, Function<RedisSetCommands<String, String>, R> setCmd) {
+        return super.doReadCmd(flightKey, setCmd);
+    }
+
     /**
      * Add one or more members to a set.
      * <p>
@@ -57,7 +62,7 @@ public class RedisSetCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(N) where N is the set cardinality
      */
     public Set<String> smembers(String key) {
-        return this.doSetCmd(cmd -> cmd.smembers(key));
+        return this.doSetReadCmd(Arrays.asList("SMEMBERS", key), cmd -> cmd.smembers(key));
     }
 
     /**
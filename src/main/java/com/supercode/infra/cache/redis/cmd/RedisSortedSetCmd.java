@@ -5,6 +5,7 @@ import io.lettuce.core.Range;
 import io.lettuce.core.ScoredValue;
 import io.lettuce.core.api.sync.RedisSortedSetCommands;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 
@@ -21,6 +22,10 @@ public class RedisSortedSetCmd<K, V> extends AbstractRedisCmd<K, V> {
         return super.doCmd(sortedSetCmd);
     }
 
+    private <R> R doSortSetReadCmd(Object flightKey, Function<RedisSortedSetCommands<String, String>, R> sortedSetCmd) {
+        return super.doReadCmd(flightKey, sortedSetCmd);
+    }
+
     /**
      * Add one or more members to a sorted set, or update its score if it already exists.
      * <p>
@@ -48,7 +53,7 @@ public class RedisSortedSetCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(log(N)+M) with N being the number of elements in the sorted set and M the number of elements returned.
      */
     public List<String> zrange(String key, long start, long stop) {
-        return this.doSortSetCmd(cmd -> cmd.zrange(key, start, stop));
+        return this.doSortSetReadCmd(Arrays.asList("ZRANGE", key, start, stop), cmd -> cmd.zrange(key, start, stop));
     }
 
 
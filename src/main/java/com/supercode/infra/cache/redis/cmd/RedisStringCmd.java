@@ -1,13 +1,19 @@
 package com.supercode.infra.cache.redis.cmd;
 
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.batch.RedisGetBatcher;
 import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.near.RedisNearCache;
 import io.lettuce.core.KeyValue;
 import io.lettuce.core.api.sync.RedisStringCommands;
 import io.lettuce.core.cluster.SlotHash;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 
 /**
@@ -25,12 +31,23 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
         return super.doCmd(stringCmd);
     }
 
+    private <R> R doStringWriteCmd(Function<RedisStringCommands<String, String>, R> stringCmd, String... keys) {
+        return super.doWriteCmd(stringCmd, keys);
+    }
+
+    /**
+     * 写入整个value的命令，开启value压缩时value会被压缩
+     */
+    private <R> R doStringValueWriteCmd(Function<RedisStringCommands<String, String>, R> stringCmd, String... keys) {
+        return super.doValueWriteCmd(stringCmd, keys);
+    }
+
     /**
      * Append a value to a key
      * Time complexity: O(1)
      */
     public Long append(String key, String value) {
-        return this.doStringCmd(cmd -> cmd.append(key, value));
+        return this.doStringWriteCmd(cmd -> cmd.append(key, value), key);
     }
 
     /**
@@ -38,7 +55,7 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Long decr(String key) {
-        return this.doStringCmd(cmd -> cmd.decr(key));
+        return this.doStringWriteCmd(cmd -> cmd.decr(key), key);
     }
 
     /**
@@ -46,15 +63,38 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Long decrby(String key, long amount) {
-        return this.doStringCmd(cmd -> cmd.decrby(key, amount));
+        return this.doStringWriteCmd(cmd -> cmd.decrby(key, amount), key);
     }
 
     /**
      * Get the value of a key.
      * Time complexity: O(1)
+     * <p>
+     * 开启近端缓存后(事务之外)优先读本地缓存；开启single-flight后同一时刻对同一个key只发出一个请求；
+     * 开启GET合并后(事务之外)会与其他线程的并发GET合并为MGET发送
      */
     public String get(String key) {
-        return this.doStringCmd(cmd -> cmd.get(key));
+        RedisNearCache nearCache = super.getNearCache(key);
+        if (nearCache != null) {
+            return nearCache.get(key, () -> supercodeRedisClient.getClientTracking() != null
+                    ? super.doNearCacheLoad(Arrays.asList("GET", key), key, (RedisStringCommands<String, String> cmd) -> cmd.get(key))
+                    : this.getRemote(key));
+        }
+        return this.getRemote(key);
+    }
+
+    private String getRemote(String key) {
+        return super.doSingleFlight(Arrays.asList("GET", key), () -> {
+            RedisGetBatcher getBatcher = supercodeRedisClient.getGetBatcher();
+            if (getBatcher != null && !super.inTransaction()) {
+                try {
+                    return getBatcher.get(key).join();
+                } catch (CompletionException ex) {
+                    throw new RedisInfraException("failed to execute batched get", ex.getCause());
+                }
+            }
+            return this.doStringCmd(cmd -> cmd.get(key));
+        });
     }
 
     /**
@@ -78,7 +118,7 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public String set(String key, String value) {
-        return this.doStringCmd(cmd -> cmd.set(key, value));
+        return this.doStringValueWriteCmd(cmd -> cmd.set(key, value), key);
     }
 
     /**
@@ -86,7 +126,7 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Long setbit(String key, long offset, int value) {
-        return this.doStringCmd(cmd -> cmd.setbit(key, offset, value));
+        return this.doStringWriteCmd(cmd -> cmd.setbit(key, offset, value), key);
     }
 
     /**
@@ -94,7 +134,7 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public String setex(String key, long seconds, String value) {
-        return this.doStringCmd(cmd -> cmd.setex(key, seconds, value));
+        return this.doStringValueWriteCmd(cmd -> cmd.setex(key, seconds, value), key);
     }
 
     /**
@@ -102,7 +142,7 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public String psetex(String key, long milliseconds, String value) {
-        return this.doStringCmd(cmd -> cmd.psetex(key, milliseconds, value));
+        return this.doStringValueWriteCmd(cmd -> cmd.psetex(key, milliseconds, value), key);
     }
 
     /**
@@ -110,11 +150,11 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Boolean setnx(String key, String value) {
-        return this.doStringCmd(cmd -> cmd.setnx(key, value));
+        return this.doStringValueWriteCmd(cmd -> cmd.setnx(key, value), key);
     }
 
     public Boolean setnx(String key, String value, long seconds) {
-        return this.doStringCmd(cmd -> cmd.setnx(key, value)) && this.supercodeRedisClient.redisKeyCmd().expire(key, seconds);
+        return this.doStringValueWriteCmd(cmd -> cmd.setnx(key, value), key) && this.supercodeRedisClient.redisKeyCmd().expire(key, seconds);
     }
 
     /**
@@ -123,7 +163,7 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Usually, this string is very small so the amortized complexity is O(1). Otherwise, complexity is O(M) with M being the length of the value argument.
      */
     public Long setrange(String key, long offset, String value) {
-        return this.doStringCmd(cmd -> cmd.setrange(key, offset, value));
+        return this.doStringWriteCmd(cmd -> cmd.setrange(key, offset, value), key);
     }
 
     /**
@@ -139,7 +179,7 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public String getset(String key, String value) {
-        return this.doStringCmd(cmd -> cmd.getset(key, value));
+        return this.doStringValueWriteCmd(cmd -> cmd.getset(key, value), key);
     }
 
     /**
@@ -147,7 +187,7 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Long incr(String key) {
-        return this.doStringCmd(cmd -> cmd.incr(key));
+        return this.doStringWriteCmd(cmd -> cmd.incr(key), key);
     }
 
     /**
@@ -155,7 +195,7 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Long incrby(String key, long amount) {
-        return this.doStringCmd(cmd -> cmd.incrby(key, amount));
+        return this.doStringWriteCmd(cmd -> cmd.incrby(key, amount), key);
     }
 
     /**
@@ -163,28 +203,73 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
      * Time complexity: O(1)
      */
     public Double incrbyfloat(String key, double amount) {
-        return this.doStringCmd(cmd -> cmd.incrbyfloat(key, amount));
+        return this.doStringWriteCmd(cmd -> cmd.incrbyfloat(key, amount), key);
     }
 
     /**
      * Get the values of all the given keys
      * Time complexity: O(N) where N is the number of keys to retrieve.
+     * <p>
+     * 集群模式下跨slot的key按归属节点拆分为每个slot一条MGET，通过管道在各节点上并行执行，结果按原始key的顺序合并
      */
+    @SuppressWarnings("unchecked")
     public List<KeyValue<String, String>> mget(String... keys) {
-        return this.doStringCmd(cmd -> cmd.mget(keys));
+        Map<Integer, List<Integer>> slotIndexes = super.partitionBySlot(keys);
+        if (slotIndexes == null) {
+            return this.doStringCmd(cmd -> cmd.mget(keys));
+        }
+        List<Object> results = supercodeRedisClient.pipeline(p ->
+                slotIndexes.values().forEach(indexes -> p.redisStringCmd().mget(pickKeys(keys, indexes))));
+        KeyValue<String, String>[] merged = new KeyValue[keys.length];
+        int i = 0;
+        for (List<Integer> indexes : slotIndexes.values()) {
+            List<KeyValue<String, String>> slotValues = pipelineResult(results.get(i++));
+            for (int j = 0; j < indexes.size(); j++) {
+                merged[indexes.get(j)] = slotValues.get(j);
+            }
+        }
+        return Arrays.asList(merged);
     }
 
     /**
      * Set multiple keys to multiple values
      * Time complexity: O(N) where N is the number of keys to set.
+     * <p>
+     * 集群模式下跨slot的key按slot拆分后通过管道在各节点上并行执行，不保证原子性
      */
     public String mset(Map<String, String> kv) {
-        return this.doStringCmd(cmd -> cmd.mset(kv));
+        String[] keys = kv.keySet().toArray(new String[0]);
+        try {
+            return this.doMset(kv, keys);
+        } finally {
+            supercodeRedisClient.invalidateNearCache(keys);
+        }
+    }
+
+    private String doMset(Map<String, String> kv, String[] keys) {
+        Map<Integer, List<Integer>> slotIndexes = super.partitionBySlot(keys);
+        if (slotIndexes == null) {
+            return super.doValueWriteCmd((RedisStringCommands<String, String> cmd) -> cmd.mset(kv));
+        }
+        List<Object> results = supercodeRedisClient.pipeline(p -> slotIndexes.values().forEach(indexes -> {
+            Map<String, String> slotKv = new HashMap<>(indexes.size() * 2);
+            for (String key : pickKeys(keys, indexes)) {
+                slotKv.put(key, kv.get(key));
+            }
+            p.redisStringCmd().mset(slotKv);
+        }));
+        String reply = null;
+        for (Object result : results) {
+            reply = pipelineResult(result);
+        }
+        return reply;
     }
 
     /**
      * Set multiple keys to multiple values, only if none of the keys exist
      * Time complexity: O(N) where N is the number of keys to set.
+     * <p>
+     * MSETNX必须是原子的，跨slot时无法拆分执行，直接返回false
      */
     public Boolean msetnx(Map<String, String> kv) {
         if (kv.size() == 0) {
@@ -199,7 +284,26 @@ public class RedisStringCmd<K, V> extends AbstractRedisCmd<K, V> {
                 return false;
             }
         }
-        return this.doStringCmd(cmd -> cmd.msetnx(kv));
+        return this.doStringValueWriteCmd(cmd -> cmd.msetnx(kv), kv.keySet().toArray(new String[0]));
+    }
+
+    /**
+     * 热点key的复制写：通过管道把value写入copies个分布在不同slot的副本(第0个副本是key本身)，各副本之间不保证原子性
+     * 读取使用{@link #getReplicated(String, int)}，删除使用{@link RedisKeyCmd#delReplicated(String, int)}，copies必须一致
+     */
+    public String setReplicated(String key, String value, int copies) {
+        return super.doReplicatedWrite(key, copies, (p, replica) -> p.redisStringCmd().set(replica, value));
+    }
+
+    public String setexReplicated(String key, long seconds, String value, int copies) {
+        return super.doReplicatedWrite(key, copies, (p, replica) -> p.redisStringCmd().setex(replica, seconds, value));
+    }
+
+    /**
+     * 从随机的一个副本读取，把热点key的读压力分散到各个节点
+     */
+    public String getReplicated(String key, int copies) {
+        return super.doReplicatedRead(key, copies, this::get);
     }
 
     public String getAndDel(String key) {
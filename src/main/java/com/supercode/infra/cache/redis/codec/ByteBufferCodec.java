@@ -0,0 +1,68 @@
+package com.supercode.infra.cache.redis.codec;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.ToByteBufEncoder;
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteBuffer;
+
+/**
+ * key与value都是{@link ByteBuffer}的codec
+ * <p>
+ * 编码时直接把调用方的ByteBuffer写入Netty的ByteBuf，不产生中间的byte[]；调用方的ByteBuffer的position不会被修改。
+ * 解码时Lettuce的读缓冲区会被复用，因此复制一次到新的堆内ByteBuffer。
+ *
+ * @author jonathan.ji
+ */
+public class ByteBufferCodec implements RedisCodec<ByteBuffer, ByteBuffer>, ToByteBufEncoder<ByteBuffer, ByteBuffer> {
+
+    public static final ByteBufferCodec INSTANCE = new ByteBufferCodec();
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    @Override
+    public ByteBuffer decodeKey(ByteBuffer bytes) {
+        return copy(bytes);
+    }
+
+    @Override
+    public ByteBuffer decodeValue(ByteBuffer bytes) {
+        return copy(bytes);
+    }
+
+    @Override
+    public ByteBuffer encodeKey(ByteBuffer key) {
+        return key == null ? EMPTY.duplicate() : key.duplicate();
+    }
+
+    @Override
+    public ByteBuffer encodeValue(ByteBuffer value) {
+        return value == null ? EMPTY.duplicate() : value.duplicate();
+    }
+
+    @Override
+    public void encodeKey(ByteBuffer key, ByteBuf target) {
+        if (key != null) {
+            target.writeBytes(key.duplicate());
+        }
+    }
+
+    @Override
+    public void encodeValue(ByteBuffer value, ByteBuf target) {
+        if (value != null) {
+            target.writeBytes(value.duplicate());
+        }
+    }
+
+    @Override
+    public int estimateSize(Object keyOrValue) {
+        return keyOrValue == null ? 0 : ((ByteBuffer) keyOrValue).remaining();
+    }
+
+    private static ByteBuffer copy(ByteBuffer source) {
+        ByteBuffer copy = ByteBuffer.allocate(source.remaining());
+        copy.put(source);
+        copy.flip();
+        return copy;
+    }
+}
@@ -0,0 +1,146 @@
+package com.supercode.infra.cache.redis.codec;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisInfraException;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * {@link CompressionCodec}支持的压缩算法，format写入值的头部，读取时按头部选择算法，与当前配置的算法无关
+ *
+ * @author jonathan.ji
+ */
+public enum CompressionAlgorithm {
+
+    /**
+     * JDK自带的Deflater，压缩率高
+     */
+    DEFLATE((byte) 1) {
+        private final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(RedisClientConstant.COMPRESSION_DEFLATE_LEVEL, true));
+        private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+        @Override
+        int compress(ByteBuffer source, ByteBuffer target) {
+            Deflater deflater = this.deflaters.get();
+            deflater.reset();
+            deflater.setInput(source);
+            deflater.finish();
+            int start = target.position();
+            while (!deflater.finished()) {
+                if (!target.hasRemaining()) {
+                    return -1;
+                }
+                deflater.deflate(target);
+            }
+            return target.position() - start;
+        }
+
+        @Override
+        void decompress(ByteBuffer source, ByteBuffer target) {
+            Inflater inflater = this.inflaters.get();
+            inflater.reset();
+            inflater.setInput(source);
+            try {
+                while (target.hasRemaining() && !inflater.finished()) {
+                    if (inflater.inflate(target) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new RedisInfraException("truncated deflate value");
+                    }
+                }
+            } catch (DataFormatException ex) {
+                throw new RedisInfraException("corrupted deflate value", ex);
+            }
+        }
+    },
+
+    /**
+     * LZ4，压缩率略低但速度快很多，需要业务自行引入org.lz4:lz4-java
+     */
+    LZ4((byte) 2) {
+        @Override
+        void ensureAvailable() {
+            try {
+                Class.forName("net.jpountz.lz4.LZ4Factory", false, CompressionAlgorithm.class.getClassLoader());
+            } catch (ClassNotFoundException ex) {
+                throw new RedisInfraException("LZ4 compression requires org.lz4:lz4-java on the classpath", ex);
+            }
+        }
+
+        @Override
+        int compress(ByteBuffer source, ByteBuffer target) {
+            return Lz4Holder.compress(source, target);
+        }
+
+        @Override
+        void decompress(ByteBuffer source, ByteBuffer target) {
+            Lz4Holder.decompress(source, target);
+        }
+    };
+
+    private final byte format;
+
+    CompressionAlgorithm(byte format) {
+        this.format = format;
+    }
+
+    public byte getFormat() {
+        return this.format;
+    }
+
+    /**
+     * 开启压缩时检查依赖是否存在，避免在事件循环线程中才发现缺少依赖
+     */
+    void ensureAvailable() {
+    }
+
+    /**
+     * 把source压缩写入target，target剩余空间不足时返回-1
+     */
+    abstract int compress(ByteBuffer source, ByteBuffer target);
+
+    /**
+     * 把source解压写入target，target的剩余空间即原始长度
+     */
+    abstract void decompress(ByteBuffer source, ByteBuffer target);
+
+    static CompressionAlgorithm of(byte format) {
+        for (CompressionAlgorithm algorithm : values()) {
+            if (algorithm.format == format) {
+                return algorithm;
+            }
+        }
+        throw new RedisInfraException("unknown compression format " + format);
+    }
+
+    /**
+     * 只有用到LZ4时才加载lz4-java
+     */
+    private static final class Lz4Holder {
+        private static final LZ4Factory FACTORY = LZ4Factory.fastestInstance();
+
+        private static int compress(ByteBuffer source, ByteBuffer target) {
+            LZ4Compressor compressor = FACTORY.fastCompressor();
+            int length = source.remaining();
+            if (compressor.maxCompressedLength(length) > target.remaining()) {
+                // 最坏情况下输出会越界，按不值得压缩处理
+                return -1;
+            }
+            int written = compressor.compress(source, source.position(), length, target, target.position(), target.remaining());
+            source.position(source.limit());
+            target.position(target.position() + written);
+            return written;
+        }
+
+        private static void decompress(ByteBuffer source, ByteBuffer target) {
+            LZ4FastDecompressor decompressor = FACTORY.fastDecompressor();
+            int read = decompressor.decompress(source, source.position(), target, target.position(), target.remaining());
+            source.position(source.position() + read);
+            target.position(target.limit());
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.supercode.infra.cache.redis.codec;
+
+import com.supercode.infra.cache.exception.RedisInfraException;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.ToByteBufEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按大小阈值透明压缩value的codec，key不压缩
+ * <p>
+ * 编码后的value长度达到阈值时压缩，压缩后的格式为 0xFF {format} {原始长度int} {压缩数据}；
+ * 未压缩但恰好以0xFF开头的value写为 0xFF 0x00 {原始数据}，其余value原样写入。
+ * 解码时只看头部，与当前是否开启压缩、使用哪种算法无关，因此压缩前写入的值与压缩后写入的值可以共存，关闭压缩后也能读出已压缩的值。
+ * UTF-8字符串不会以0xFF开头；二进制value在开启本codec之前写入且以0xFF开头时会被误判。
+ * <p>
+ * 开启字典压缩后，未达到阈值但达到字典minBytes的value使用{@link CompressionDictionary}的预置字典压缩，
+ * 格式为 0xFF 0x03 {字典名哈希int} {字典版本号int} {原始长度int} {压缩数据}。切换字典后旧字典仍按名字保留用于读取，
+ * 读取字典压缩的value需要加载过写入时使用的字典，名字或版本对不上任何已加载的字典、解压后长度不符时抛出异常。
+ * <p>
+ * 本codec压缩所有value位置的参数(包括EVALSHA的ARGV、PUBLISH的消息、集合成员等)，只适合用于专门写value的连接；
+ * {@link #decodeOnly()}返回共享配置与字典、但编码时不压缩的codec，用于其余的连接。
+ * <p>
+ * 压缩与解压发生在Lettuce的事件循环线程中，阈值不宜设置过小。APPEND、GETRANGE、SETRANGE等按字节操作value的命令
+ * 看到的是压缩后的数据，对这类key不要开启压缩。
+ * <p>
+ * 指标：
+ * supercode.redis.compression.ratio   压缩后与压缩前的字节数之比，algorithm标签(字典压缩为dictionary)
+ * supercode.redis.compression.time    每个value压缩/解压的耗时，algorithm与op(compress/decompress)标签
+ * supercode.redis.compression.skipped 达到阈值但压缩后没有变小、按原样写入的次数
+ *
+ * @author jonathan.ji
+ */
+public class CompressionCodec<K, V> implements RedisCodec<K, V>, ToByteBufEncoder<K, V> {
+
+    private static final byte MARKER = (byte) 0xFF;
+    private static final byte RAW = 0;
+    private static final byte DICTIONARY = 3;
+    private static final int RAW_HEADER_LENGTH = 2;
+    private static final int COMPRESSED_HEADER_LENGTH = 6;
+    private static final int DICTIONARY_HEADER_LENGTH = 14;
+
+    private final RedisCodec<K, V> delegate;
+    private final Map<CompressionAlgorithm, DistributionSummary> ratios = new EnumMap<>(CompressionAlgorithm.class);
+    private final Map<CompressionAlgorithm, Timer> compressTimers = new EnumMap<>(CompressionAlgorithm.class);
+    private final Map<CompressionAlgorithm, Timer> decompressTimers = new EnumMap<>(CompressionAlgorithm.class);
+    private final DistributionSummary dictionaryRatio;
+    private final Timer dictionaryCompressTimer;
+    private final Timer dictionaryDecompressTimer;
+    private final Counter skipped;
+    private final DecodingCodec decodingCodec = new DecodingCodec();
+
+    private volatile int threshold;
+    private volatile CompressionAlgorithm algorithm = CompressionAlgorithm.DEFLATE;
+    private final Map<String, CompressionDictionary> dictionaries = new ConcurrentHashMap<>();
+    private volatile CompressionDictionary dictionary;
+    private volatile boolean dictionaryEncoding;
+
+    /**
+     * 只解码、不压缩，调用{@link #enable(int, CompressionAlgorithm)}后开始压缩
+     */
+    public CompressionCodec(RedisCodec<K, V> delegate) {
+        this.delegate = delegate;
+        for (CompressionAlgorithm value : CompressionAlgorithm.values()) {
+            String name = value.name().toLowerCase();
+            this.ratios.put(value, DistributionSummary.builder("supercode.redis.compression.ratio")
+                    .description("compressed size / original size")
+                    .tags("algorithm", name)
+                    .register(Metrics.globalRegistry));
+            this.compressTimers.put(value, Timer.builder("supercode.redis.compression.time")
+                    .description("time spent compressing or decompressing a value")
+                    .tags("algorithm", name, "op", "compress")
+                    .register(Metrics.globalRegistry));
+            this.decompressTimers.put(value, Timer.builder("supercode.redis.compression.time")
+                    .description("time spent compressing or decompressing a value")
+                    .tags("algorithm", name, "op", "decompress")
+                    .register(Metrics.globalRegistry));
+        }
+        this.dictionaryRatio = DistributionSummary.builder("supercode.redis.compression.ratio")
+                .description("compressed size / original size")
+                .tags("algorithm", "dictionary")
+                .register(Metrics.globalRegistry);
+        this.dictionaryCompressTimer = Timer.builder("supercode.redis.compression.time")
+                .description("time spent compressing or decompressing a value")
+                .tags("algorithm", "dictionary", "op", "compress")
+                .register(Metrics.globalRegistry);
+        this.dictionaryDecompressTimer = Timer.builder("supercode.redis.compression.time")
+                .description("time spent compressing or decompressing a value")
+                .tags("algorithm", "dictionary", "op", "decompress")
+                .register(Metrics.globalRegistry);
+        this.skipped = Metrics.counter("supercode.redis.compression.skipped");
+    }
+
+    public CompressionCodec(RedisCodec<K, V> delegate, int threshold, CompressionAlgorithm algorithm) {
+        this(delegate);
+        this.enable(threshold, algorithm);
+    }
+
+    /**
+     * @param threshold 编码后达到该字节数的value才压缩
+     */
+    public void enable(int threshold, CompressionAlgorithm algorithm) {
+        if (threshold <= COMPRESSED_HEADER_LENGTH) {
+            throw new IllegalArgumentException("compression threshold must be greater than " + COMPRESSED_HEADER_LENGTH);
+        }
+        algorithm.ensureAvailable();
+        this.algorithm = algorithm;
+        this.threshold = threshold;
+    }
+
+    /**
+     * 停止压缩新写入的value，已压缩的value仍然可以读出
+     */
+    public void disable() {
+        this.threshold = 0;
+    }
+
+    /**
+     * 使用字典压缩小value，之前使用的其他名字的字典继续保留用于读取；替换掉同名的字典实例时返回旧实例，由调用方关闭
+     *
+     * @throws IllegalArgumentException 与已有的其他名字的字典哈希相同，value头部无法区分，需要换一个名字
+     */
+    public CompressionDictionary enableDictionary(CompressionDictionary dictionary) {
+        for (CompressionDictionary existing : this.dictionaries.values()) {
+            if (existing.getNameHash() == dictionary.getNameHash() && !existing.getName().equals(dictionary.getName())) {
+                throw new IllegalArgumentException("dictionary name " + dictionary.getName() + " has the same hash as " + existing.getName());
+            }
+        }
+        CompressionDictionary previous = this.dictionaries.put(dictionary.getName(), dictionary);
+        this.dictionary = dictionary;
+        this.dictionaryEncoding = true;
+        return previous == dictionary ? null : previous;
+    }
+
+    /**
+     * 停止使用字典压缩新写入的value，字典仍然保留用于读取
+     */
+    public void disableDictionary() {
+        this.dictionaryEncoding = false;
+    }
+
+    public CompressionDictionary getDictionary() {
+        return this.dictionary;
+    }
+
+    public CompressionDictionary getDictionary(String name) {
+        return this.dictionaries.get(name);
+    }
+
+    /**
+     * 所有加载过的字典，包括当前用于压缩的字典
+     */
+    public Collection<CompressionDictionary> getDictionaries() {
+        return this.dictionaries.values();
+    }
+
+    public boolean isEnabled() {
+        return this.threshold > 0;
+    }
+
+    /**
+     * 是否会压缩写入的value(阈值压缩或字典压缩)
+     */
+    public boolean isCompressing() {
+        return this.threshold > 0 || this.dictionaryEncoding;
+    }
+
+    /**
+     * 与本codec共享压缩配置和字典、能解码所有压缩格式，但写入的value只做0xFF转义、从不压缩
+     */
+    public RedisCodec<K, V> decodeOnly() {
+        return this.decodingCodec;
+    }
+
+    public int getThreshold() {
+        return this.threshold;
+    }
+
+    public CompressionAlgorithm getAlgorithm() {
+        return this.algorithm;
+    }
+
+    @Override
+    public K decodeKey(ByteBuffer bytes) {
+        return this.delegate.decodeKey(bytes);
+    }
+
+    @Override
+    public V decodeValue(ByteBuffer bytes) {
+        int position = bytes.position();
+        if (bytes.remaining() < RAW_HEADER_LENGTH || bytes.get(position) != MARKER) {
+            return this.delegate.decodeValue(bytes);
+        }
+        byte format = bytes.get(position + 1);
+        if (format == RAW) {
+            bytes.position(position + RAW_HEADER_LENGTH);
+            return this.delegate.decodeValue(bytes);
+        }
+        if (format == DICTIONARY) {
+            return this.decodeDictionaryValue(bytes);
+        }
+        if (bytes.remaining() < COMPRESSED_HEADER_LENGTH) {
+            throw new RedisInfraException("truncated compressed value");
+        }
+        CompressionAlgorithm compression = CompressionAlgorithm.of(format);
+        ByteBuffer source = bytes.duplicate();
+        source.position(position + COMPRESSED_HEADER_LENGTH);
+        ByteBuffer target = ByteBuffer.allocate(bytes.getInt(position + RAW_HEADER_LENGTH));
+        long start = System.nanoTime();
+        compression.decompress(source, target);
+        this.decompressTimers.get(compression).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        target.flip();
+        bytes.position(bytes.limit());
+        return this.delegate.decodeValue(target);
+    }
+
+    @Override
+    public ByteBuffer encodeKey(K key) {
+        return this.delegate.encodeKey(key);
+    }
+
+    @Override
+    public ByteBuffer encodeValue(V value) {
+        ByteBuffer encoded = this.delegate.encodeValue(value);
+        int threshold = this.threshold;
+        if (threshold > 0 && encoded.remaining() >= threshold) {
+            ByteBuffer compressed = this.compress(encoded, this.algorithm);
+            if (compressed != null) {
+                return compressed;
+            }
+        } else if (this.dictionaryEncoding) {
+            CompressionDictionary dictionary = this.dictionary;
+            if (dictionary != null && encoded.remaining() >= dictionary.getMinBytes()) {
+                ByteBuffer compressed = this.compressWithDictionary(encoded, dictionary);
+                if (compressed != null) {
+                    return compressed;
+                }
+            }
+        }
+        return escape(encoded);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void encodeKey(K key, ByteBuf target) {
+        if (this.delegate instanceof ToByteBufEncoder) {
+            ((ToByteBufEncoder<K, V>) this.delegate).encodeKey(key, target);
+        } else {
+            target.writeBytes(this.delegate.encodeKey(key));
+        }
+    }
+
+    /**
+     * 未开启压缩时直接由delegate写入Netty缓冲区，与不使用本codec时的开销一致
+     */
+    @Override
+    public void encodeValue(V value, ByteBuf target) {
+        if (this.isCompressing() || !(this.delegate instanceof ToByteBufEncoder)) {
+            target.writeBytes(this.encodeValue(value));
+            return;
+        }
+        this.decodingCodec.encodeValue(value, target);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int estimateSize(Object keyOrValue) {
+        return this.delegate instanceof ToByteBufEncoder ? ((ToByteBufEncoder<K, V>) this.delegate).estimateSize(keyOrValue) : 0;
+    }
+
+    /**
+     * 压缩后没有变小时返回null
+     */
+    private ByteBuffer compress(ByteBuffer encoded, CompressionAlgorithm compression) {
+        int length = encoded.remaining();
+        ByteBuffer target = ByteBuffer.allocate(length);
+        target.put(MARKER).put(compression.getFormat()).putInt(length);
+        long start = System.nanoTime();
+        int written = compression.compress(encoded.duplicate(), target);
+        this.compressTimers.get(compression).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (written < 0) {
+            this.skipped.increment();
+            return null;
+        }
+        this.ratios.get(compression).record((double) (written + COMPRESSED_HEADER_LENGTH) / length);
+        target.flip();
+        return target;
+    }
+
+    /**
+     * 还没有训练出字典或者压缩后没有变小时返回null
+     */
+    private ByteBuffer compressWithDictionary(ByteBuffer encoded, CompressionDictionary dictionary) {
+        dictionary.sample(encoded);
+        CompressionDictionary.Version version = dictionary.current();
+        if (version == null) {
+            return null;
+        }
+        int length = encoded.remaining();
+        ByteBuffer target = ByteBuffer.allocate(length);
+        target.put(MARKER).put(DICTIONARY).putInt(dictionary.getNameHash()).putInt(version.id).putInt(length);
+        long start = System.nanoTime();
+        int written = dictionary.compress(encoded.duplicate(), target, version);
+        this.dictionaryCompressTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (written < 0) {
+            this.skipped.increment();
+            return null;
+        }
+        this.dictionaryRatio.record((double) (written + DICTIONARY_HEADER_LENGTH) / length);
+        target.flip();
+        return target;
+    }
+
+    private V decodeDictionaryValue(ByteBuffer bytes) {
+        int position = bytes.position();
+        if (bytes.remaining() < DICTIONARY_HEADER_LENGTH) {
+            throw new RedisInfraException("truncated dictionary compressed value");
+        }
+        int nameHash = bytes.getInt(position + RAW_HEADER_LENGTH);
+        int id = bytes.getInt(position + 6);
+        CompressionDictionary dictionary = null;
+        for (CompressionDictionary candidate : this.dictionaries.values()) {
+            if (candidate.getNameHash() == nameHash) {
+                dictionary = candidate;
+                break;
+            }
+        }
+        if (dictionary == null) {
+            throw new RedisInfraException(String.format("value is compressed with dictionary %08x which is not enabled, "
+                    + "enable the compression dictionary it was written with", nameHash));
+        }
+        CompressionDictionary.Version version = dictionary.lookup(id);
+        if (version == null) {
+            // 可能是其他实例刚训练出的新版本
+            dictionary.requestRefresh();
+            throw new RedisInfraException(String.format("value is compressed with version %d of dictionary %s which is not loaded yet",
+                    id, dictionary.getName()));
+        }
+        ByteBuffer source = bytes.duplicate();
+        source.position(position + DICTIONARY_HEADER_LENGTH);
+        ByteBuffer target = ByteBuffer.allocate(bytes.getInt(position + 10));
+        long start = System.nanoTime();
+        dictionary.decompress(source, target, version);
+        this.dictionaryDecompressTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        target.flip();
+        bytes.position(bytes.limit());
+        return this.delegate.decodeValue(target);
+    }
+
+    /**
+     * 见{@link #decodeOnly()}
+     */
+    private final class DecodingCodec implements RedisCodec<K, V>, ToByteBufEncoder<K, V> {
+
+        @Override
+        public K decodeKey(ByteBuffer bytes) {
+            return CompressionCodec.this.decodeKey(bytes);
+        }
+
+        @Override
+        public V decodeValue(ByteBuffer bytes) {
+            return CompressionCodec.this.decodeValue(bytes);
+        }
+
+        @Override
+        public ByteBuffer encodeKey(K key) {
+            return CompressionCodec.this.encodeKey(key);
+        }
+
+        @Override
+        public ByteBuffer encodeValue(V value) {
+            return escape(CompressionCodec.this.delegate.encodeValue(value));
+        }
+
+        @Override
+        public void encodeKey(K key, ByteBuf target) {
+            CompressionCodec.this.encodeKey(key, target);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void encodeValue(V value, ByteBuf target) {
+            RedisCodec<K, V> delegate = CompressionCodec.this.delegate;
+            if (!(delegate instanceof ToByteBufEncoder)) {
+                target.writeBytes(this.encodeValue(value));
+                return;
+            }
+            int start = target.writerIndex();
+            ((ToByteBufEncoder<K, V>) delegate).encodeValue(value, target);
+            if (target.writerIndex() > start && target.getByte(start) == MARKER) {
+                byte[] raw = new byte[target.writerIndex() - start];
+                target.getBytes(start, raw);
+                target.writerIndex(start);
+                target.writeByte(MARKER).writeByte(RAW).writeBytes(raw);
+            }
+        }
+
+        @Override
+        public int estimateSize(Object keyOrValue) {
+            return CompressionCodec.this.estimateSize(keyOrValue);
+        }
+    }
+
+    private static ByteBuffer escape(ByteBuffer encoded) {
+        if (!encoded.hasRemaining() || encoded.get(encoded.position()) != MARKER) {
+            return encoded;
+        }
+        ByteBuffer escaped = ByteBuffer.allocate(encoded.remaining() + RAW_HEADER_LENGTH);
+        escaped.put(MARKER).put(RAW).put(encoded);
+        escaped.flip();
+        return escaped;
+    }
+}
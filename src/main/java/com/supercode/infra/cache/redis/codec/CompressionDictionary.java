@@ -0,0 +1,363 @@
+package com.supercode.infra.cache.redis.codec;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.client.SupercodeRedisCodecClient;
+import io.lettuce.core.KeyValue;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 小value的字典压缩：从写入的value中抽样训练Deflate预置字典，按版本存入Redis并缓存在本地
+ * <p>
+ * 字典存储在 supercode:dict:{name}:{id}，当前版本号在 supercode:dict:{name}:current，旧版本永不删除，
+ * 因此任意版本压缩的value都可以读出。同名的多个实例共享字典，后台定期同步其他实例训练出的新版本。
+ * <p>
+ * 抽样、训练、读写Redis都不在Lettuce的事件循环线程中进行：事件循环线程只拷贝抽样的value，
+ * 解码时遇到本地没有的字典版本会抛出异常并在后台加载，不会阻塞事件循环。
+ * <p>
+ * 压缩后的value在头部记录字典名的哈希与版本号，版本号由Redis中的计数器分配、同名字典内唯一，解码时按名字和版本号精确查找字典，
+ * 找不到时直接失败；解压后还会校验长度与压缩流是否恰好结束，数据损坏时抛出异常而不是返回错误的数据。
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class CompressionDictionary implements Closeable {
+
+    private static final String KEY_PREFIX = "supercode:dict:{";
+    private static final int GRAM = 8;
+
+    private final String name;
+    private final int nameHash;
+    private final int minBytes;
+    private final SupercodeRedisCodecClient<String, byte[]> codecClient;
+    private final Map<Integer, Version> versions = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(() -> new Deflater(RedisClientConstant.DICTIONARY_DEFLATE_LEVEL, true));
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+    private final List<byte[]> samples = new ArrayList<>();
+    private final AtomicLong seen = new AtomicLong();
+    private final AtomicBoolean training = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private volatile Version current;
+    private volatile boolean sampling;
+
+    /**
+     * @param name     字典名，同一类结构相同的value使用同一个名字
+     * @param minBytes 编码后达到该字节数的value才使用字典压缩，不能小于DICTIONARY_MIN_BYTES
+     */
+    public CompressionDictionary(SupercodeRedisClient<?, ?> supercodeRedisClient, String name, int minBytes) {
+        if (minBytes < RedisClientConstant.DICTIONARY_MIN_BYTES) {
+            throw new IllegalArgumentException("dictionary minBytes must be at least " + RedisClientConstant.DICTIONARY_MIN_BYTES);
+        }
+        this.name = name;
+        this.nameHash = name.hashCode();
+        this.minBytes = minBytes;
+        this.codecClient = supercodeRedisClient.withCodec(SupercodeRedisClient.BYTE_ARRAY_CODEC);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "supercode-redis-dictionary-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.refresh();
+        this.sampling = this.current == null;
+        this.scheduler.scheduleWithFixedDelay(this::refreshQuietly, RedisClientConstant.DICTIONARY_REFRESH_MILLIS,
+                RedisClientConstant.DICTIONARY_REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * 写入value头部的字典名哈希，String.hashCode的算法是固定的，各实例计算结果一致
+     */
+    public int getNameHash() {
+        return this.nameHash;
+    }
+
+    public int getMinBytes() {
+        return this.minBytes;
+    }
+
+    /**
+     * 当前用于压缩的字典版本，0表示还没有字典
+     */
+    public int getCurrentId() {
+        Version version = this.current;
+        return version == null ? 0 : version.id;
+    }
+
+    /**
+     * 当前用于压缩的字典版本，还没有字典时返回null
+     */
+    Version current() {
+        return this.current;
+    }
+
+    /**
+     * 按版本号查找已加载的版本
+     */
+    Version lookup(int id) {
+        return this.versions.get(id);
+    }
+
+    /**
+     * 解码时遇到未加载的字典，在后台同步Redis中的版本
+     */
+    void requestRefresh() {
+        try {
+            this.scheduler.execute(this::refreshQuietly);
+        } catch (RejectedExecutionException ex) {
+            log.debug("CompressionDictionary is closed. name is {}", this.name);
+        }
+    }
+
+    /**
+     * 丢弃已有的抽样重新收集并训练新版本，适用于value结构发生变化之后
+     */
+    public void retrain() {
+        synchronized (this.samples) {
+            this.samples.clear();
+        }
+        this.sampling = true;
+    }
+
+    /**
+     * 在事件循环线程中调用，按DICTIONARY_SAMPLE_RATE抽样拷贝value，攒够后在后台训练
+     */
+    void sample(ByteBuffer encoded) {
+        if (!this.sampling || this.seen.incrementAndGet() % RedisClientConstant.DICTIONARY_SAMPLE_RATE != 0) {
+            return;
+        }
+        byte[] copy = new byte[encoded.remaining()];
+        encoded.duplicate().get(copy);
+        synchronized (this.samples) {
+            if (this.samples.size() >= RedisClientConstant.DICTIONARY_SAMPLE_COUNT) {
+                return;
+            }
+            this.samples.add(copy);
+            if (this.samples.size() < RedisClientConstant.DICTIONARY_SAMPLE_COUNT) {
+                return;
+            }
+        }
+        this.sampling = false;
+        if (this.training.compareAndSet(false, true)) {
+            this.scheduler.execute(this::train);
+        }
+    }
+
+    /**
+     * 使用指定版本的字典压缩，写入header之后的部分，target剩余空间不足时返回-1
+     */
+    int compress(ByteBuffer source, ByteBuffer target, Version version) {
+        Deflater deflater = this.deflaters.get();
+        deflater.reset();
+        deflater.setDictionary(version.bytes);
+        deflater.setInput(source);
+        deflater.finish();
+        int start = target.position();
+        while (!deflater.finished()) {
+            if (!target.hasRemaining()) {
+                return -1;
+            }
+            deflater.deflate(target);
+        }
+        return target.position() - start;
+    }
+
+    /**
+     * 解压到target，解出的数据必须恰好填满target且压缩流恰好结束，否则说明数据损坏
+     */
+    void decompress(ByteBuffer source, ByteBuffer target, Version version) {
+        Inflater inflater = this.inflaters.get();
+        inflater.reset();
+        inflater.setDictionary(version.bytes);
+        inflater.setInput(source);
+        boolean overflow;
+        try {
+            while (target.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(target) == 0 && inflater.needsInput()) {
+                    throw new RedisInfraException("truncated dictionary compressed value");
+                }
+            }
+            // 原始长度已经填满时压缩流可能还差结束标记，再解一个字节确认没有多余的数据
+            overflow = !inflater.finished() && inflater.inflate(new byte[1]) > 0;
+        } catch (DataFormatException ex) {
+            throw new RedisInfraException("corrupted dictionary compressed value", ex);
+        }
+        if (overflow || target.hasRemaining() || !inflater.finished() || inflater.getRemaining() != 0) {
+            throw new RedisInfraException(String.format("dictionary compressed value does not match its length, name is %s id is %d",
+                    this.name, version.id));
+        }
+    }
+
+    private void train() {
+        try {
+            List<byte[]> trainingSamples;
+            synchronized (this.samples) {
+                trainingSamples = new ArrayList<>(this.samples);
+                this.samples.clear();
+            }
+            byte[] dictionary = train(trainingSamples, RedisClientConstant.DICTIONARY_MAX_BYTES);
+            if (dictionary.length == 0) {
+                log.warn("CompressionDictionary.train found nothing in common. name is {} samples is {}", this.name, trainingSamples.size());
+                return;
+            }
+            long id = this.codecClient.sync(cmd -> cmd.incr(this.key("seq")));
+            this.codecClient.set(this.key(String.valueOf(id)), dictionary);
+            this.codecClient.set(this.key("current"), String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+            Version version = new Version((int) id, dictionary);
+            this.versions.put(version.id, version);
+            this.current = version;
+            log.info("CompressionDictionary.train name is {} id is {} size is {} samples is {}", this.name, id, dictionary.length, trainingSamples.size());
+        } catch (Exception ex) {
+            log.error("CompressionDictionary.train error. name is {}", this.name, ex);
+        } finally {
+            this.training.set(false);
+        }
+    }
+
+    /**
+     * 加载Redis中的当前版本以及本地缺少的旧版本
+     */
+    private void refresh() {
+        byte[] current = this.codecClient.get(this.key("current"));
+        if (current == null) {
+            return;
+        }
+        int id = Integer.parseInt(new String(current, StandardCharsets.UTF_8));
+        List<String> missing = new ArrayList<>();
+        for (int i = 1; i <= id; i++) {
+            if (!this.versions.containsKey(i)) {
+                missing.add(this.key(String.valueOf(i)));
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (KeyValue<String, byte[]> kv : this.codecClient.mget(missing.toArray(new String[0]))) {
+                if (kv.hasValue()) {
+                    String key = kv.getKey();
+                    int version = Integer.parseInt(key.substring(key.lastIndexOf(':') + 1));
+                    this.versions.put(version, new Version(version, kv.getValue()));
+                }
+            }
+        }
+        Version latest = this.versions.get(id);
+        if (latest != null && id > this.getCurrentId()) {
+            this.current = latest;
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            this.refresh();
+        } catch (Exception ex) {
+            log.warn("CompressionDictionary.refresh error. name is {}", this.name, ex);
+        }
+    }
+
+    private String key(String suffix) {
+        return KEY_PREFIX + this.name + "}:" + suffix;
+    }
+
+    /**
+     * 从抽样中提取多数value共有的片段拼成预置字典
+     * <p>
+     * 先统计每个8字节片段出现在多少个抽样中，把每个抽样里连续的高频片段合并成候选片段，
+     * 再按 出现次数*长度 从高到低挑选、跳过已被字典包含的片段，直到字典写满。
+     * Deflate对离当前位置越近的字典内容编码越短，因此价值最高的片段放在字典末尾。
+     */
+    static byte[] train(List<byte[]> samples, int maxBytes) {
+        Map<Long, Integer> grams = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<Long> distinct = new HashSet<>();
+            for (int i = 0; i + GRAM <= sample.length; i++) {
+                distinct.add(gram(sample, i));
+            }
+            distinct.forEach(gram -> grams.merge(gram, 1, Integer::sum));
+        }
+        int minCount = Math.max(2, samples.size() / 10);
+
+        Map<String, Integer> fragments = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<String> distinct = new HashSet<>();
+            int start = -1;
+            for (int i = 0; i + GRAM <= sample.length; i++) {
+                boolean frequent = grams.getOrDefault(gram(sample, i), 0) >= minCount;
+                if (frequent && start < 0) {
+                    start = i;
+                } else if (!frequent && start >= 0) {
+                    distinct.add(new String(sample, start, i - 1 + GRAM - start, StandardCharsets.ISO_8859_1));
+                    start = -1;
+                }
+            }
+            if (start >= 0) {
+                distinct.add(new String(sample, start, sample.length - start, StandardCharsets.ISO_8859_1));
+            }
+            distinct.forEach(fragment -> fragments.merge(fragment, 1, Integer::sum));
+        }
+
+        List<Map.Entry<String, Integer>> candidates = new ArrayList<>(fragments.entrySet());
+        candidates.sort((a, b) -> Long.compare((long) b.getValue() * b.getKey().length(), (long) a.getValue() * a.getKey().length()));
+        List<String> selected = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, Integer> candidate : candidates) {
+            String fragment = candidate.getKey();
+            if (candidate.getValue() < minCount || content.length() + fragment.length() > maxBytes) {
+                continue;
+            }
+            if (content.indexOf(fragment) >= 0) {
+                continue;
+            }
+            selected.add(fragment);
+            content.append(fragment);
+        }
+        StringBuilder dictionary = new StringBuilder(content.length());
+        for (int i = selected.size() - 1; i >= 0; i--) {
+            dictionary.append(selected.get(i));
+        }
+        return dictionary.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static long gram(byte[] bytes, int offset) {
+        long gram = 0;
+        for (int i = 0; i < GRAM; i++) {
+            gram = (gram << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return gram;
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+    }
+
+    static final class Version {
+        final int id;
+        final byte[] bytes;
+
+        private Version(int id, byte[] bytes) {
+            this.id = id;
+            this.bytes = bytes;
+        }
+    }
+}
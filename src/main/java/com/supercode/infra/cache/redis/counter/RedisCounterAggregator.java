@@ -0,0 +1,342 @@
+package com.supercode.infra.cache.redis.counter;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.utils.MetricUtils;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 计数器的本地聚合(write-behind)：INCRBY/HINCRBY先累加在本地的LongAdder中，定期或者累计次数达到阈值后
+ * 以管道批量写入Redis，适用于不要求每次自增都持久化的统计类计数
+ * <p>
+ * 自增不加锁：累加写入当前代(generation)，flush时切换到新一代，等待仍在写旧一代的线程退出后再读取旧一代的增量，
+ * 因此不会丢失并发的自增。集群模式下管道中的命令按slot路由到各节点的连接上，flush时各节点并行写出。
+ * <p>
+ * 内存有上限：一代中的key数量达到maxKeys后，新的key直接同步写入Redis并唤醒flush。
+ * 确定没有生效的增量中，没有发出的以及被Redis以临时错误(LOADING、TRYAGAIN等)拒绝的会合并回当前代，下次重试；
+ * 以其他错误(WRONGTYPE等)拒绝的重试也不会成功，直接丢弃并记为dropped；管道超时等情况下已经发出但结果未知的增量
+ * 不再重试(重试可能重复计数)，记为unknown并打印日志。close时(包括{@link SupercodeRedisClient#close()})会做最后一次flush。
+ * <p>
+ * 指标：
+ * supercode.redis.aggregator.lag          一代中第一次自增到写入Redis完成的时间
+ * supercode.redis.aggregator.flush        每次flush的耗时，result标签区分成功/失败
+ * supercode.redis.aggregator.keys         每次flush写入的key数量
+ * supercode.redis.aggregator.writethrough 超出内存上限直接写入Redis的次数
+ * supercode.redis.aggregator.unknown      已经发出但不知道是否生效、不再重试的增量个数
+ * supercode.redis.aggregator.dropped      被Redis以非临时错误拒绝、直接丢弃的增量个数
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class RedisCounterAggregator implements Closeable {
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final long intervalMillis;
+    private final long flushThreshold;
+    private final int maxKeys;
+    private final Thread flusher;
+    private final Object signal = new Object();
+    private final Timer lag;
+    private final Counter writeThrough;
+    private final Counter unknown;
+    private final Counter dropped;
+    private volatile Generation current = new Generation();
+    private volatile boolean running = true;
+
+    /**
+     * @param interval       定期flush的间隔
+     * @param flushThreshold 累计的自增次数达到该值时提前flush
+     * @param maxKeys        本地最多聚合的key(或key+field)数量
+     */
+    public RedisCounterAggregator(SupercodeRedisClient<?, ?> supercodeRedisClient, Duration interval, long flushThreshold, int maxKeys) {
+        if (interval.toMillis() <= 0 || flushThreshold <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("interval, flushThreshold and maxKeys must be positive");
+        }
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.intervalMillis = interval.toMillis();
+        this.flushThreshold = flushThreshold;
+        this.maxKeys = maxKeys;
+        this.lag = Timer.builder("supercode.redis.aggregator.lag")
+                .description("time from the first buffered increment to its flush")
+                .register(Metrics.globalRegistry);
+        this.writeThrough = Metrics.counter("supercode.redis.aggregator.writethrough");
+        this.unknown = Metrics.counter("supercode.redis.aggregator.unknown");
+        this.dropped = Metrics.counter("supercode.redis.aggregator.dropped");
+        this.flusher = new Thread(this::runLoop, "supercode-redis-counter-aggregator");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 累加到String计数器，稍后以INCRBY写入
+     */
+    public void incrby(String key, long delta) {
+        this.add(new CounterKey(key, null), delta);
+    }
+
+    /**
+     * 累加到Hash的field，稍后以HINCRBY写入
+     */
+    public void hincrby(String key, String field, long delta) {
+        this.add(new CounterKey(key, field), delta);
+    }
+
+    /**
+     * 当前代中等待flush的key数量
+     */
+    public int pendingKeys() {
+        return this.current.counters.size();
+    }
+
+    private void add(CounterKey counterKey, long delta) {
+        if (!this.running) {
+            this.write(counterKey, delta);
+            return;
+        }
+        for (; ; ) {
+            Generation generation = this.current;
+            generation.writers.increment();
+            try {
+                if (generation != this.current) {
+                    continue;
+                }
+                LongAdder adder = generation.counters.get(counterKey);
+                if (adder == null) {
+                    if (generation.counters.size() >= this.maxKeys) {
+                        this.writeThrough.increment();
+                        this.wakeUp();
+                        this.write(counterKey, delta);
+                        return;
+                    }
+                    adder = generation.counters.computeIfAbsent(counterKey, k -> new LongAdder());
+                }
+                adder.add(delta);
+                generation.firstWriteNanos.compareAndSet(0, System.nanoTime());
+                generation.increments.increment();
+            } finally {
+                generation.writers.decrement();
+            }
+            if (!this.running) {
+                // close已经做过最后一次flush，补写关闭过程中进入新一代的增量
+                this.flush();
+            } else if (generation.increments.sum() >= this.flushThreshold) {
+                this.wakeUp();
+            }
+            return;
+        }
+    }
+
+    private void write(CounterKey counterKey, long delta) {
+        if (counterKey.field == null) {
+            supercodeRedisClient.redisStringCmd().incrby(counterKey.key, delta);
+        } else {
+            supercodeRedisClient.redisHashCmd().hincrby(counterKey.key, counterKey.field, delta);
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (this.signal) {
+            this.signal.notifyAll();
+        }
+    }
+
+    private void runLoop() {
+        while (this.running) {
+            try {
+                synchronized (this.signal) {
+                    if (this.current.increments.sum() < this.flushThreshold) {
+                        this.signal.wait(this.intervalMillis);
+                    }
+                }
+                this.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("RedisCounterAggregator.runLoop error.", e);
+            }
+        }
+    }
+
+    /**
+     * 切换到新一代并把旧一代的增量写入Redis
+     */
+    public synchronized void flush() {
+        Generation previous = this.current;
+        if (previous.counters.isEmpty()) {
+            return;
+        }
+        this.current = new Generation();
+        // 等待切换前进入旧一代的写线程完成累加
+        while (previous.writers.sum() != 0) {
+            Thread.onSpinWait();
+        }
+
+        List<CounterKey> keys = new ArrayList<>(previous.counters.size());
+        List<Long> deltas = new ArrayList<>(previous.counters.size());
+        for (Map.Entry<CounterKey, LongAdder> entry : previous.counters.entrySet()) {
+            long delta = entry.getValue().sum();
+            if (delta != 0) {
+                keys.add(entry.getKey());
+                deltas.add(delta);
+            }
+        }
+        long start = System.currentTimeMillis();
+        boolean success = true;
+        for (int from = 0; from < keys.size(); from += RedisClientConstant.AGGREGATOR_FLUSH_BATCH) {
+            int to = Math.min(from + RedisClientConstant.AGGREGATOR_FLUSH_BATCH, keys.size());
+            success &= this.flushBatch(keys.subList(from, to), deltas.subList(from, to));
+        }
+        MetricUtils.recordTime("supercode.redis.aggregator.flush", "time spent flushing aggregated counters",
+                Duration.ofMillis(System.currentTimeMillis() - start), "result", success ? "success" : "failure");
+        Metrics.summary("supercode.redis.aggregator.keys").record(keys.size());
+        this.lag.record(System.nanoTime() - previous.firstWriteNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 按每条命令的结果处理：没有发出的命令以及被Redis以临时错误拒绝的命令一定没有生效，增量合并回当前代；
+     * 以其他错误拒绝的命令重试也不会成功，丢弃增量；管道超时或者连接断开时已经发出、结果未知的命令可能已经生效，不再重试
+     *
+     * @return 所有命令都写入成功时返回true
+     */
+    private boolean flushBatch(List<CounterKey> keys, List<Long> deltas) {
+        boolean success = true;
+        List<CompletableFuture<Long>> futures = new ArrayList<>(keys.size());
+        try {
+            supercodeRedisClient.pipeline(p -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    CounterKey counterKey = keys.get(i);
+                    if (counterKey.field == null) {
+                        futures.add(p.redisStringCmd().incrby(counterKey.key, deltas.get(i)));
+                    } else {
+                        futures.add(p.redisHashCmd().hincrby(counterKey.key, counterKey.field, deltas.get(i)));
+                    }
+                }
+            });
+        } catch (Exception ex) {
+            log.error("RedisCounterAggregator.flush error. keys is {} dispatched is {}", keys.size(), futures.size(), ex);
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            if (i >= futures.size()) {
+                // 没有进入管道
+                this.restore(keys.get(i), deltas.get(i));
+                success = false;
+                continue;
+            }
+            CompletableFuture<Long> future = futures.get(i);
+            if (!future.isDone()) {
+                this.markUnknown(keys.get(i), deltas.get(i), null);
+                success = false;
+                continue;
+            }
+            Throwable failure = failure(future);
+            if (failure instanceof RedisCommandExecutionException && isRetryable(failure)) {
+                log.warn("RedisCounterAggregator.flush rejected for key {}, will retry", keys.get(i).key, failure);
+                this.restore(keys.get(i), deltas.get(i));
+            } else if (failure instanceof RedisCommandExecutionException) {
+                this.dropped.increment();
+                log.error("RedisCounterAggregator.flush rejected, the delta is dropped. key is {} field is {} delta is {}",
+                        keys.get(i).key, keys.get(i).field, deltas.get(i), failure);
+            } else if (failure != null) {
+                this.markUnknown(keys.get(i), deltas.get(i), failure);
+            }
+            success &= failure == null;
+        }
+        return success;
+    }
+
+    private static boolean isRetryable(Throwable failure) {
+        String message = failure.getMessage();
+        return message != null && RedisClientConstant.AGGREGATOR_RETRYABLE_ERRORS.stream().anyMatch(message::startsWith);
+    }
+
+    private void markUnknown(CounterKey counterKey, long delta, Throwable failure) {
+        this.unknown.increment();
+        log.error("RedisCounterAggregator.flush result unknown, the delta is not retried. key is {} field is {} delta is {}",
+                counterKey.key, counterKey.field, delta, failure);
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) {
+        try {
+            future.getNow(null);
+            return null;
+        } catch (CompletionException ex) {
+            return ex.getCause() != null ? ex.getCause() : ex;
+        } catch (CancellationException ex) {
+            return ex;
+        }
+    }
+
+    /**
+     * 写入失败的增量合并回当前代，不受maxKeys限制，避免丢失
+     */
+    private void restore(CounterKey counterKey, long delta) {
+        Generation generation = this.current;
+        generation.counters.computeIfAbsent(counterKey, k -> new LongAdder()).add(delta);
+        generation.firstWriteNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        this.wakeUp();
+        try {
+            this.flusher.join(RedisClientConstant.PIPELINE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+    }
+
+    private static final class Generation {
+        private final Map<CounterKey, LongAdder> counters = new ConcurrentHashMap<>();
+        private final LongAdder writers = new LongAdder();
+        private final LongAdder increments = new LongAdder();
+        private final AtomicLong firstWriteNanos = new AtomicLong();
+    }
+
+    private static final class CounterKey {
+        private final String key;
+        private final String field;
+
+        private CounterKey(String key, String field) {
+            this.key = key;
+            this.field = field;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CounterKey)) {
+                return false;
+            }
+            CounterKey that = (CounterKey) o;
+            return key.equals(that.key) && Objects.equals(field, that.field);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, field);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.supercode.infra.cache.redis.counter;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.utils.MetricUtils;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 号段模式的分布式ID生成器：一次INCRBY step预留(max - step, max]这一段ID，本地无锁分配
+ * <p>
+ * 双缓冲：当前号段消耗到IDGEN_PREFETCH_RATIO时通过异步命令预取下一个号段，当前号段用完时直接切换，
+ * 只有预取还没返回时调用方才会等待；预取失败时同步重新预留一次，仍然失败才抛出异常。多个实例、多个生成器共用同一个key时ID仍然唯一，但不保证全局递增。
+ * <p>
+ * 自适应步长：按当前号段的消耗速度估算IDGEN_SEGMENT_MILLIS内需要的ID数量作为下一个号段的步长，
+ * 每次最多翻倍或减半，范围为[初始步长, IDGEN_MAX_STEP]。进程重启时未用完的号段会被跳过。
+ * <p>
+ * 指标：supercode.redis.idgen.wait 号段耗尽、等待预取结果的时间
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class RedisIdGenerator {
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final String key;
+    private final long minStep;
+    private volatile Segment current = new Segment(0, 0);
+    private volatile CompletableFuture<Segment> next;
+
+    /**
+     * @param key         存放已分配的最大ID的redis key
+     * @param initialStep 初始步长，同时也是最小步长
+     */
+    public RedisIdGenerator(SupercodeRedisClient<?, ?> supercodeRedisClient, String key, long initialStep) {
+        if (initialStep <= 0) {
+            throw new IllegalArgumentException("initialStep must be positive");
+        }
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.key = key;
+        this.minStep = initialStep;
+    }
+
+    public String getKey() {
+        return this.key;
+    }
+
+    /**
+     * 当前号段的步长
+     */
+    public long getStep() {
+        return this.current.step;
+    }
+
+    public long nextId() {
+        for (; ; ) {
+            Segment segment = this.current;
+            long id = segment.cursor.incrementAndGet();
+            if (id <= segment.max) {
+                if (id - segment.min() >= segment.step * RedisClientConstant.IDGEN_PREFETCH_RATIO) {
+                    this.prefetch(segment);
+                }
+                return id;
+            }
+            this.switchSegment(segment);
+        }
+    }
+
+    /**
+     * 每个号段只预取一次，步长按该号段的消耗速度计算
+     */
+    private void prefetch(Segment segment) {
+        if (!segment.prefetching.compareAndSet(false, true)) {
+            return;
+        }
+        long step = this.nextStep(segment);
+        this.next = supercodeRedisClient.async().redisStringCmd().incrby(this.key, step)
+                .thenApply(max -> new Segment(max, step));
+    }
+
+    private long nextStep(Segment segment) {
+        if (segment.step == 0) {
+            return this.minStep;
+        }
+        long consumed = Math.max(segment.cursor.get() - segment.min(), 1);
+        long elapsedMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - segment.createdNanos), 1);
+        long desired = consumed * RedisClientConstant.IDGEN_SEGMENT_MILLIS / elapsedMillis;
+        long step = Math.max(segment.step / 2, Math.min(segment.step * 2, desired));
+        return Math.max(this.minStep, Math.min(RedisClientConstant.IDGEN_MAX_STEP, step));
+    }
+
+    /**
+     * 当前号段用完时切换到预取的号段，预取还没返回时等待，预取失败时同步重新预留
+     */
+    private synchronized void switchSegment(Segment exhausted) {
+        if (this.current != exhausted) {
+            return;
+        }
+        this.prefetch(exhausted);
+        long start = System.nanoTime();
+        Segment segment;
+        try {
+            segment = this.next.get(RedisClientConstant.PIPELINE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RedisInfraException("interrupted while fetching the next id segment", ex);
+        } catch (ExecutionException ex) {
+            log.warn("RedisIdGenerator prefetch failed, fetching synchronously. key is {}", this.key, ex.getCause());
+            segment = this.fetch(exhausted, ex);
+        } catch (TimeoutException ex) {
+            // 下一次调用重新预取
+            exhausted.prefetching.set(false);
+            throw new RedisInfraException("failed to fetch the next id segment of " + this.key, ex);
+        } finally {
+            MetricUtils.recordTime("supercode.redis.idgen.wait", "time spent waiting for the next id segment",
+                    Duration.ofNanos(System.nanoTime() - start), "key", this.key);
+        }
+        this.next = null;
+        this.current = segment;
+        log.debug("RedisIdGenerator switch segment. key is {} max is {} step is {}", this.key, segment.max, segment.step);
+    }
+
+    /**
+     * 同步预留下一个号段，失败后由下一次调用重新预取；预取的INCRBY可能已经生效，重新预留最多跳过一段ID，不会重复
+     */
+    private Segment fetch(Segment exhausted, ExecutionException prefetchFailure) {
+        long step = this.nextStep(exhausted);
+        try {
+            return new Segment(supercodeRedisClient.redisStringCmd().incrby(this.key, step), step);
+        } catch (RuntimeException ex) {
+            ex.addSuppressed(prefetchFailure);
+            exhausted.prefetching.set(false);
+            throw new RedisInfraException("failed to fetch the next id segment of " + this.key, ex);
+        }
+    }
+
+    private static final class Segment {
+        private final long max;
+        private final long step;
+        private final AtomicLong cursor;
+        private final AtomicBoolean prefetching = new AtomicBoolean();
+        private final long createdNanos = System.nanoTime();
+
+        private Segment(long max, long step) {
+            this.max = max;
+            this.step = step;
+            this.cursor = new AtomicLong(max - step);
+        }
+
+        private long min() {
+            return this.max - this.step;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.supercode.infra.cache.redis.counter;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.redis.batch.RedisSingleFlight;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.utils.SlotUtils;
+import io.lettuce.core.KeyValue;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 分片计数器：把一个全局计数器拆成shards个分布在不同slot上的子key，自增随机落在其中一个子key上，
+ * 读取时通过跨slot的MGET(按节点并行)求和，避免单个分片成为热点
+ * <p>
+ * 第0个子key就是计数器的key本身，已有的计数值会被计入总数；子key的分布规则见{@link SlotUtils}。
+ * 分片数一旦使用不能减少，否则多出的子key不会再被统计。
+ * <p>
+ * 读取可以缓存一小段时间，缓存过期后并发的读取合并为一次MGET。
+ *
+ * @author jonathan.ji
+ */
+public class RedisShardedCounter {
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final String key;
+    private final String[] shardKeys;
+    private final long cacheNanos;
+    private final RedisSingleFlight singleFlight = new RedisSingleFlight(RedisShardedCounter.class.getSimpleName());
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param shards   子key的数量，建议不超过集群的主节点数，最多SHARDED_COUNTER_MAX_SHARDS个
+     * @param cacheTtl 读取结果的本地缓存时间，Duration.ZERO表示不缓存
+     */
+    public RedisShardedCounter(SupercodeRedisClient<?, ?> supercodeRedisClient, String key, int shards, Duration cacheTtl) {
+        if (shards < 1 || shards > RedisClientConstant.SHARDED_COUNTER_MAX_SHARDS) {
+            throw new IllegalArgumentException("shards must be between 1 and " + RedisClientConstant.SHARDED_COUNTER_MAX_SHARDS);
+        }
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.key = key;
+        this.shardKeys = SlotUtils.spreadKeys(key, shards);
+        this.cacheNanos = cacheTtl.toNanos();
+    }
+
+    public String getKey() {
+        return this.key;
+    }
+
+    public int getShards() {
+        return this.shardKeys.length;
+    }
+
+    public void incr() {
+        this.incrby(1);
+    }
+
+    /**
+     * 在随机的一个子key上自增，返回值只是该子key的值，总数请使用{@link #get()}
+     */
+    public long incrby(long amount) {
+        String shardKey = this.shardKeys[ThreadLocalRandom.current().nextInt(this.shardKeys.length)];
+        return supercodeRedisClient.redisStringCmd().incrby(shardKey, amount);
+    }
+
+    /**
+     * 所有子key的总和，缓存未过期时直接返回缓存的值
+     */
+    public long get() {
+        Snapshot current = this.snapshot;
+        if (current != null && System.nanoTime() - current.loadedAt < this.cacheNanos) {
+            return current.value;
+        }
+        return this.singleFlight.execute(this.key, this::load);
+    }
+
+    /**
+     * 跳过缓存读取所有子key的总和
+     */
+    public long getExact() {
+        return this.load();
+    }
+
+    /**
+     * 删除所有子key
+     */
+    public void reset() {
+        supercodeRedisClient.redisKeyCmd().del(this.shardKeys);
+        this.snapshot = null;
+    }
+
+    /**
+     * 设置所有子key的过期时间，子key在第一次自增时才会创建，请在自增之后调用
+     */
+    public void expire(long seconds) {
+        supercodeRedisClient.pipeline(p -> {
+            for (String shardKey : this.shardKeys) {
+                p.redisKeyCmd().expire(shardKey, seconds);
+            }
+        });
+    }
+
+    private long load() {
+        long sum = 0;
+        for (KeyValue<String, String> kv : supercodeRedisClient.redisStringCmd().mget(this.shardKeys)) {
+            if (kv.hasValue()) {
+                sum += Long.parseLong(kv.getValue());
+            }
+        }
+        this.snapshot = new Snapshot(sum, System.nanoTime());
+        return sum;
+    }
+
+    private static final class Snapshot {
+        private final long value;
+        private final long loadedAt;
+
+        private Snapshot(long value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.supercode.infra.cache.redis.hotkey;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.pojo.HotKey;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.protocol.CommandArgs;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 客户端热点key检测：按抽样率记录每条命令的第一个key，用Count-Min Sketch估计滑动窗口内的访问次数
+ * <p>
+ * 由客户端创建时注册的常驻CommandListener转发命令，同步命令(各个Cmd)、异步、响应式以及pipeline中的命令都会被记录，
+ * 包括开启检测之前建立的连接。
+ * 命令路径上只有一次随机数判断，命中抽样时解码key并对sketch做depth次原子自增，不加锁。
+ * 窗口被切分为HOTKEY_WINDOW_SLOTS个时间片，每个时间片一份sketch，过期的时间片在下一次写入时清零。
+ * <p>
+ * 估计次数达到阈值的key成为热点key，保留在候选集合中，每次切换时间片时重新估计、移除已经变冷的key；
+ * 候选集合按估计次数排出top-K。开启promote后近端缓存只缓存热点key。
+ * <p>
+ * 指标：
+ * supercode.redis.hotkey.detected{node} 新出现的热点key的次数
+ * supercode.redis.hotkey.max{node}      该节点上最热的key在窗口内的估计访问次数，{@link #close()}时移除，重新开启检测后绑定到新的实例
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class RedisHotKeyDetector implements CommandListener, Closeable {
+
+    private static final String STANDALONE = "standalone";
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final long slotMillis;
+    private final long threshold;
+    private final int topK;
+    private final boolean promote;
+    private final int width;
+    private final AtomicLongArray[] sketches;
+    private final AtomicLongArray slotEpochs;
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+    private final Set<String> hotKeys = ConcurrentHashMap.newKeySet();
+    private final Map<String, Counter> detected = new ConcurrentHashMap<>();
+    private final Map<String, Long> nodeMax = new ConcurrentHashMap<>();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final List<Meter> gauges = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * @param window    滑动窗口的长度
+     * @param threshold 窗口内估计访问次数达到该值的key视为热点key
+     * @param topK      查询以及每个节点保留的热点key数量
+     * @param promote   是否只把热点key放入近端缓存
+     */
+    public RedisHotKeyDetector(SupercodeRedisClient<?, ?> supercodeRedisClient, Duration window, long threshold, int topK, boolean promote) {
+        if (window.toMillis() < RedisClientConstant.HOTKEY_WINDOW_SLOTS || threshold <= 0 || topK <= 0) {
+            throw new IllegalArgumentException("window, threshold and topK must be positive");
+        }
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.slotMillis = window.toMillis() / RedisClientConstant.HOTKEY_WINDOW_SLOTS;
+        this.threshold = threshold;
+        this.topK = topK;
+        this.promote = promote;
+        this.width = RedisClientConstant.HOTKEY_SKETCH_WIDTH;
+        this.sketches = new AtomicLongArray[RedisClientConstant.HOTKEY_WINDOW_SLOTS];
+        for (int i = 0; i < this.sketches.length; i++) {
+            this.sketches[i] = new AtomicLongArray(SEEDS.length * this.width);
+        }
+        this.slotEpochs = new AtomicLongArray(RedisClientConstant.HOTKEY_WINDOW_SLOTS);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (this.closed || ThreadLocalRandom.current().nextInt(RedisClientConstant.HOTKEY_SAMPLE_RATE) != 0) {
+            return;
+        }
+        CommandArgs<?, ?> args = event.getCommand().getArgs();
+        ByteBuffer encodedKey = args == null ? null : args.getFirstEncodedKey();
+        if (encodedKey != null) {
+            this.record(StandardCharsets.UTF_8.decode(encodedKey.duplicate()).toString());
+        }
+    }
+
+    /**
+     * 记录一次抽样到的访问
+     */
+    public void record(String key) {
+        int slot = this.currentSlot(System.currentTimeMillis());
+        AtomicLongArray sketch = this.sketches[slot];
+        int hash = key.hashCode();
+        for (int row = 0; row < SEEDS.length; row++) {
+            sketch.incrementAndGet(row * this.width + this.index(hash, row));
+        }
+        long estimate = this.estimate(hash);
+        if (estimate < this.threshold) {
+            return;
+        }
+        if (this.candidates.put(key, estimate) == null) {
+            this.hotKeys.add(key);
+            String node = this.nodeOf(key);
+            this.detected.computeIfAbsent(node, n -> Metrics.counter("supercode.redis.hotkey.detected", "node", n)).increment();
+            log.info("RedisHotKeyDetector hot key detected. key is {} node is {} estimate is {}", key, node, estimate);
+            if (this.candidates.size() > this.topK * RedisClientConstant.HOTKEY_CANDIDATE_FACTOR) {
+                this.trim();
+            }
+        }
+    }
+
+    public boolean isHot(String key) {
+        return !this.closed && this.hotKeys.contains(key);
+    }
+
+    public boolean isPromote() {
+        return this.promote;
+    }
+
+    /**
+     * 当前窗口内估计访问次数最多的topK个热点key，从高到低
+     */
+    public List<HotKey> topKeys() {
+        List<HotKey> all = this.snapshot();
+        return all.size() > this.topK ? new ArrayList<>(all.subList(0, this.topK)) : all;
+    }
+
+    /**
+     * 按节点分组的热点key，每个节点最多topK个，从高到低
+     */
+    public Map<String, List<HotKey>> topKeysByNode() {
+        Map<String, List<HotKey>> byNode = new LinkedHashMap<>();
+        for (HotKey hotKey : this.snapshot()) {
+            List<HotKey> keys = byNode.computeIfAbsent(hotKey.getNode(), n -> new ArrayList<>());
+            if (keys.size() < this.topK) {
+                keys.add(hotKey);
+            }
+        }
+        return byNode;
+    }
+
+    private List<HotKey> snapshot() {
+        PriorityQueue<HotKey> heap = new PriorityQueue<>((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        for (String key : this.candidates.keySet()) {
+            heap.add(new HotKey(key, this.nodeOf(key), this.estimate(key.hashCode())));
+        }
+        List<HotKey> sorted = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            sorted.add(heap.poll());
+        }
+        return sorted;
+    }
+
+    /**
+     * 滑动窗口内的估计次数：各时间片在每一行上求和，取各行的最小值，再按抽样率放大
+     */
+    private long estimate(int hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = row * this.width + this.index(hash, row);
+            long sum = 0;
+            for (AtomicLongArray sketch : this.sketches) {
+                sum += sketch.get(index);
+            }
+            min = Math.min(min, sum);
+        }
+        return min * RedisClientConstant.HOTKEY_SAMPLE_RATE;
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x5BD1E995;
+        h ^= h >>> 15;
+        return h & (this.width - 1);
+    }
+
+    /**
+     * 返回当前时间片，进入新的时间片时由抢到CAS的线程清零该时间片并重新评估候选集合
+     */
+    private int currentSlot(long now) {
+        long epoch = now / this.slotMillis;
+        int slot = (int) (epoch % this.sketches.length);
+        long slotEpoch = this.slotEpochs.get(slot);
+        if (slotEpoch != epoch && this.slotEpochs.compareAndSet(slot, slotEpoch, epoch)) {
+            AtomicLongArray sketch = this.sketches[slot];
+            for (int i = 0; i < sketch.length(); i++) {
+                sketch.set(i, 0);
+            }
+            this.reevaluate();
+        }
+        return slot;
+    }
+
+    private void reevaluate() {
+        Map<String, Long> max = new ConcurrentHashMap<>();
+        this.candidates.replaceAll((key, previous) -> this.estimate(key.hashCode()));
+        this.candidates.entrySet().removeIf(entry -> {
+            if (entry.getValue() < this.threshold) {
+                this.hotKeys.remove(entry.getKey());
+                return true;
+            }
+            max.merge(this.nodeOf(entry.getKey()), entry.getValue(), Math::max);
+            return false;
+        });
+        for (String node : max.keySet()) {
+            if (!this.nodeMax.containsKey(node) && !this.closed) {
+                this.gauges.add(Gauge.builder("supercode.redis.hotkey.max", this.nodeMax, m -> m.getOrDefault(node, 0L))
+                        .tags(Tags.of("node", node))
+                        .register(Metrics.globalRegistry));
+            }
+        }
+        this.nodeMax.keySet().forEach(node -> this.nodeMax.put(node, 0L));
+        this.nodeMax.putAll(max);
+    }
+
+    /**
+     * 候选集合超过topK * HOTKEY_CANDIDATE_FACTOR时只保留估计次数最高的部分
+     */
+    private void trim() {
+        if (!this.trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(this.candidates.entrySet());
+            entries.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
+            int keep = this.topK * RedisClientConstant.HOTKEY_CANDIDATE_FACTOR / 2;
+            for (Map.Entry<String, Long> entry : entries.subList(Math.min(keep, entries.size()), entries.size())) {
+                this.candidates.remove(entry.getKey());
+                this.hotKeys.remove(entry.getKey());
+            }
+        } finally {
+            this.trimming.set(false);
+        }
+    }
+
+    private String nodeOf(String key) {
+        if (!this.supercodeRedisClient.getClusterFlag()) {
+            return STANDALONE;
+        }
+        RedisClusterNode node = this.supercodeRedisClient.getClusterClient().getPartitions().getPartitionBySlot(SlotHash.getSlot(key));
+        if (node == null) {
+            return "unknown";
+        }
+        RedisURI uri = node.getUri();
+        return uri.getHost() + ":" + uri.getPort();
+    }
+
+    /**
+     * 停止记录并移除本实例注册的gauge，关闭检测后由客户端调用
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.gauges.forEach(Metrics.globalRegistry::remove);
+        this.gauges.clear();
+    }
+}
@@ -0,0 +1,207 @@
+package com.supercode.infra.cache.redis.loader;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.lock.RedisLock;
+import com.supercode.infra.cache.lock.RedisLockSubscriber;
+import com.supercode.infra.cache.redis.batch.RedisSingleFlight;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.utils.MetricUtils;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Cache-aside加载：get(key, ttl, loader)，未命中时调用loader并写回Redis
+ * <p>
+ * 防击穿：同一进程内对同一个key的加载通过single-flight合并，跨进程通过{@link RedisLock}的短锁保证只有一个调用方执行loader，
+ * 未抢到锁的调用方订阅锁的释放通知，锁释放后重新读取并重试抢锁，最多等待LOADER_LOCK_MILLIS，仍未写回时抛出异常，
+ * 不会在锁外执行loader。
+ * <p>
+ * 提前刷新(XFetch)：值与上次加载耗时delta、逻辑过期时间一起存储，每次读取以
+ * now - delta * beta * ln(random) >= expiry 的概率提前刷新，越接近过期、加载越慢则越可能刷新，
+ * 避免热点key同时过期。Redis中的物理过期时间比逻辑过期时间多出LOADER_STALE_MILLIS，
+ * 刷新期间其他调用方直接返回旧值。
+ * <p>
+ * 指标：
+ * supercode.redis.loader.load    loader的执行耗时，result标签区分成功/失败
+ * supercode.redis.loader.refresh 执行loader的次数，reason标签为miss/expired/early
+ * supercode.redis.loader.stale   刷新期间返回旧值的次数
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class RedisLoadingCache<K, V> {
+
+    private static final char HEADER = '\u0001';
+    private static final String SEPARATOR = ":";
+    private static final String LOCK_PREFIX = "loader:";
+
+    private final SupercodeRedisClient<K, V> supercodeRedisClient;
+    private final RedisSingleFlight singleFlight = new RedisSingleFlight(RedisLoadingCache.class.getSimpleName());
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public RedisLoadingCache(SupercodeRedisClient<K, V> supercodeRedisClient) {
+        this.supercodeRedisClient = supercodeRedisClient;
+    }
+
+    /**
+     * @param key    redis key，值按本类的格式存储，不要再用redisStringCmd直接读写
+     * @param ttl    值的逻辑有效期
+     * @param loader 未命中或需要刷新时调用，返回null时不写回
+     */
+    public String get(String key, Duration ttl, Supplier<String> loader) {
+        Entry entry = Entry.parse(supercodeRedisClient.redisStringCmd().get(key));
+        if (entry == null) {
+            return singleFlight.execute(key, () -> this.loadOnMiss(key, ttl, loader));
+        }
+        long now = System.currentTimeMillis();
+        if (!entry.shouldRefresh(now)) {
+            return entry.value;
+        }
+        // 同一进程内只有一个线程去抢锁刷新，其余线程直接返回旧值
+        if (!this.refreshing.add(key)) {
+            Metrics.counter("supercode.redis.loader.stale").increment();
+            return entry.value;
+        }
+        try {
+            Entry refreshed = this.tryLoad(key, ttl, loader, now >= entry.expiry ? "expired" : "early", entry.expiry);
+            if (refreshed != null) {
+                return refreshed.value;
+            }
+        } catch (RuntimeException ex) {
+            log.warn("RedisLoadingCache.refresh failed, return the stale value. key is {}", key, ex);
+        } finally {
+            this.refreshing.remove(key);
+        }
+        Metrics.counter("supercode.redis.loader.stale").increment();
+        return entry.value;
+    }
+
+    private String loadOnMiss(String key, Duration ttl, Supplier<String> loader) {
+        Entry loaded = this.tryLoad(key, ttl, loader, "miss", 0);
+        if (loaded != null) {
+            return loaded.value;
+        }
+        // 其他实例正在加载：订阅锁的释放通知，被唤醒或轮询超时后重新读取并重试抢锁，最多等待一个锁的有效期，
+        // 持锁方异常退出时锁过期后由等待方接手加载，任何情况下都不在锁外执行loader
+        RedisLockSubscriber subscriber = supercodeRedisClient.getLockSubscriber();
+        RedisLockSubscriber.Entry subscription = subscriber.subscribe(supercodeRedisClient.redisLockCmd().getLockChannel(LOCK_PREFIX + key));
+        long deadline = System.currentTimeMillis() + RedisClientConstant.LOADER_LOCK_MILLIS;
+        try {
+            for (; ; ) {
+                Entry entry = Entry.parse(supercodeRedisClient.redisStringCmd().get(key));
+                if (entry != null) {
+                    return entry.value;
+                }
+                loaded = this.tryLoad(key, ttl, loader, "miss", 0);
+                if (loaded != null) {
+                    return loaded.value;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new RedisInfraException("timed out waiting for the loader of " + key);
+                }
+                subscription.await(Math.min(RedisClientConstant.LOADER_POLL_MILLIS, remaining));
+            }
+        } finally {
+            subscriber.unsubscribe(subscription);
+        }
+    }
+
+    /**
+     * 抢到锁后执行loader并写回，没有抢到锁时返回null
+     * <p>
+     * 只尝试一次、不等锁：没抢到锁时刷新返回旧值，未命中则等待其他实例写回或释放锁后重试。
+     * tryRedLock的第三个参数是加锁后等待从节点同步(WAIT)的时间，不是等锁的时间
+     *
+     * @param observedExpiry 调用方读到的逻辑过期时间，持锁后发现已被其他调用方刷新时直接使用新值
+     */
+    private Entry tryLoad(String key, Duration ttl, Supplier<String> loader, String reason, long observedExpiry) {
+        RedisLock<K, V> redisLock = supercodeRedisClient.redisLockCmd();
+        String lock = LOCK_PREFIX + key;
+        if (!redisLock.tryRedLock(lock, RedisClientConstant.LOADER_LOCK_MILLIS, RedisClientConstant.LOADER_LOCK_REPLICA_WAIT_MILLIS)) {
+            return null;
+        }
+        try {
+            Entry current = Entry.parse(supercodeRedisClient.redisStringCmd().get(key));
+            if (current != null && current.expiry > observedExpiry) {
+                return current;
+            }
+            return this.load(key, ttl, loader, reason);
+        } finally {
+            redisLock.releaseRedLock(lock);
+        }
+    }
+
+    private Entry load(String key, Duration ttl, Supplier<String> loader, String reason) {
+        Metrics.counter("supercode.redis.loader.refresh", "reason", reason).increment();
+        long start = System.currentTimeMillis();
+        String value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException ex) {
+            MetricUtils.recordTime("supercode.redis.loader.load", "time spent in the cache loader",
+                    Duration.ofMillis(System.currentTimeMillis() - start), "result", "failure");
+            throw ex;
+        }
+        long end = System.currentTimeMillis();
+        MetricUtils.recordTime("supercode.redis.loader.load", "time spent in the cache loader",
+                Duration.ofMillis(end - start), "result", "success");
+
+        Entry entry = new Entry(end - start, end + ttl.toMillis(), value);
+        if (value != null) {
+            supercodeRedisClient.redisStringCmd().psetex(key, ttl.toMillis() + RedisClientConstant.LOADER_STALE_MILLIS, entry.encode());
+        }
+        return entry;
+    }
+
+    /**
+     * 存储格式：\u0001{delta}:{expiry}:{value}，不带头部的旧值视为永不提前刷新
+     */
+    private static final class Entry {
+        private final long delta;
+        private final long expiry;
+        private final String value;
+
+        private Entry(long delta, long expiry, String value) {
+            this.delta = delta;
+            this.expiry = expiry;
+            this.value = value;
+        }
+
+        private boolean shouldRefresh(long now) {
+            double random = ThreadLocalRandom.current().nextDouble();
+            return now - this.delta * RedisClientConstant.LOADER_XFETCH_BETA * Math.log(random) >= this.expiry;
+        }
+
+        private String encode() {
+            return HEADER + String.valueOf(this.delta) + SEPARATOR + this.expiry + SEPARATOR + this.value;
+        }
+
+        private static Entry parse(String raw) {
+            if (raw == null) {
+                return null;
+            }
+            if (raw.isEmpty() || raw.charAt(0) != HEADER) {
+                return new Entry(0, Long.MAX_VALUE, raw);
+            }
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            if (first < 0 || second < 0) {
+                return new Entry(0, Long.MAX_VALUE, raw);
+            }
+            try {
+                return new Entry(Long.parseLong(raw.substring(1, first)), Long.parseLong(raw.substring(first + 1, second)),
+                        raw.substring(second + 1));
+            } catch (NumberFormatException ex) {
+                return new Entry(0, Long.MAX_VALUE, raw);
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.supercode.infra.cache.redis.near;
+
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.event.ClusterTopologyChangedEvent;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.codec.StringCodec;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.Disposable;
+
+import java.io.Closeable;
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 基于RESP3 CLIENT TRACKING的服务端辅助失效，配合{@link RedisNearCache}使用
+ * <p>
+ * 默认模式：服务端记录经由追踪连接读取过的key，key变化时推送invalidate消息，因此近端缓存未命中时必须经由本类的连接读取。
+ * BCAST模式：服务端对匹配前缀的key的任何变化都推送invalidate消息，与读取走哪条连接无关，只有匹配前缀的key才会进入近端缓存。
+ * <p>
+ * 追踪状态属于单条连接，集群模式下每个主节点的连接分别开启。连接断开、重连或者集群拓扑变化期间可能丢失失效消息，
+ * 此时清空近端缓存并在下一次读取时重新开启追踪。需要Redis 6以上版本。
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class RedisClientTracking implements RedisConnectionStateListener, Closeable {
+
+    private static final String INVALIDATE = "invalidate";
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final AbstractRedisClient redisClient;
+    private final StatefulConnection<String, String> connection;
+    private final String[] prefixes;
+    private final Set<Object> trackedConnections = ConcurrentHashMap.newKeySet();
+    private final Disposable topologySubscription;
+    private volatile boolean resync = true;
+
+    /**
+     * @param connection 专用于追踪的连接，由本类负责关闭
+     * @param prefixes   为空时使用默认模式，否则使用BCAST模式追踪这些前缀
+     */
+    public RedisClientTracking(SupercodeRedisClient<?, ?> supercodeRedisClient, AbstractRedisClient redisClient,
+                               StatefulConnection<String, String> connection, String... prefixes) {
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.redisClient = redisClient;
+        this.connection = connection;
+        this.prefixes = prefixes;
+        if (connection instanceof StatefulRedisClusterConnection) {
+            ((StatefulRedisClusterConnection<String, String>) connection).addListener((node, message) -> this.onPushMessage(message));
+        } else {
+            ((StatefulRedisConnection<String, String>) connection).addListener(this::onPushMessage);
+        }
+        redisClient.addListener(this);
+        this.topologySubscription = redisClient.getResources().eventBus().get()
+                .filter(ClusterTopologyChangedEvent.class::isInstance)
+                .subscribe(event -> this.markResync());
+    }
+
+    public boolean isBroadcast() {
+        return this.prefixes.length > 0;
+    }
+
+    /**
+     * 该key的变化是否会收到失效通知，BCAST模式下只有匹配前缀的key才会被追踪
+     */
+    public boolean tracks(String key) {
+        if (!this.isBroadcast()) {
+            return true;
+        }
+        for (String prefix : this.prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在已开启追踪的连接上执行读命令，集群模式下直接发往key所在slot的主节点
+     */
+    @SuppressWarnings("unchecked")
+    public <T, R> R doTrackedCmd(String key, Function<T, R> cmd) {
+        this.ensureTracking();
+        try {
+            return cmd.apply((T) this.trackedConnection(key).sync());
+        } catch (RedisCommandExecutionException ex) {
+            if (ex.getMessage() == null || !ex.getMessage().startsWith("MOVED")) {
+                throw ex;
+            }
+            // 本地的slot视图已经过期，刷新拓扑后重试一次
+            ((RedisClusterClient) this.redisClient).refreshPartitions();
+            this.markResync();
+            this.ensureTracking();
+            return cmd.apply((T) this.trackedConnection(key).sync());
+        }
+    }
+
+    private StatefulRedisConnection<String, String> trackedConnection(String key) {
+        StatefulRedisConnection<String, String> nodeConnection = this.nodeConnection(key);
+        if (!this.trackedConnections.contains(nodeConnection)) {
+            this.enableTracking(nodeConnection);
+        }
+        return nodeConnection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private StatefulRedisConnection<String, String> nodeConnection(String key) {
+        if (!(this.connection instanceof StatefulRedisClusterConnection)) {
+            return (StatefulRedisConnection<String, String>) this.connection;
+        }
+        RedisClusterNode node = supercodeRedisClient.getClusterClient().getPartitions().getPartitionBySlot(SlotHash.getSlot(key));
+        if (node == null) {
+            throw new RedisInfraException("no cluster node serves the slot of key " + key);
+        }
+        return ((StatefulRedisClusterConnection<String, String>) this.connection).getConnection(node.getNodeId());
+    }
+
+    /**
+     * 断线或拓扑变化之后，在调用线程上(而不是事件循环线程上)重新开启追踪并清空近端缓存
+     */
+    private void ensureTracking() {
+        if (!this.resync) {
+            return;
+        }
+        synchronized (this) {
+            if (!this.resync) {
+                return;
+            }
+            this.trackedConnections.clear();
+            if (this.isBroadcast()) {
+                this.enableBroadcastTracking();
+            }
+            this.flushNearCache();
+            this.resync = false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void enableBroadcastTracking() {
+        if (!(this.connection instanceof StatefulRedisClusterConnection)) {
+            this.enableTracking((StatefulRedisConnection<String, String>) this.connection);
+            return;
+        }
+        StatefulRedisClusterConnection<String, String> clusterConnection = (StatefulRedisClusterConnection<String, String>) this.connection;
+        for (RedisClusterNode node : supercodeRedisClient.getClusterClient().getPartitions()) {
+            if (node.is(RedisClusterNode.NodeFlag.MASTER)) {
+                this.enableTracking(clusterConnection.getConnection(node.getNodeId()));
+            }
+        }
+    }
+
+    private void enableTracking(StatefulRedisConnection<String, String> nodeConnection) {
+        TrackingArgs args = this.isBroadcast()
+                ? TrackingArgs.Builder.enabled().bcast().prefixes(this.prefixes)
+                : TrackingArgs.Builder.enabled();
+        try {
+            nodeConnection.sync().clientTracking(args);
+        } catch (Exception ex) {
+            throw new RedisInfraException("failed to enable client tracking", ex);
+        }
+        this.trackedConnections.add(nodeConnection);
+    }
+
+    private void onPushMessage(PushMessage message) {
+        if (!INVALIDATE.equals(message.getType())) {
+            return;
+        }
+        RedisNearCache nearCache = supercodeRedisClient.getNearCache();
+        if (nearCache == null) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys instanceof List) {
+            nearCache.invalidate(((List<?>) keys).stream().map(String::valueOf).toArray(String[]::new));
+        } else {
+            // 服务端执行FLUSHALL/FLUSHDB或者追踪表溢出时keys为null，需要清空全部
+            nearCache.invalidateAll();
+        }
+    }
+
+    private void markResync() {
+        this.resync = true;
+        this.flushNearCache();
+    }
+
+    private void flushNearCache() {
+        RedisNearCache nearCache = supercodeRedisClient.getNearCache();
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
+    }
+
+    private boolean isOwned(RedisChannelHandler<?, ?> handler) {
+        return handler == this.connection || this.trackedConnections.contains(handler);
+    }
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+        if (this.isOwned(connection)) {
+            log.info("client tracking connection reconnected to {}, flush near cache", socketAddress);
+            this.markResync();
+        }
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+        if (this.isOwned(connection)) {
+            this.markResync();
+        }
+    }
+
+    @Override
+    public void onRedisExceptionCaught(RedisChannelHandler<?, ?> connection, Throwable cause) {
+    }
+
+    @Override
+    public void close() {
+        this.redisClient.removeListener(this);
+        this.topologySubscription.dispose();
+        this.connection.close();
+        this.flushNearCache();
+    }
+}
@@ -0,0 +1,223 @@
+package com.supercode.infra.cache.redis.near;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 进程内的近端缓存(L1)，位于Redis之前，缓存String的GET以及Hash的HGET/HGETALL结果
+ * <p>
+ * 条目按Redis key组织，对某个key的任何写操作都会整体失效该key。容量淘汰使用Caffeine的W-TinyLFU，
+ * 过期按写入时间计算，TTL即本地数据允许落后于Redis的最长时间。
+ * <p>
+ * 加载前先在该key上放一个占位标记，失效会连同标记一起删除；加载完成后只有标记还在时才替换为结果，
+ * 加载期间该key被失效则丢弃本次写入，避免旧值覆盖失效，其他key的失效不影响本次写入。
+ * 读取经由asMap()不计入Caffeine的统计，命中/未命中由本类按读到的条目记录，读到占位标记记为未命中。
+ * <p>
+ * 指标(命中/未命中/淘汰等)以cache=supercode-redis-near-cache注册到Micrometer，{@link #close()}时移除，
+ * 重新开启近端缓存后指标绑定到新的实例
+ *
+ * @author jonathan.ji
+ */
+public class RedisNearCache implements Closeable {
+
+    public static final String METRIC_CACHE_NAME = "supercode-redis-near-cache";
+
+    private final Cache<String, Object> cache;
+    private final StatsCounter statsCounter = new ConcurrentStatsCounter();
+    private final List<Meter> meters = new ArrayList<>();
+
+    public RedisNearCache(long maximumSize, Duration ttl) {
+        if (maximumSize <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("maximumSize and ttl must be positive");
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats(() -> this.statsCounter)
+                .build();
+        this.bindMetrics();
+    }
+
+    /**
+     * 同名同标签的meter只会注册一次，记下本实例新注册的meter，close时移除，下一个实例才能重新绑定
+     */
+    private void bindMetrics() {
+        Set<Meter.Id> existing = new HashSet<>();
+        Metrics.globalRegistry.getMeters().forEach(meter -> existing.add(meter.getId()));
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, this.cache, METRIC_CACHE_NAME);
+        for (Meter meter : Metrics.globalRegistry.getMeters()) {
+            if (!existing.contains(meter.getId())) {
+                this.meters.add(meter);
+            }
+        }
+    }
+
+    public String get(String key, Supplier<String> loader) {
+        Object entry = this.cache.asMap().get(key);
+        if (entry instanceof StringEntry) {
+            this.statsCounter.recordHits(1);
+            return ((StringEntry) entry).value;
+        }
+        this.statsCounter.recordMisses(1);
+        Object marker = this.startLoading(key);
+        String value = this.load(key, marker, loader);
+        this.finishLoading(key, marker, new StringEntry(value));
+        return value;
+    }
+
+    public String hget(String key, String field, Supplier<String> loader) {
+        Object entry = this.cache.asMap().get(key);
+        if (entry instanceof HashEntry) {
+            HashEntry hashEntry = (HashEntry) entry;
+            Optional<String> cached = hashEntry.fields.get(field);
+            if (cached != null) {
+                this.statsCounter.recordHits(1);
+                return cached.orElse(null);
+            }
+            if (hashEntry.complete) {
+                this.statsCounter.recordHits(1);
+                return null;
+            }
+            this.statsCounter.recordMisses(1);
+            // 部分加载的HashEntry本身就是标记：加载期间被失效或替换时不再写入
+            String value = loader.get();
+            this.cache.asMap().computeIfPresent(key, (k, current) -> {
+                if (current == hashEntry) {
+                    hashEntry.fields.put(field, Optional.ofNullable(value));
+                }
+                return current;
+            });
+            return value;
+        }
+        this.statsCounter.recordMisses(1);
+        Object marker = this.startLoading(key);
+        String value = this.load(key, marker, loader);
+        HashEntry loaded = new HashEntry(false);
+        loaded.fields.put(field, Optional.ofNullable(value));
+        this.finishLoading(key, marker, loaded);
+        return value;
+    }
+
+    public Map<String, String> hgetall(String key, Supplier<Map<String, String>> loader) {
+        Object entry = this.cache.asMap().get(key);
+        if (entry instanceof HashEntry && ((HashEntry) entry).complete) {
+            this.statsCounter.recordHits(1);
+            return ((HashEntry) entry).toMap();
+        }
+        this.statsCounter.recordMisses(1);
+        // 部分加载的HashEntry同样可以作为标记，加载完成后替换为完整数据
+        Object marker = entry instanceof HashEntry ? entry : this.startLoading(key);
+        Map<String, String> value = this.load(key, marker, loader);
+        HashEntry loaded = new HashEntry(true);
+        value.forEach((field, fieldValue) -> loaded.fields.put(field, Optional.ofNullable(fieldValue)));
+        this.finishLoading(key, marker, loaded);
+        return value;
+    }
+
+    /**
+     * 失效指定的key，写操作完成后调用
+     */
+    public void invalidate(String... keys) {
+        if (keys.length == 1) {
+            this.cache.invalidate(keys[0]);
+        } else {
+            this.cache.invalidateAll(Arrays.asList(keys));
+        }
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    public long size() {
+        return this.cache.estimatedSize();
+    }
+
+    /**
+     * 清空缓存并移除本实例注册的指标
+     */
+    @Override
+    public void close() {
+        this.cache.invalidateAll();
+        this.meters.forEach(Metrics.globalRegistry::remove);
+        this.meters.clear();
+    }
+
+    /**
+     * 在key上放置占位标记；该key上已有其他条目(例如其他线程的加载标记)时返回null，本次加载的结果不写入缓存
+     */
+    private Object startLoading(String key) {
+        Loading token = new Loading();
+        return this.cache.asMap().putIfAbsent(key, token) == null ? token : null;
+    }
+
+    private <T> T load(String key, Object marker, Supplier<T> loader) {
+        try {
+            return loader.get();
+        } catch (RuntimeException | Error ex) {
+            if (marker instanceof Loading) {
+                this.cache.asMap().remove(key, marker);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * 标记还在说明加载期间该key没有被失效，替换为加载结果
+     */
+    private void finishLoading(String key, Object marker, Object loaded) {
+        if (marker != null) {
+            this.cache.asMap().replace(key, marker, loaded);
+        }
+    }
+
+    /**
+     * 加载中的占位标记，读到时按未命中处理
+     */
+    private static final class Loading {
+    }
+
+    private static final class StringEntry {
+        private final String value;
+
+        private StringEntry(String value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * complete为true表示fields是HGETALL加载的完整数据，否则只是HGET逐个加载的部分field(不存在的field以empty记录)
+     */
+    private static final class HashEntry {
+        private final Map<String, Optional<String>> fields = new ConcurrentHashMap<>();
+        private final boolean complete;
+
+        private HashEntry(boolean complete) {
+            this.complete = complete;
+        }
+
+        private Map<String, String> toMap() {
+            Map<String, String> map = new LinkedHashMap<>(fields.size() * 2);
+            fields.forEach((field, value) -> value.ifPresent(v -> map.put(field, v)));
+            return map;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+public abstract class AbstractRedisReactiveCmd<K, V> {
+    SupercodeRedisReactiveClient<K, V> reactiveClient;
+
+    protected AbstractRedisReactiveCmd(SupercodeRedisReactiveClient<K, V> reactiveClient) {
+        this.reactiveClient = reactiveClient;
+    }
+
+    protected <T, R> Mono<R> doMonoCmd(Function<T, Mono<R>> cmd) {
+        return reactiveClient.dispatchMono(cmd);
+    }
+
+    protected <T, R> Flux<R> doFluxCmd(Function<T, Flux<R>> cmd) {
+        return reactiveClient.dispatchFlux(cmd);
+    }
+
+    /**
+     * 执行写命令，结束后(无论成功、失败还是取消)失效近端缓存中对应的key
+     */
+    protected <T, R> Mono<R> doMonoWriteCmd(Function<T, Mono<R>> cmd, String... keys) {
+        return reactiveClient.dispatchMono(cmd).doFinally(signal -> reactiveClient.supercodeRedisClient.invalidateNearCache(keys));
+    }
+
+    /**
+     * 阻塞命令(如BLPOP)会独占连接直到返回，借用连接池中独立的连接执行
+     */
+    protected <T, R> Mono<R> doPooledMonoCmd(Function<T, Mono<R>> cmd) {
+        return reactiveClient.dispatchPooledMono(cmd);
+    }
+}
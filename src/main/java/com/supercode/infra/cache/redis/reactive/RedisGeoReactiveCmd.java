@@ -0,0 +1,61 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import com.supercode.infra.cache.pojo.GeoObject;
+import io.lettuce.core.GeoArgs;
+import io.lettuce.core.GeoWithin;
+import io.lettuce.core.api.reactive.RedisGeoReactiveCommands;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class RedisGeoReactiveCmd<K, V> extends AbstractRedisReactiveCmd<K, V> {
+
+    public RedisGeoReactiveCmd(SupercodeRedisReactiveClient<K, V> reactiveClient) {
+        super(reactiveClient);
+    }
+
+    private <R> Mono<R> doGeoCmd(Function<RedisGeoReactiveCommands<String, String>, Mono<R>> geoCmd) {
+        return super.doMonoCmd(geoCmd);
+    }
+
+    private <R> Flux<R> doGeoFluxCmd(Function<RedisGeoReactiveCommands<String, String>, Flux<R>> geoCmd) {
+        return super.doFluxCmd(geoCmd);
+    }
+
+    public Flux<GeoWithin<String>> georadius(String key, double longitude, double latitude, double distance, GeoArgs geoArgs) {
+        return this.doGeoFluxCmd(cmd -> cmd.georadius(key, longitude, latitude, distance, GeoArgs.Unit.m, geoArgs));
+    }
+
+    public Flux<String> georadius(String key, double longitude, double latitude, double distance) {
+        return this.doGeoFluxCmd(cmd -> cmd.georadius(key, longitude, latitude, distance, GeoArgs.Unit.m));
+    }
+
+    public Flux<String> georadiusbymember(String key, String member, double distance) {
+        return this.doGeoFluxCmd(cmd -> cmd.georadiusbymember(key, member, distance, GeoArgs.Unit.m));
+    }
+
+    public Mono<Double> geodist(String key, String from, String to) {
+        return this.doGeoCmd(cmd -> cmd.geodist(key, from, to, GeoArgs.Unit.m));
+    }
+
+    public Mono<Long> geoadd(String key, List<GeoObject> lngLatMember) {
+        Object[] args = new Object[lngLatMember.size() * 3];
+        for (int i = 0; i < lngLatMember.size(); i++) {
+            GeoObject object = lngLatMember.get(i);
+            args[3 * i] = object.getCoord().getLongitude();
+            args[3 * i + 1] = object.getCoord().getLatitude();
+            args[3 * i + 2] = object.getName();
+        }
+        return this.doGeoCmd(cmd -> cmd.geoadd(key, args));
+    }
+
+    /**
+     * 按距离从近到远返回带坐标、距离的结果，最多返回limit条
+     */
+    public Flux<GeoWithin<String>> georadius(String redisKey, double longitude, double latitude, double distance, int limit) {
+        GeoArgs geoArgs = new GeoArgs().withHash().withDistance().withCoordinates().withCount(limit).asc();
+        return georadius(redisKey, longitude, latitude, distance, geoArgs);
+    }
+}
@@ -0,0 +1,145 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.api.reactive.RedisHashReactiveCommands;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 与Redis Hash相关的响应式操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisHashReactiveCmd<K, V> extends AbstractRedisReactiveCmd<K, V> {
+
+    public RedisHashReactiveCmd(SupercodeRedisReactiveClient<K, V> reactiveClient) {
+        super(reactiveClient);
+    }
+
+    private <R> Mono<R> doHashCmd(Function<RedisHashReactiveCommands<String, String>, Mono<R>> hashCmd) {
+        return super.doMonoCmd(hashCmd);
+    }
+
+    private <R> Mono<R> doHashWriteCmd(Function<RedisHashReactiveCommands<String, String>, Mono<R>> hashCmd, String... keys) {
+        return super.doMonoWriteCmd(hashCmd, keys);
+    }
+
+    private <R> Flux<R> doHashFluxCmd(Function<RedisHashReactiveCommands<String, String>, Flux<R>> hashCmd) {
+        return super.doFluxCmd(hashCmd);
+    }
+
+    /**
+     * Delete one or more hash fields
+     * Time complexity: O(N) where N is the number of fields to be removed
+     */
+    public Mono<Long> hdel(String key, String... fields) {
+        return this.doHashWriteCmd(cmd -> cmd.hdel(key, fields), key);
+    }
+
+    /**
+     * Determine if a hash field exists
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> hexists(String key, String field) {
+        return this.doHashCmd(cmd -> cmd.hexists(key, field));
+    }
+
+    /**
+     * Get the value of a hash field
+     * Time complexity: O(1)
+     */
+    public Mono<String> hget(String key, String field) {
+        return this.doHashCmd(cmd -> cmd.hget(key, field));
+    }
+
+    /**
+     * Increment the integer value of a hash field by the given number
+     * Time complexity: O(1)
+     */
+    public Mono<Long> hincrby(String key, String field, long amount) {
+        return this.doHashWriteCmd(cmd -> cmd.hincrby(key, field, amount), key);
+    }
+
+    /**
+     * Increment the float value of a hash field by the given amount
+     * Time complexity: O(1)
+     */
+    public Mono<Double> hincrbyfloat(String key, String field, double amount) {
+        return this.doHashWriteCmd(cmd -> cmd.hincrbyfloat(key, field, amount), key);
+    }
+
+    /**
+     * Stream all the fields and values in a hash
+     * Time complexity: O(N) where N is the size of the hash
+     */
+    public Flux<KeyValue<String, String>> hgetall(String key) {
+        return this.doHashFluxCmd(cmd -> cmd.hgetall(key));
+    }
+
+    /**
+     * Stream all the fields in a hash
+     * Time complexity: O(N) where N is the size of the hash
+     */
+    public Flux<String> hkeys(String key) {
+        return this.doHashFluxCmd(cmd -> cmd.hkeys(key));
+    }
+
+    /**
+     * Get the number of fields in a hash
+     * Time complexity: O(1)
+     */
+    public Mono<Long> hlen(String key) {
+        return this.doHashCmd(cmd -> cmd.hlen(key));
+    }
+
+    /**
+     * Stream the values of all the given hash fields
+     * Time complexity: O(N) where N is the number of fields being requested
+     */
+    public Flux<KeyValue<String, String>> hmget(String key, String... fields) {
+        return this.doHashFluxCmd(cmd -> cmd.hmget(key, fields));
+    }
+
+    /**
+     * Set multiple hash fields to multiple value
+     * Time complexity: O(N) where N is the number of fields being set
+     */
+    public Mono<String> hmset(String key, Map<String, String> map) {
+        return this.doHashWriteCmd(cmd -> cmd.hmset(key, map), key);
+    }
+
+    /**
+     * Set the string value of a hash field
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> hset(String key, String field, String value) {
+        return this.doHashWriteCmd(cmd -> cmd.hset(key, field, value), key);
+    }
+
+    /**
+     * Set the value of a hash field, only if the field does not exist
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> hsetnx(String key, String field, String value) {
+        return this.doHashWriteCmd(cmd -> cmd.hsetnx(key, field, value), key);
+    }
+
+    /**
+     * Get the string length of the field value in a hash
+     * Time complexity: O(1)
+     */
+    public Mono<Long> hstrlen(String key, String field) {
+        return this.doHashCmd(cmd -> cmd.hstrlen(key, field));
+    }
+
+    /**
+     * Stream all the values in a hash
+     * Time complexity: O(N) where N is the size of the hash.
+     */
+    public Flux<String> hvals(String key) {
+        return this.doHashFluxCmd(cmd -> cmd.hvals(key));
+    }
+}
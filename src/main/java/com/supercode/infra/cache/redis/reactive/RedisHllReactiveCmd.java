@@ -0,0 +1,32 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import io.lettuce.core.api.reactive.RedisHLLReactiveCommands;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+public class RedisHllReactiveCmd<K, V> extends AbstractRedisReactiveCmd<K, V> {
+
+    public RedisHllReactiveCmd(SupercodeRedisReactiveClient<K, V> reactiveClient) {
+        super(reactiveClient);
+    }
+
+    private <R> Mono<R> doHllCmd(Function<RedisHLLReactiveCommands<String, String>, Mono<R>> hllCmd) {
+        return super.doMonoCmd(hllCmd);
+    }
+
+    /**
+     * Adds all the element arguments to the HyperLogLog data structure
+     * Time complexity: O(1) to add every element.
+     */
+    public Mono<Long> pfadd(String key, String... values) {
+        return this.doHllCmd(cmd -> cmd.pfadd(key, values));
+    }
+
+    /**
+     * Time complexity: O(1) with a very small average constant time when called with a single key.
+     */
+    public Mono<Long> pfcount(String key) {
+        return this.doHllCmd(cmd -> cmd.pfcount(key));
+    }
+}
@@ -0,0 +1,99 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import io.lettuce.core.api.reactive.RedisKeyReactiveCommands;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * 与Redis key相关的响应式操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisKeyReactiveCmd<K, V> extends AbstractRedisReactiveCmd<K, V> {
+
+    public RedisKeyReactiveCmd(SupercodeRedisReactiveClient<K, V> reactiveClient) {
+        super(reactiveClient);
+    }
+
+    private <R> Mono<R> doKeyCmd(Function<RedisKeyReactiveCommands<String, String>, Mono<R>> keyCmd) {
+        return super.doMonoCmd(keyCmd);
+    }
+
+    private <R> Mono<R> doKeyWriteCmd(Function<RedisKeyReactiveCommands<String, String>, Mono<R>> keyCmd, String... keys) {
+        return super.doMonoWriteCmd(keyCmd, keys);
+    }
+
+    /**
+     * Determine how many keys exist
+     * Time complexity: O(N) where N is the number of keys to check
+     */
+    public Mono<Long> exists(String... keys) {
+        return this.doKeyCmd(cmd -> cmd.exists(keys));
+    }
+
+    /**
+     * Set a key's time to live in seconds
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> expire(String key, long seconds) {
+        return this.doKeyWriteCmd(cmd -> cmd.expire(key, seconds), key);
+    }
+
+    /**
+     * Delete one or more keys
+     * Time complexity: O(N) where N is the number of keys that will be removed.
+     */
+    public Mono<Long> del(String... keys) {
+        return this.doKeyWriteCmd(cmd -> cmd.del(keys), keys);
+    }
+
+    /**
+     * Set the expiration for a key as a UNIX timestamp
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> expireat(String key, Date timestamp) {
+        return this.doKeyWriteCmd(cmd -> cmd.expireat(key, timestamp), key);
+    }
+
+    /**
+     * Set a key's time to live in milliseconds
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> pexpire(String key, long milliseconds) {
+        return this.doKeyWriteCmd(cmd -> cmd.pexpire(key, milliseconds), key);
+    }
+
+    /**
+     * Set the expiration for a key as a UNIX timestamp specified in milliseconds
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> pexpireat(String key, long timestamp) {
+        return this.doKeyWriteCmd(cmd -> cmd.pexpireat(key, timestamp), key);
+    }
+
+    /**
+     * Get the time to live for a key in milliseconds
+     * Time complexity: O(1)
+     */
+    public Mono<Long> pttl(String key) {
+        return this.doKeyCmd(cmd -> cmd.pttl(key));
+    }
+
+    /**
+     * Get the time to live for a key in seconds
+     * Time complexity: O(1)
+     */
+    public Mono<Long> ttl(String key) {
+        return this.doKeyCmd(cmd -> cmd.ttl(key));
+    }
+
+    /**
+     * Determine the type stored at key
+     * Time complexity: O(1)
+     */
+    public Mono<String> type(String key) {
+        return this.doKeyCmd(cmd -> cmd.type(key));
+    }
+}
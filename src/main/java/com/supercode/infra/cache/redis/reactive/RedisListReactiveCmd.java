@@ -0,0 +1,142 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.api.reactive.RedisListReactiveCommands;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * 与Redis List相关的响应式操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisListReactiveCmd<K, V> extends AbstractRedisReactiveCmd<K, V> {
+
+    public RedisListReactiveCmd(SupercodeRedisReactiveClient<K, V> reactiveClient) {
+        super(reactiveClient);
+    }
+
+    private <R> Mono<R> doListCmd(Function<RedisListReactiveCommands<String, String>, Mono<R>> listCmd) {
+        return super.doMonoCmd(listCmd);
+    }
+
+    private <R> Flux<R> doListFluxCmd(Function<RedisListReactiveCommands<String, String>, Flux<R>> listCmd) {
+        return super.doFluxCmd(listCmd);
+    }
+
+    private <R> Mono<R> doBlockingListCmd(Function<RedisListReactiveCommands<String, String>, Mono<R>> listCmd) {
+        return super.doPooledMonoCmd(listCmd);
+    }
+
+    /**
+     * Get an element from a list by its index
+     * Time complexity: O(N) where N is the number of elements to traverse to get to the element at index.
+     */
+    public Mono<String> lindex(String key, long index) {
+        return this.doListCmd(cmd -> cmd.lindex(key, index));
+    }
+
+    /**
+     * Insert an element before or after another element in a list
+     * Time complexity: O(N) where N is the number of elements to traverse before seeing the value pivot.
+     */
+    public Mono<Long> linsert(String key, boolean before, String pivot, String value) {
+        return this.doListCmd(cmd -> cmd.linsert(key, before, pivot, value));
+    }
+
+    /**
+     * Get the length of a list
+     * Time complexity: O(1)
+     */
+    public Mono<Long> llen(String key) {
+        return this.doListCmd(cmd -> cmd.llen(key));
+    }
+
+    /**
+     * Remove and get the first element in a list
+     */
+    public Mono<String> lpop(String key) {
+        return this.doListCmd(cmd -> cmd.lpop(key));
+    }
+
+    /**
+     * Remove and get the first element in a list, or block until one is available
+     * 阻塞命令会独占连接，借用连接池中的连接，命令结束后归还
+     */
+    public Mono<KeyValue<String, String>> blpop(String key, long timeout) {
+        return this.doBlockingListCmd(cmd -> cmd.blpop(timeout, key));
+    }
+
+    /**
+     * Prepend one or multiple values to a list
+     * Time complexity: O(1) for each element added
+     */
+    public Mono<Long> lpush(String key, String... values) {
+        return this.doListCmd(cmd -> cmd.lpush(key, values));
+    }
+
+    /**
+     * Prepend values to a list, only if the list exists
+     * Time complexity: O(1) for each element added
+     */
+    public Mono<Long> lpushx(String key, String... values) {
+        return this.doListCmd(cmd -> cmd.lpushx(key, values));
+    }
+
+    /**
+     * Stream a range of elements from a list
+     * Time complexity: O(S+N)
+     */
+    public Flux<String> lrange(String key, long start, long stop) {
+        return this.doListFluxCmd(cmd -> cmd.lrange(key, start, stop));
+    }
+
+    /**
+     * Remove elements from a list
+     * Time complexity: O(N+M) where N is the length of the list and M is the number of elements removed
+     */
+    public Mono<Long> lrem(String key, long count, String value) {
+        return this.doListCmd(cmd -> cmd.lrem(key, count, value));
+    }
+
+    /**
+     * Set the value of an element in a list by its index
+     * Time complexity: O(N) where N is the length of the list.
+     */
+    public Mono<String> lset(String key, long index, String value) {
+        return this.doListCmd(cmd -> cmd.lset(key, index, value));
+    }
+
+    /**
+     * Trim a list to the specified range
+     * Time complexity: O(N) where N is the number of elements to be removed by the operation
+     */
+    public Mono<String> ltrim(String key, long start, long stop) {
+        return this.doListCmd(cmd -> cmd.ltrim(key, start, stop));
+    }
+
+    /**
+     * Remove and get the last element in a list
+     */
+    public Mono<String> rpop(String key) {
+        return this.doListCmd(cmd -> cmd.rpop(key));
+    }
+
+    /**
+     * Append one or multiple values to a list
+     * Time complexity: O(1) for each element added
+     */
+    public Mono<Long> rpush(String key, String... values) {
+        return this.doListCmd(cmd -> cmd.rpush(key, values));
+    }
+
+    /**
+     * Inserts specified values at the tail of the list stored at key, only if key already exists and holds a list.
+     * Time complexity: O(1) for each element added
+     */
+    public Mono<Long> rpushx(String key, String... values) {
+        return this.doListCmd(cmd -> cmd.rpushx(key, values));
+    }
+}
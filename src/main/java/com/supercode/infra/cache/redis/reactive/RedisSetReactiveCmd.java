@@ -0,0 +1,103 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import io.lettuce.core.api.reactive.RedisSetReactiveCommands;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * 与Redis Set相关的响应式操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisSetReactiveCmd<K, V> extends AbstractRedisReactiveCmd<K, V> {
+
+    public RedisSetReactiveCmd(SupercodeRedisReactiveClient<K, V> reactiveClient) {
+        super(reactiveClient);
+    }
+
+    private <R> Mono<R> doSetCmd(Function<RedisSetReactiveCommands<String, String>, Mono<R>> setCmd) {
+        return super.doMonoCmd(setCmd);
+    }
+
+    private <R> Flux<R> doSetFluxCmd(Function<RedisSetReactiveCommands<String, String>, Flux<R>> setCmd) {
+        return super.doFluxCmd(setCmd);
+    }
+
+    /**
+     * Add one or more members to a set.
+     * Time complexity: O(1) for each element added
+     */
+    public Mono<Long> sadd(String key, String... members) {
+        return this.doSetCmd(cmd -> cmd.sadd(key, members));
+    }
+
+    /**
+     * Get the number of members in a set
+     * Time complexity: O(1)
+     */
+    public Mono<Long> scard(String key) {
+        return this.doSetCmd(cmd -> cmd.scard(key));
+    }
+
+    /**
+     * Determine if a given value is a member of a set
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> sismember(String key, String member) {
+        return this.doSetCmd(cmd -> cmd.sismember(key, member));
+    }
+
+    /**
+     * Move a member from one set to another
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> smove(String source, String destination, String member) {
+        return this.doSetCmd(cmd -> cmd.smove(source, destination, member));
+    }
+
+    /**
+     * Stream all the members in a set.
+     * Time complexity: O(N) where N is the set cardinality
+     */
+    public Flux<String> smembers(String key) {
+        return this.doSetFluxCmd(cmd -> cmd.smembers(key));
+    }
+
+    /**
+     * Remove and return a random member from a set.
+     */
+    public Mono<String> spop(String key) {
+        return this.doSetCmd(cmd -> cmd.spop(key));
+    }
+
+    /**
+     * Remove and return one or multiple random members from a set
+     */
+    public Flux<String> spop(String key, long count) {
+        return this.doSetFluxCmd(cmd -> cmd.spop(key, count));
+    }
+
+    /**
+     * Get one random member from a set
+     */
+    public Mono<String> srandmember(String key) {
+        return this.doSetCmd(cmd -> cmd.srandmember(key));
+    }
+
+    /**
+     * Get one or multiple random members from a set
+     */
+    public Flux<String> srandmember(String key, long count) {
+        return this.doSetFluxCmd(cmd -> cmd.srandmember(key, count));
+    }
+
+    /**
+     * Remove one or more members from a set
+     * Time complexity: O(N) where N is the number of members to be removed
+     */
+    public Mono<Long> srem(String key, String... members) {
+        return this.doSetCmd(cmd -> cmd.srem(key, members));
+    }
+}
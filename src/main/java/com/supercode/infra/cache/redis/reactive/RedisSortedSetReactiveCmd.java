@@ -0,0 +1,131 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import io.lettuce.core.Range;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.api.reactive.RedisSortedSetReactiveCommands;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * 与Redis SortedSet相关的响应式操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisSortedSetReactiveCmd<K, V> extends AbstractRedisReactiveCmd<K, V> {
+
+    public RedisSortedSetReactiveCmd(SupercodeRedisReactiveClient<K, V> reactiveClient) {
+        super(reactiveClient);
+    }
+
+    private <R> Mono<R> doSortSetCmd(Function<RedisSortedSetReactiveCommands<String, String>, Mono<R>> sortedSetCmd) {
+        return super.doMonoCmd(sortedSetCmd);
+    }
+
+    private <R> Flux<R> doSortSetFluxCmd(Function<RedisSortedSetReactiveCommands<String, String>, Flux<R>> sortedSetCmd) {
+        return super.doFluxCmd(sortedSetCmd);
+    }
+
+    /**
+     * Add one or more members to a sorted set, or update its score if it already exists.
+     * Time complexity: O(log(N)) for each item added, where N is the number of elements in the sorted set
+     */
+    public Mono<Long> zadd(String key, ScoredValue<V>... scoredValue) {
+        return this.doSortSetCmd(cmd -> cmd.zadd(key, scoredValue));
+    }
+
+    /**
+     * Add one or more members to a sorted set, or update its score if it already exists.
+     */
+    public Mono<Long> zadd(String key, double score, String member) {
+        return this.doSortSetCmd(cmd -> cmd.zadd(key, score, member));
+    }
+
+    /**
+     * Stream a range of members in a sorted set, by index
+     * Time complexity: O(log(N)+M)
+     */
+    public Flux<String> zrange(String key, long start, long stop) {
+        return this.doSortSetFluxCmd(cmd -> cmd.zrange(key, start, stop));
+    }
+
+    /**
+     * Stream a range of members in a sorted set, by score, closed interval by default.
+     */
+    public Flux<String> zrangebyscore(String key, double min, double max) {
+        return this.zrangebyscore(key, min, true, max, true);
+    }
+
+    /**
+     * Stream a range of members in a sorted set, by score.
+     *
+     * @param isMinInclude is min Closed interval?
+     * @param isMaxInclude is max Closed interval?
+     */
+    public Flux<String> zrangebyscore(String key, double min, boolean isMinInclude, double max, boolean isMaxInclude) {
+        Range range = Range.from(isMinInclude ? Range.Boundary.including(min) : Range.Boundary.excluding(min),
+                isMaxInclude ? Range.Boundary.including(max) : Range.Boundary.excluding(max));
+        return this.doSortSetFluxCmd(cmd -> cmd.zrangebyscore(key, range));
+    }
+
+    /**
+     * Stream a range of members in a sorted set, by index, with scores ordered from high to low
+     * Time complexity: O(log(N)+M)
+     */
+    public Flux<String> zrevrange(String key, long start, long stop) {
+        return this.doSortSetFluxCmd(cmd -> cmd.zrevrange(key, start, stop));
+    }
+
+    /**
+     * Remove one or more members from a sorted set
+     * Time complexity: O(M*log(N))
+     */
+    public Mono<Long> zrem(String key, String... members) {
+        return this.doSortSetCmd(cmd -> cmd.zrem(key, members));
+    }
+
+    /**
+     * Get the score associated with the given member in a sorted set.
+     * Time complexity: O(1)
+     */
+    public Mono<Double> zscore(String key, String value) {
+        return this.doSortSetCmd(cmd -> cmd.zscore(key, value));
+    }
+
+    /**
+     * Determine the index of a member in a sorted set
+     * Time complexity: O(log(N))
+     */
+    public Mono<Long> zrank(String key, String value) {
+        return this.doSortSetCmd(cmd -> cmd.zrank(key, value));
+    }
+
+    /**
+     * Remove all members in a sorted set within the given indexes.
+     */
+    public Mono<Long> zremrangebyrank(String key, long start, long stop) {
+        return this.doSortSetCmd(cmd -> cmd.zremrangebyrank(key, start, stop));
+    }
+
+    /**
+     * Get the number of members in a sorted set.
+     */
+    public Mono<Long> zcard(String key) {
+        return this.doSortSetCmd(cmd -> cmd.zcard(key));
+    }
+
+    /**
+     * Count the members in a sorted set with scores within the given Range.
+     */
+    public Mono<Long> zcountByRange(String key, double min, double max) {
+        return this.doSortSetCmd(cmd -> cmd.zcount(key, Range.create(min, max)));
+    }
+
+    /**
+     * Remove all members in a sorted set within the given scores.
+     */
+    public Mono<Long> zremrangeByScore(String key, double min, double max) {
+        return this.doSortSetCmd(cmd -> cmd.zremrangebyscore(key, Range.create(min, max)));
+    }
+}
@@ -0,0 +1,223 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.api.reactive.RedisStringReactiveCommands;
+import io.lettuce.core.cluster.SlotHash;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Redis关于字符串相关的响应式操作
+ *
+ * @author jonathan.ji
+ */
+public class RedisStringReactiveCmd<K, V> extends AbstractRedisReactiveCmd<K, V> {
+
+    public RedisStringReactiveCmd(SupercodeRedisReactiveClient<K, V> reactiveClient) {
+        super(reactiveClient);
+    }
+
+    private <R> Mono<R> doStringCmd(Function<RedisStringReactiveCommands<String, String>, Mono<R>> stringCmd) {
+        return super.doMonoCmd(stringCmd);
+    }
+
+    private <R> Mono<R> doStringWriteCmd(Function<RedisStringReactiveCommands<String, String>, Mono<R>> stringCmd, String... keys) {
+        return super.doMonoWriteCmd(stringCmd, keys);
+    }
+
+    private <R> Flux<R> doStringFluxCmd(Function<RedisStringReactiveCommands<String, String>, Flux<R>> stringCmd) {
+        return super.doFluxCmd(stringCmd);
+    }
+
+    /**
+     * Append a value to a key
+     * Time complexity: O(1)
+     */
+    public Mono<Long> append(String key, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.append(key, value), key);
+    }
+
+    /**
+     * Decrement the integer value of a key by one
+     * Time complexity: O(1)
+     */
+    public Mono<Long> decr(String key) {
+        return this.doStringWriteCmd(cmd -> cmd.decr(key), key);
+    }
+
+    /**
+     * Decrement the integer value of a key by the given number
+     * Time complexity: O(1)
+     */
+    public Mono<Long> decrby(String key, long amount) {
+        return this.doStringWriteCmd(cmd -> cmd.decrby(key, amount), key);
+    }
+
+    /**
+     * Get the value of a key.
+     * Time complexity: O(1)
+     */
+    public Mono<String> get(String key) {
+        return this.doStringCmd(cmd -> cmd.get(key));
+    }
+
+    /**
+     * Returns the bit value at offset in the string value stored at key
+     * Time complexity: O(1)
+     */
+    public Mono<Long> getbit(String key, long offset) {
+        return this.doStringCmd(cmd -> cmd.getbit(key, offset));
+    }
+
+    /**
+     * Get a substring of the string stored at a key
+     * Time complexity: O(N) where N is the length of the returned string
+     */
+    public Mono<String> getrange(String key, long start, long end) {
+        return this.doStringCmd(cmd -> cmd.getrange(key, start, end));
+    }
+
+    /**
+     * Set the string value of a key
+     * Time complexity: O(1)
+     */
+    public Mono<String> set(String key, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.set(key, value), key);
+    }
+
+    /**
+     * Sets or clears the bit at offset in the string value stored at key
+     * Time complexity: O(1)
+     */
+    public Mono<Long> setbit(String key, long offset, int value) {
+        return this.doStringWriteCmd(cmd -> cmd.setbit(key, offset, value), key);
+    }
+
+    /**
+     * Set the value and expiration of a key
+     * Time complexity: O(1)
+     */
+    public Mono<String> setex(String key, long seconds, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.setex(key, seconds, value), key);
+    }
+
+    /**
+     * Set the value and expiration in milliseconds of a key
+     * Time complexity: O(1)
+     */
+    public Mono<String> psetex(String key, long milliseconds, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.psetex(key, milliseconds, value), key);
+    }
+
+    /**
+     * Set the value of a key, only if the key does not exist
+     * Time complexity: O(1)
+     */
+    public Mono<Boolean> setnx(String key, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.setnx(key, value), key);
+    }
+
+    public Mono<Boolean> setnx(String key, String value, long seconds) {
+        return this.setnx(key, value).flatMap(success -> Boolean.TRUE.equals(success)
+                ? super.reactiveClient.redisKeyCmd().expire(key, seconds)
+                : Mono.just(false));
+    }
+
+    /**
+     * Overwrite part of a string at key starting at the specified offset
+     * Time complexity: O(1), not counting the time taken to copy the new string in place.
+     */
+    public Mono<Long> setrange(String key, long offset, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.setrange(key, offset, value), key);
+    }
+
+    /**
+     * Get the length of the value stored in a key
+     * Time complexity: O(1)
+     */
+    public Mono<Long> strlen(String key) {
+        return this.doStringCmd(cmd -> cmd.strlen(key));
+    }
+
+    /**
+     * Set the string value of a key and return its old value
+     * Time complexity: O(1)
+     */
+    public Mono<String> getset(String key, String value) {
+        return this.doStringWriteCmd(cmd -> cmd.getset(key, value), key);
+    }
+
+    /**
+     * Increment the integer value of a key by one
+     * Time complexity: O(1)
+     */
+    public Mono<Long> incr(String key) {
+        return this.doStringWriteCmd(cmd -> cmd.incr(key), key);
+    }
+
+    /**
+     * Increment the integer value of a key by the given amount
+     * Time complexity: O(1)
+     */
+    public Mono<Long> incrby(String key, long amount) {
+        return this.doStringWriteCmd(cmd -> cmd.incrby(key, amount), key);
+    }
+
+    /**
+     * Increment the float value of a key by the given amount
+     * Time complexity: O(1)
+     */
+    public Mono<Double> incrbyfloat(String key, double amount) {
+        return this.doStringWriteCmd(cmd -> cmd.incrbyfloat(key, amount), key);
+    }
+
+    /**
+     * Get the values of all the given keys
+     * Time complexity: O(N) where N is the number of keys to retrieve.
+     */
+    public Flux<KeyValue<String, String>> mget(String... keys) {
+        return this.doStringFluxCmd(cmd -> cmd.mget(keys));
+    }
+
+    /**
+     * Set multiple keys to multiple values
+     * Time complexity: O(N) where N is the number of keys to set.
+     */
+    public Mono<String> mset(Map<String, String> kv) {
+        return this.doStringWriteCmd(cmd -> cmd.mset(kv), kv.keySet().toArray(new String[0]));
+    }
+
+    /**
+     * Set multiple keys to multiple values, only if none of the keys exist
+     * Time complexity: O(N) where N is the number of keys to set.
+     */
+    public Mono<Boolean> msetnx(Map<String, String> kv) {
+        if (kv.size() == 0) {
+            return Mono.just(true);
+        }
+        Integer keySlot = null;
+        for (String key : kv.keySet()) {
+            int slot = SlotHash.getSlot(key);
+            if (keySlot == null) {
+                keySlot = slot;
+            } else if (slot != keySlot) {
+                return Mono.just(false);
+            }
+        }
+        return this.doStringWriteCmd(cmd -> cmd.msetnx(kv), kv.keySet().toArray(new String[0]));
+    }
+
+    public Mono<String> getAndDel(String key) {
+        Mono<Long> del = super.reactiveClient.redisKeyCmd().del(key);
+        return this.get(key)
+                .flatMap(value -> del.thenReturn(value))
+                .switchIfEmpty(Mono.defer(() -> del.then(Mono.empty())));
+    }
+
+    public Mono<Long> getLong(String key) {
+        return this.get(key).defaultIfEmpty("0").map(Long::parseLong);
+    }
+}
@@ -0,0 +1,133 @@
+package com.supercode.infra.cache.redis.reactive;
+
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.function.Function;
+
+/**
+ * 基于Lettuce reactive命令的响应式客户端，单值结果返回{@link Mono}，集合结果以{@link Flux}流式返回并支持背压
+ * <p>
+ * 连接在订阅时才获取：普通命令走多路复用的共享连接，阻塞命令(BLPOP)借用连接池中的独立连接并在结束后归还，
+ * 取消或出错时废弃该连接
+ * 值为null时Lettuce返回空的Mono
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public class SupercodeRedisReactiveClient<K, V> {
+
+    protected final SupercodeRedisClient<K, V> supercodeRedisClient;
+
+    private final RedisStringReactiveCmd<K, V> redisStringCmd = new RedisStringReactiveCmd<>(this);
+    private final RedisListReactiveCmd<K, V> redisListCmd = new RedisListReactiveCmd<>(this);
+    private final RedisHashReactiveCmd<K, V> redisHashCmd = new RedisHashReactiveCmd<>(this);
+    private final RedisSetReactiveCmd<K, V> redisSetCmd = new RedisSetReactiveCmd<>(this);
+    private final RedisSortedSetReactiveCmd<K, V> redisSortedSetCmd = new RedisSortedSetReactiveCmd<>(this);
+    private final RedisGeoReactiveCmd<K, V> redisGeoCmd = new RedisGeoReactiveCmd<>(this);
+    private final RedisHllReactiveCmd<K, V> redisHllCmd = new RedisHllReactiveCmd<>(this);
+    private final RedisKeyReactiveCmd<K, V> redisKeyCmd = new RedisKeyReactiveCmd<>(this);
+
+    public SupercodeRedisReactiveClient(SupercodeRedisClient<K, V> supercodeRedisClient) {
+        this.supercodeRedisClient = supercodeRedisClient;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T, R> Mono<R> dispatchMono(Function<T, Mono<R>> cmd) {
+        return Mono.defer(() -> {
+            Object reactiveCmd;
+            try {
+                reactiveCmd = this.reactiveCmd(supercodeRedisClient.getSharedConnection());
+            } catch (Exception ex) {
+                return Mono.error(new RedisInfraException("failed to obtain redis connection", ex));
+            }
+            return cmd.apply((T) reactiveCmd);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T, R> Flux<R> dispatchFlux(Function<T, Flux<R>> cmd) {
+        return Flux.defer(() -> {
+            Object reactiveCmd;
+            try {
+                reactiveCmd = this.reactiveCmd(supercodeRedisClient.getSharedConnection());
+            } catch (Exception ex) {
+                return Flux.error(new RedisInfraException("failed to obtain redis connection", ex));
+            }
+            return cmd.apply((T) reactiveCmd);
+        });
+    }
+
+    /**
+     * 借用连接可能阻塞，在boundedElastic线程上进行，不占用事件循环线程；
+     * 只有正常结束时归还连接，取消(例如timeout)或者出错时阻塞命令可能仍在服务端排队，直接废弃连接
+     */
+    @SuppressWarnings("unchecked")
+    protected <T, R> Mono<R> dispatchPooledMono(Function<T, Mono<R>> cmd) {
+        return Mono.usingWhen(Mono.fromCallable(this::borrowConnection).subscribeOn(Schedulers.boundedElastic()),
+                connection -> cmd.apply((T) this.reactiveCmd(connection)),
+                connection -> Mono.fromRunnable(() -> supercodeRedisClient.getPool().returnObject(connection)),
+                (connection, ex) -> Mono.fromRunnable(() -> this.invalidateConnection(connection)),
+                connection -> Mono.fromRunnable(() -> this.invalidateConnection(connection)));
+    }
+
+    private void invalidateConnection(StatefulConnection<String, String> connection) {
+        try {
+            supercodeRedisClient.getPool().invalidateObject(connection);
+        } catch (Exception ex) {
+            log.error("SupercodeRedisReactiveClient invalidate connection error.", ex);
+        }
+    }
+
+    private StatefulConnection<String, String> borrowConnection() {
+        try {
+            return supercodeRedisClient.getPool().borrowObject();
+        } catch (Exception ex) {
+            throw new RedisInfraException("failed to obtain redis connection", ex);
+        }
+    }
+
+    protected Object reactiveCmd(StatefulConnection<String, String> connection) {
+        return supercodeRedisClient.getClusterFlag() ? ((StatefulRedisClusterConnection<String, String>) connection).reactive()
+                : ((StatefulRedisConnection<String, String>) connection).reactive();
+    }
+
+    public RedisStringReactiveCmd<K, V> redisStringCmd() {
+        return redisStringCmd;
+    }
+
+    public RedisListReactiveCmd<K, V> redisListCmd() {
+        return redisListCmd;
+    }
+
+    public RedisHashReactiveCmd<K, V> redisHashCmd() {
+        return redisHashCmd;
+    }
+
+    public RedisSetReactiveCmd<K, V> redisSetCmd() {
+        return redisSetCmd;
+    }
+
+    public RedisSortedSetReactiveCmd<K, V> redisSortedSetCmd() {
+        return redisSortedSetCmd;
+    }
+
+    public RedisGeoReactiveCmd<K, V> redisGeoCmd() {
+        return redisGeoCmd;
+    }
+
+    public RedisHllReactiveCmd<K, V> redisHllCmd() {
+        return redisHllCmd;
+    }
+
+    public RedisKeyReactiveCmd<K, V> redisKeyCmd() {
+        return redisKeyCmd;
+    }
+}
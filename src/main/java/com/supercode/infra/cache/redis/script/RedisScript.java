@@ -0,0 +1,56 @@
+package com.supercode.infra.cache.redis.script;
+
+import io.lettuce.core.ScriptOutputType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 注册到{@link RedisScriptManager}的Lua脚本，SHA1在注册时计算一次
+ *
+ * @author jonathan.ji
+ */
+public final class RedisScript {
+
+    private final String name;
+    private final String text;
+    private final String sha1;
+    private final ScriptOutputType outputType;
+
+    RedisScript(String name, String text, ScriptOutputType outputType) {
+        this.name = name;
+        this.text = text;
+        this.sha1 = sha1(text);
+        this.outputType = outputType;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public String getSha1() {
+        return this.sha1;
+    }
+
+    public ScriptOutputType getOutputType() {
+        return this.outputType;
+    }
+
+    private static String sha1(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.supercode.infra.cache.redis.script;
+
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lua脚本的注册与执行：只发送EVALSHA，节点返回NOSCRIPT时在该节点上SCRIPT LOAD后重试
+ * <p>
+ * 脚本在各节点上只加载一次，之后每次调用只传40字节的SHA1；节点重启、主从切换到没有加载过的节点时
+ * 同样通过NOSCRIPT自动重新加载，调用方无感知。库中所有的脚本都应通过{@link #register}定义为常量。
+ * <p>
+ * 指标：supercode.redis.script.load{script} 因NOSCRIPT重新加载脚本的次数
+ *
+ * @author jonathan.ji
+ */
+@Log4j2
+public final class RedisScriptManager {
+
+    private static final String NOSCRIPT = "NOSCRIPT";
+    private static final Map<String, RedisScript> SCRIPTS = new ConcurrentHashMap<>();
+
+    private RedisScriptManager() {
+    }
+
+    /**
+     * 注册脚本，同名的脚本只能注册一次
+     *
+     * @param name 脚本名，用于日志和指标
+     */
+    public static RedisScript register(String name, ScriptOutputType outputType, String text) {
+        RedisScript script = new RedisScript(name, text, outputType);
+        RedisScript previous = SCRIPTS.putIfAbsent(name, script);
+        if (previous != null && !previous.getSha1().equals(script.getSha1())) {
+            throw new IllegalStateException("script " + name + " is already registered with a different text");
+        }
+        return previous == null ? script : previous;
+    }
+
+    public static List<RedisScript> scripts() {
+        return new ArrayList<>(SCRIPTS.values());
+    }
+
+    /**
+     * 以EVALSHA执行脚本，cmd必须是key所在节点的连接
+     */
+    public static <T> T eval(RedisCommands<String, String> cmd, RedisScript script, String[] keys, String... args) {
+        try {
+            return cmd.evalsha(script.getSha1(), script.getOutputType(), keys, args);
+        } catch (RedisCommandExecutionException ex) {
+            if (ex.getMessage() == null || !ex.getMessage().startsWith(NOSCRIPT)) {
+                throw ex;
+            }
+        }
+        load(cmd, script);
+        return cmd.evalsha(script.getSha1(), script.getOutputType(), keys, args);
+    }
+
+    /**
+     * 在cmd所在的节点上预先加载所有已注册的脚本，可用于启动预热
+     */
+    public static void loadAll(RedisCommands<String, String> cmd) {
+        for (RedisScript script : SCRIPTS.values()) {
+            cmd.scriptLoad(script.getText());
+        }
+    }
+
+    private static void load(RedisCommands<String, String> cmd, RedisScript script) {
+        String sha1 = cmd.scriptLoad(script.getText());
+        if (!script.getSha1().equals(sha1)) {
+            throw new IllegalStateException("unexpected sha1 of script " + script.getName() + ": " + sha1);
+        }
+        Metrics.counter("supercode.redis.script.load", "script", script.getName()).increment();
+        log.info("RedisScriptManager load script {} sha1 is {}", script.getName(), sha1);
+    }
+}
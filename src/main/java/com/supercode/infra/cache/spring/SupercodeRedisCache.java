@@ -0,0 +1,207 @@
+package com.supercode.infra.cache.spring;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.supercode.infra.cache.redis.batch.RedisSingleFlight;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.client.SupercodeRedisCodecClient;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.SetArgs;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * 基于SupercodeRedisClient的Spring Cache实现，供@Cacheable等注解使用
+ * <p>
+ * key为{cacheName}::{key}，值通过RedisSerializer序列化后以byte[]直接存储；命令经由客户端的连接池或共享连接执行，
+ * 因此连接池与命令耗时指标同样适用。可选的进程内一级缓存(Caffeine)只在本进程内失效，其他进程的写入依赖一级缓存的ttl。
+ * <p>
+ * 指标：supercode.redis.cache.gets{cache, result=hit/miss} 二级(Redis)的命中情况；一级缓存以cache={cacheName}-local注册Caffeine指标
+ *
+ * @author jonathan.ji
+ */
+public class SupercodeRedisCache extends AbstractValueAdaptingCache {
+
+    private static final String KEY_SEPARATOR = "::";
+    private static final int CLEAR_BATCH_SIZE = 500;
+
+    private final String name;
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final SupercodeRedisCodecClient<String, byte[]> codecClient;
+    private final Duration ttl;
+    private final RedisSerializer<Object> serializer;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+    private final RedisSingleFlight singleFlight;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param ttl              Redis中的过期时间，0表示不过期
+     * @param localMaximumSize 一级缓存的最大条目数，0表示不启用一级缓存
+     * @param localTtl         一级缓存的过期时间
+     */
+    public SupercodeRedisCache(String name, SupercodeRedisClient<?, ?> supercodeRedisClient, Duration ttl, boolean allowNullValues,
+                               RedisSerializer<Object> serializer, long localMaximumSize, Duration localTtl) {
+        super(allowNullValues);
+        this.name = name;
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.codecClient = supercodeRedisClient.withCodec(SupercodeRedisClient.BYTE_ARRAY_CODEC);
+        this.ttl = ttl;
+        this.serializer = serializer;
+        this.singleFlight = new RedisSingleFlight("cache-" + name);
+        if (localMaximumSize > 0) {
+            this.localCache = Caffeine.newBuilder()
+                    .maximumSize(localMaximumSize)
+                    .expireAfterWrite(localTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(Metrics.globalRegistry, this.localCache, name + "-local");
+        } else {
+            this.localCache = null;
+        }
+        this.hits = Metrics.counter("supercode.redis.cache.gets", "cache", name, "result", "hit");
+        this.misses = Metrics.counter("supercode.redis.cache.gets", "cache", name, "result", "miss");
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this.supercodeRedisClient;
+    }
+
+    public Duration getTtl() {
+        return this.ttl;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        if (this.localCache != null) {
+            Object local = this.localCache.getIfPresent(key);
+            if (local != null) {
+                return local;
+            }
+        }
+        byte[] raw = this.codecClient.get(this.redisKey(key));
+        if (raw == null) {
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        Object storeValue = this.serializer.deserialize(raw);
+        if (this.localCache != null && storeValue != null) {
+            this.localCache.put(key, storeValue);
+        }
+        return storeValue;
+    }
+
+    /**
+     * sync=true的@Cacheable：同一进程内对同一个key只有一个线程执行valueLoader
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = this.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        return this.singleFlight.execute(this.redisKey(key), () -> {
+            ValueWrapper loaded = this.get(key);
+            if (loaded != null) {
+                return (T) loaded.get();
+            }
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+            this.put(key, value);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object storeValue = this.toStoreValue(value);
+        byte[] encoded = this.serializer.serialize(storeValue);
+        String redisKey = this.redisKey(key);
+        if (this.ttl.isZero() || this.ttl.isNegative()) {
+            this.codecClient.set(redisKey, encoded);
+        } else {
+            this.codecClient.psetex(redisKey, this.ttl.toMillis(), encoded);
+        }
+        if (this.localCache != null) {
+            this.localCache.put(key, storeValue);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object storeValue = this.toStoreValue(value);
+        String redisKey = this.redisKey(key);
+        byte[] encoded = this.serializer.serialize(storeValue);
+        SetArgs args = this.ttl.isZero() || this.ttl.isNegative() ? SetArgs.Builder.nx() : SetArgs.Builder.nx().px(this.ttl.toMillis());
+        if ("OK".equals(this.codecClient.sync(cmd -> cmd.set(redisKey, encoded, args)))) {
+            if (this.localCache != null) {
+                this.localCache.put(key, storeValue);
+            }
+            return null;
+        }
+        return this.get(key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        this.evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        if (this.localCache != null) {
+            this.localCache.invalidate(key);
+        }
+        Long deleted = supercodeRedisClient.redisKeyCmd().del(this.redisKey(key));
+        return deleted != null && deleted > 0;
+    }
+
+    /**
+     * 通过SCAN {cacheName}::* 逐批删除，集群模式下遍历所有节点
+     */
+    @Override
+    public void clear() {
+        this.invalidate();
+    }
+
+    @Override
+    public boolean invalidate() {
+        if (this.localCache != null) {
+            this.localCache.invalidateAll();
+        }
+        ScanArgs args = ScanArgs.Builder.matches(this.name + KEY_SEPARATOR + "*").limit(CLEAR_BATCH_SIZE);
+        ScanCursor cursor = ScanCursor.INITIAL;
+        boolean deleted = false;
+        do {
+            KeyScanCursor<String> keys = supercodeRedisClient.redisKeyCmd().scan(cursor, args);
+            if (!keys.getKeys().isEmpty()) {
+                deleted |= supercodeRedisClient.redisKeyCmd().del(keys.getKeys().toArray(new String[0])) > 0;
+            }
+            cursor = keys;
+        } while (!cursor.isFinished());
+        return deleted;
+    }
+
+    private String redisKey(Object key) {
+        return this.name + KEY_SEPARATOR + key;
+    }
+}
@@ -0,0 +1,66 @@
+package com.supercode.infra.cache.spring;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于SupercodeRedisClient的Spring CacheManager，配合@EnableCaching使用
+ * <p>
+ * 每个cache可以单独配置ttl，未配置的cache在第一次使用时以默认ttl创建
+ *
+ * @author jonathan.ji
+ */
+public class SupercodeRedisCacheManager extends AbstractCacheManager {
+
+    private final SupercodeRedisClient<?, ?> supercodeRedisClient;
+    private final Duration defaultTtl;
+    private final Map<String, Duration> cacheTtls;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+    private final RedisSerializer<Object> serializer;
+
+    /**
+     * @param defaultTtl       未单独配置的cache使用的ttl，0表示不过期
+     * @param cacheTtls        cacheName -> ttl
+     * @param localMaximumSize 每个cache的一级缓存最大条目数，0表示不启用一级缓存
+     * @param localTtl         一级缓存的过期时间
+     */
+    public SupercodeRedisCacheManager(SupercodeRedisClient<?, ?> supercodeRedisClient, Duration defaultTtl, Map<String, Duration> cacheTtls,
+                                      long localMaximumSize, Duration localTtl) {
+        this(supercodeRedisClient, defaultTtl, cacheTtls, localMaximumSize, localTtl, RedisSerializer.java());
+    }
+
+    public SupercodeRedisCacheManager(SupercodeRedisClient<?, ?> supercodeRedisClient, Duration defaultTtl, Map<String, Duration> cacheTtls,
+                                      long localMaximumSize, Duration localTtl, RedisSerializer<Object> serializer) {
+        this.supercodeRedisClient = supercodeRedisClient;
+        this.defaultTtl = defaultTtl;
+        this.cacheTtls = cacheTtls;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+        this.serializer = serializer;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        List<Cache> caches = new ArrayList<>(this.cacheTtls.size());
+        this.cacheTtls.forEach((name, ttl) -> caches.add(this.createCache(name, ttl)));
+        return caches;
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return this.createCache(name, this.defaultTtl);
+    }
+
+    private SupercodeRedisCache createCache(String name, Duration ttl) {
+        return new SupercodeRedisCache(name, this.supercodeRedisClient, ttl, true, this.serializer, this.localMaximumSize, this.localTtl);
+    }
+}
@@ -0,0 +1,43 @@
+package com.supercode.infra.cache.utils;
+
+import io.lettuce.core.cluster.SlotHash;
+
+/**
+ * 把一个key扩展为多个分布在不同slot上的key，用于热点key的副本以及分片计数器
+ * <p>
+ * 第0个key就是原始key，第i个key为 {tag}key，tag是按key的hashCode、i逐个尝试得到的，
+ * 使其slot落在把16384个slot按count均分后的第(base + i)段，base为原始key所在的段。
+ * 集群的slot按段分配给各节点，因此count不超过节点数时这些key基本分布在不同节点上。
+ * 只依赖CRC16，与集群拓扑无关，所有客户端算出的key一致。
+ */
+public final class SlotUtils {
+
+    private SlotUtils() {
+    }
+
+    public static String[] spreadKeys(String key, int count) {
+        if (count < 1 || count > SlotHash.SLOT_COUNT) {
+            throw new IllegalArgumentException("count must be between 1 and " + SlotHash.SLOT_COUNT);
+        }
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = spreadKey(key, count, i);
+        }
+        return keys;
+    }
+
+    public static String spreadKey(String key, int count, int index) {
+        if (index == 0) {
+            return key;
+        }
+        int base = SlotHash.getSlot(key) * count / SlotHash.SLOT_COUNT;
+        int range = (base + index) % count;
+        String prefix = Integer.toHexString(key.hashCode()) + ":" + index + ":";
+        for (int attempt = 0; ; attempt++) {
+            String tag = prefix + attempt;
+            if (SlotHash.getSlot(tag) * count / SlotHash.SLOT_COUNT == range) {
+                return "{" + tag + "}" + key;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Disabled
+public class RedisAsyncCmdTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testAsyncString() {
+        String redisKey = "testAsyncString" + System.currentTimeMillis();
+        redisClient.async().redisStringCmd().set(redisKey, "async").join();
+        Assertions.assertEquals("async", redisClient.async().redisStringCmd().get(redisKey).join());
+        Assertions.assertEquals("async", redisClient.redisStringCmd().get(redisKey));
+
+        Assertions.assertEquals("async", redisClient.async().redisStringCmd().getAndDel(redisKey).join());
+        Assertions.assertNull(redisClient.async().redisStringCmd().get(redisKey).join());
+
+        // DEL总是在GET之后执行
+        for (int i = 0; i < 100; i++) {
+            redisClient.redisStringCmd().set(redisKey, String.valueOf(i));
+            Assertions.assertEquals(String.valueOf(i), redisClient.async().redisStringCmd().getAndDel(redisKey).join());
+        }
+        redisClient.redisStringCmd().set(redisKey, "pipeline");
+        List<Object> results = redisClient.pipeline(p -> p.redisStringCmd().getAndDel(redisKey));
+        Assertions.assertEquals("pipeline", results.get(0));
+        Assertions.assertNull(redisClient.redisStringCmd().get(redisKey));
+    }
+
+    /**
+     * 一次请求并发发出多个查询，不需要为每个查询阻塞一个线程
+     */
+    @Test
+    public void testAsyncFanOut() {
+        String redisKey = "testAsyncFanOut" + System.currentTimeMillis();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            redisClient.redisStringCmd().set(redisKey + i, String.valueOf(i));
+            futures.add(redisClient.async().redisStringCmd().get(redisKey + i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertEquals(String.valueOf(i), futures.get(i).join());
+        }
+    }
+
+    @Test
+    public void testAsyncBlpop() {
+        String redisKey = "testAsyncBlpop" + System.currentTimeMillis();
+        CompletableFuture<?> blpop = redisClient.async().redisListCmd().blpop(redisKey, 5);
+        redisClient.async().redisListCmd().rpush(redisKey, "btc").join();
+        Assertions.assertNotNull(blpop.join());
+    }
+}
@@ -0,0 +1,61 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.spring.SupercodeRedisCacheManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Disabled
+public class RedisCacheManagerTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    private static SupercodeRedisCacheManager cacheManager = new SupercodeRedisCacheManager(redisClient, Duration.ofMinutes(1),
+            Collections.singletonMap("users", Duration.ofSeconds(30)), 100, Duration.ofSeconds(5));
+
+    static {
+        cacheManager.afterPropertiesSet();
+    }
+
+    @Test
+    public void testCache() {
+        Cache cache = cacheManager.getCache("users");
+        String key = "testCache" + System.currentTimeMillis();
+        Assertions.assertNull(cache.get(key));
+
+        cache.put(key, 100L);
+        Assertions.assertEquals(100L, cache.get(key, Long.class));
+        Assertions.assertTrue(redisClient.redisKeyCmd().ttl("users::" + key) <= 30);
+
+        cache.put(key + "null", null);
+        Assertions.assertNotNull(cache.get(key + "null"));
+        Assertions.assertNull(cache.get(key + "null").get());
+
+        Assertions.assertTrue(cache.evictIfPresent(key));
+        Assertions.assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testSyncLoad() {
+        Cache cache = cacheManager.getCache("orders");
+        String key = "testSyncLoad" + System.currentTimeMillis();
+        AtomicInteger loads = new AtomicInteger();
+        Assertions.assertEquals("order", cache.get(key, () -> {
+            loads.incrementAndGet();
+            return "order";
+        }));
+        Assertions.assertEquals("order", cache.get(key, () -> {
+            loads.incrementAndGet();
+            return "order";
+        }));
+        Assertions.assertEquals(1, loads.get());
+        cache.clear();
+        Assertions.assertNull(cache.get(key));
+    }
+}
@@ -0,0 +1,59 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.client.SupercodeRedisCodecClient;
+import com.supercode.infra.cache.redis.codec.ByteBufferCodec;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+@Disabled
+public class RedisCodecClientTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    private static final RedisCodec<String, byte[]> BYTES = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
+    @Test
+    public void testByteArray() {
+        SupercodeRedisCodecClient<String, byte[]> bytesClient = redisClient.withCodec(BYTES);
+        Assertions.assertSame(bytesClient, redisClient.withCodec(BYTES));
+
+        String key = "testByteArray" + System.currentTimeMillis();
+        byte[] value = {0, 1, (byte) 0xFF, (byte) 0x80, 127};
+        Assertions.assertEquals("OK", bytesClient.setex(key, 60, value));
+        Assertions.assertArrayEquals(value, bytesClient.get(key));
+        Assertions.assertEquals(1L, bytesClient.del(key));
+        Assertions.assertNull(bytesClient.get(key));
+    }
+
+    @Test
+    public void testByteBuffer() {
+        SupercodeRedisCodecClient<ByteBuffer, ByteBuffer> bufferClient = redisClient.withCodec(ByteBufferCodec.INSTANCE);
+        ByteBuffer key = ByteBuffer.wrap(("testByteBuffer" + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        ByteBuffer value = ByteBuffer.allocateDirect(3).put(new byte[]{1, 2, 3});
+        value.flip();
+
+        Assertions.assertEquals("OK", bufferClient.setex(key, 60, value));
+        Assertions.assertEquals(0, value.position());
+        Assertions.assertEquals(value, bufferClient.get(key));
+        Assertions.assertEquals(1L, bufferClient.del(key));
+    }
+
+    @Test
+    public void testAsync() {
+        SupercodeRedisCodecClient<String, byte[]> bytesClient = redisClient.withCodec(BYTES);
+        String key = "testAsync" + System.currentTimeMillis();
+        byte[] value = "async".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertEquals("OK", bytesClient.async(cmd -> cmd.setex(key, 60, value)).join());
+        Assertions.assertArrayEquals(value, bytesClient.async(cmd -> cmd.get(key)).join());
+        // 与String客户端读写的是同一份数据
+        Assertions.assertEquals("async", redisClient.redisStringCmd().get(key));
+    }
+}
@@ -0,0 +1,98 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.codec.CompressionAlgorithm;
+import com.supercode.infra.cache.redis.codec.CompressionCodec;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.StringCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+@Disabled
+public class RedisCompressionTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    private static String json(int items) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < items; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"user").append(i).append("\",\"status\":\"ACTIVE\"},");
+        }
+        return sb.append("{}]").toString();
+    }
+
+    @Test
+    public void testCodec() {
+        String value = json(1000);
+        for (CompressionAlgorithm algorithm : CompressionAlgorithm.values()) {
+            CompressionCodec<String, String> codec = new CompressionCodec<>(StringCodec.UTF8, 1024, algorithm);
+            ByteBuffer encoded = codec.encodeValue(value);
+            Assertions.assertTrue(encoded.remaining() < value.length() / 4);
+            Assertions.assertEquals(value, codec.decodeValue(encoded));
+
+            // 未达到阈值的value原样写入
+            Assertions.assertEquals("small", codec.decodeValue(codec.encodeValue("small")));
+        }
+    }
+
+    @Test
+    public void testMarkerEscape() {
+        CompressionCodec<byte[], byte[]> codec = new CompressionCodec<>(ByteArrayCodec.INSTANCE);
+        byte[] value = {(byte) 0xFF, 1, 2};
+        ByteBuffer encoded = codec.encodeValue(value);
+        Assertions.assertEquals(5, encoded.remaining());
+        Assertions.assertArrayEquals(value, codec.decodeValue(encoded));
+    }
+
+    @Test
+    public void testDecodeOnly() {
+        String value = json(1000);
+        CompressionCodec<String, String> codec = new CompressionCodec<>(StringCodec.UTF8, 1024, CompressionAlgorithm.DEFLATE);
+        ByteBuffer plain = codec.decodeOnly().encodeValue(value);
+        Assertions.assertEquals(value.length(), plain.remaining());
+        // 能读出压缩codec写入的value
+        Assertions.assertEquals(value, codec.decodeOnly().decodeValue(codec.encodeValue(value)));
+    }
+
+    @Test
+    public void testOnlyValueWritesCompressed() {
+        String key = "testCompressionScope" + System.currentTimeMillis();
+        String value = json(2000);
+        redisClient.enableCompression(8 * 1024, CompressionAlgorithm.DEFLATE);
+        try {
+            // 集合成员不经过压缩连接，服务端看到的是原始数据
+            redisClient.redisSetCmd().sadd(key, value);
+            Assertions.assertTrue(redisClient.redisSetCmd().sismember(key, value));
+        } finally {
+            redisClient.disableCompression();
+        }
+        redisClient.redisKeyCmd().del(key);
+    }
+
+    @Test
+    public void testCoexist() {
+        String key = "testCompression" + System.currentTimeMillis();
+        String value = json(2000);
+        redisClient.redisStringCmd().setex(key + "plain", 60, value);
+
+        redisClient.enableCompression(8 * 1024, CompressionAlgorithm.DEFLATE);
+        try {
+            redisClient.redisStringCmd().setex(key, 60, value);
+            redisClient.redisHashCmd().hset(key + "hash", "field", value);
+            Assertions.assertTrue(redisClient.redisStringCmd().strlen(key) < value.length() / 4);
+            Assertions.assertEquals(value, redisClient.redisStringCmd().get(key));
+            Assertions.assertEquals(value, redisClient.redisHashCmd().hget(key + "hash", "field"));
+            Assertions.assertEquals(value, redisClient.redisStringCmd().get(key + "plain"));
+        } finally {
+            redisClient.disableCompression();
+        }
+        // 关闭压缩后已压缩的值仍然可以读出
+        Assertions.assertEquals(value, redisClient.redisStringCmd().get(key));
+        Assertions.assertEquals((long) value.getBytes(StandardCharsets.UTF_8).length, redisClient.redisStringCmd().strlen(key + "plain"));
+        redisClient.redisKeyCmd().del(key, key + "plain", key + "hash");
+    }
+}
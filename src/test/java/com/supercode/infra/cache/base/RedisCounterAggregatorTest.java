@@ -0,0 +1,68 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.counter.RedisCounterAggregator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Disabled
+public class RedisCounterAggregatorTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testAggregate() throws InterruptedException {
+        String key = "testAggregate" + System.currentTimeMillis();
+        redisClient.enableCounterAggregation(Duration.ofSeconds(60), Long.MAX_VALUE, 1000);
+        RedisCounterAggregator aggregator = redisClient.getCounterAggregator();
+
+        int threads = 16;
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    aggregator.incrby(key, 1);
+                    aggregator.hincrby(key + "hash", "field" + (i % 10), 1);
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+
+        // 还没有flush
+        Assertions.assertNull(redisClient.redisStringCmd().get(key));
+        Assertions.assertEquals(11, aggregator.pendingKeys());
+        aggregator.flush();
+        Assertions.assertEquals(160000L, redisClient.redisStringCmd().getLong(key));
+        Assertions.assertEquals("16000", redisClient.redisHashCmd().hget(key + "hash", "field0"));
+
+        aggregator.incrby(key, 5);
+        redisClient.disableCounterAggregation();
+        Assertions.assertEquals(160005L, redisClient.redisStringCmd().getLong(key));
+        redisClient.redisKeyCmd().del(key, key + "hash");
+    }
+
+    @Test
+    public void testWriteThrough() {
+        String key = "testWriteThrough" + System.currentTimeMillis();
+        redisClient.enableCounterAggregation(Duration.ofSeconds(60), Long.MAX_VALUE, 1);
+        try {
+            redisClient.getCounterAggregator().incrby(key + "a", 1);
+            // 超出maxKeys的key直接写入
+            redisClient.getCounterAggregator().incrby(key + "b", 1);
+            Assertions.assertEquals("1", redisClient.redisStringCmd().get(key + "b"));
+        } finally {
+            redisClient.disableCounterAggregation();
+        }
+        Assertions.assertEquals("1", redisClient.redisStringCmd().get(key + "a"));
+        redisClient.redisKeyCmd().del(key + "a", key + "b");
+    }
+}
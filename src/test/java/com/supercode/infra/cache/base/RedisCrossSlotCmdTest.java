@@ -0,0 +1,42 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import io.lettuce.core.KeyValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Disabled
+public class RedisCrossSlotCmdTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testCrossSlotMultiKeyCmd() {
+        String redisKey = "testCrossSlotMultiKeyCmd" + System.currentTimeMillis();
+        String[] keys = new String[1000];
+        Map<String, String> kv = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = redisKey + i;
+            if (i % 2 == 0) {
+                kv.put(keys[i], String.valueOf(i));
+            }
+        }
+        Assertions.assertEquals("OK", redisClient.redisStringCmd().mset(kv));
+
+        List<KeyValue<String, String>> values = redisClient.redisStringCmd().mget(keys);
+        Assertions.assertEquals(keys.length, values.size());
+        for (int i = 0; i < keys.length; i++) {
+            Assertions.assertEquals(keys[i], values.get(i).getKey());
+            Assertions.assertEquals(i % 2 == 0, values.get(i).hasValue());
+        }
+
+        Assertions.assertEquals(kv.size(), redisClient.redisKeyCmd().exists(keys));
+        Assertions.assertEquals(kv.size(), redisClient.redisKeyCmd().del(keys));
+        Assertions.assertEquals(0L, redisClient.redisKeyCmd().exists(keys));
+    }
+}
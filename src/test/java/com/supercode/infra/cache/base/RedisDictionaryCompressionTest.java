@@ -0,0 +1,71 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Disabled
+public class RedisDictionaryCompressionTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    private static String profile(int id) {
+        return "{\"userId\":" + id + ",\"nickname\":\"user" + id + "\",\"avatar\":\"https://static.example.com/avatar/" + id
+                + ".png\",\"level\":" + (id % 10) + ",\"status\":\"ACTIVE\",\"language\":\"en-US\",\"timezone\":\"America/New_York\"}";
+    }
+
+    @Test
+    public void testDictionary() throws InterruptedException {
+        String key = "testDictionary" + System.currentTimeMillis();
+        redisClient.enableDictionaryCompression("test-profile-" + System.currentTimeMillis(), 64);
+        try {
+            // 抽样攒够后在后台训练字典，只有同步的写value命令会经过压缩codec
+            for (int i = 0; i < 20000; i += 500) {
+                Map<String, String> fields = new HashMap<>();
+                for (int j = i; j < i + 500; j++) {
+                    fields.put(String.valueOf(j), profile(j));
+                }
+                redisClient.redisHashCmd().hmset(key, fields);
+            }
+            long deadline = System.currentTimeMillis() + 10000;
+            while (redisClient.getStringCodec().getDictionary().getCurrentId() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            Assertions.assertTrue(redisClient.getStringCodec().getDictionary().getCurrentId() > 0);
+
+            String value = profile(20001);
+            redisClient.redisHashCmd().hset(key, "20001", value);
+            Assertions.assertTrue(redisClient.redisHashCmd().hstrlen(key, "20001") < value.length() / 2);
+            Assertions.assertEquals(value, redisClient.redisHashCmd().hget(key, "20001"));
+            Assertions.assertEquals(profile(1), redisClient.redisHashCmd().hget(key, "1"));
+
+            // 切换到另一个名字后，旧字典压缩的value仍然可以读出
+            redisClient.enableDictionaryCompression("test-profile-other-" + System.currentTimeMillis(), 64);
+            Assertions.assertEquals(value, redisClient.redisHashCmd().hget(key, "20001"));
+        } finally {
+            redisClient.disableDictionaryCompression();
+            redisClient.redisKeyCmd().del(key);
+        }
+    }
+
+    @Test
+    public void testMinBytes() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> redisClient.enableDictionaryCompression("test-profile-min", 8));
+    }
+
+    @Test
+    public void testNameHashCollision() {
+        // "Aa"与"BB"的hashCode相同，value头部无法区分两个字典
+        redisClient.enableDictionaryCompression("test-profile-Aa", 64);
+        try {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> redisClient.enableDictionaryCompression("test-profile-BB", 64));
+            Assertions.assertEquals("test-profile-Aa", redisClient.getStringCodec().getDictionary().getName());
+        } finally {
+            redisClient.disableDictionaryCompression();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.exception.RedisInfraException;
+import com.supercode.infra.cache.redis.batch.RedisGetBatcher;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+@Disabled
+public class RedisGetBatcherTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testBatchedGet() {
+        String prefix = "testGetBatcher" + System.currentTimeMillis();
+        for (int i = 0; i < 20; i++) {
+            redisClient.redisStringCmd().set(prefix + i, String.valueOf(i));
+        }
+        RedisGetBatcher batcher = new RedisGetBatcher(redisClient, Duration.ofMillis(5), 8);
+        try {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(batcher.get(prefix + i));
+            }
+            // 同一个批次内重复的key
+            futures.add(batcher.get(prefix + 0));
+            futures.add(batcher.get(prefix + "missing"));
+            for (int i = 0; i < 20; i++) {
+                Assertions.assertEquals(String.valueOf(i), futures.get(i).join());
+            }
+            Assertions.assertEquals("0", futures.get(20).join());
+            Assertions.assertNull(futures.get(21).join());
+        } finally {
+            batcher.close();
+        }
+    }
+
+    @Test
+    public void testCloseCompletesPendingGets() {
+        // 窗口足够长，close时请求还在flusher的批次或队列中
+        RedisGetBatcher batcher = new RedisGetBatcher(redisClient, Duration.ofSeconds(5), 1000);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(batcher.get("testGetBatcherClose" + i));
+        }
+        batcher.close();
+        futures.add(batcher.get("testGetBatcherClose"));
+        for (CompletableFuture<String> future : futures) {
+            CompletionException ex = Assertions.assertThrows(CompletionException.class,
+                    () -> future.orTimeout(1, TimeUnit.SECONDS).join());
+            Assertions.assertTrue(ex.getCause() instanceof RedisInfraException);
+        }
+    }
+
+    @Test
+    public void testClientGetBatching() {
+        String key = "testClientGetBatching" + System.currentTimeMillis();
+        redisClient.redisStringCmd().set(key, "value");
+        redisClient.enableGetBatching(Duration.ofMillis(2), 64);
+        try {
+            Assertions.assertEquals("value", redisClient.redisStringCmd().get(key));
+        } finally {
+            redisClient.disableGetBatching();
+        }
+        Assertions.assertEquals("value", redisClient.redisStringCmd().get(key));
+    }
+}
@@ -0,0 +1,61 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.pojo.HotKey;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.hotkey.RedisHotKeyDetector;
+import io.micrometer.core.instrument.Metrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+@Disabled
+public class RedisHotKeyTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testDetect() {
+        String hot = "testHotKey" + System.currentTimeMillis();
+        redisClient.enableHotKeyDetection(Duration.ofSeconds(10), 2000, 5, false);
+        try {
+            redisClient.redisStringCmd().setex(hot, 60, "hot");
+            for (int i = 0; i < 5000; i++) {
+                redisClient.redisStringCmd().get(hot);
+                redisClient.redisStringCmd().get(hot + ":cold:" + i);
+            }
+            RedisHotKeyDetector detector = redisClient.getHotKeyDetector();
+            Assertions.assertTrue(detector.isHot(hot));
+            List<HotKey> hotKeys = detector.topKeys();
+            Assertions.assertEquals(hot, hotKeys.get(0).getKey());
+            Assertions.assertTrue(detector.topKeysByNode().get(hotKeys.get(0).getNode()).size() >= 1);
+            Assertions.assertFalse(detector.isHot(hot + ":cold:1"));
+        } finally {
+            redisClient.disableHotKeyDetection();
+            redisClient.redisKeyCmd().del(hot);
+        }
+        // 关闭检测后gauge随实例一起移除
+        Assertions.assertNull(Metrics.globalRegistry.find("supercode.redis.hotkey.max").gauge());
+    }
+
+    @Test
+    public void testPromote() {
+        String hot = "testPromote" + System.currentTimeMillis();
+        redisClient.enableHotKeyDetection(Duration.ofSeconds(10), 1000, 5, true);
+        try {
+            redisClient.redisStringCmd().setex(hot, 60, "hot");
+            for (int i = 0; i < 3000; i++) {
+                redisClient.redisStringCmd().get(hot);
+            }
+            Assertions.assertTrue(redisClient.getHotKeyDetector().isHot(hot));
+            // 热点key进入近端缓存
+            Assertions.assertTrue(redisClient.getNearCache().size() > 0);
+        } finally {
+            redisClient.disableHotKeyDetection();
+            redisClient.disableNearCache();
+            redisClient.redisKeyCmd().del(hot);
+        }
+    }
+}
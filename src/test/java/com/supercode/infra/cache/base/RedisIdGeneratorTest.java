@@ -0,0 +1,57 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.counter.RedisIdGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Disabled
+public class RedisIdGeneratorTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testNextId() {
+        String key = "testIdGenerator" + System.currentTimeMillis();
+        RedisIdGenerator generator = redisClient.idGenerator(key, 100);
+        Assertions.assertSame(generator, redisClient.idGenerator(key, 100));
+        for (long i = 1; i <= 1000; i++) {
+            Assertions.assertEquals(i, generator.nextId());
+        }
+        // 1000个ID最多只需要10次INCRBY
+        Assertions.assertTrue(Long.parseLong(redisClient.redisStringCmd().get(key)) >= 1000);
+    }
+
+    @Test
+    public void testUniqueAcrossGenerators() throws InterruptedException {
+        String key = "testIdGeneratorUnique" + System.currentTimeMillis();
+        RedisIdGenerator first = new RedisIdGenerator(redisClient, key, 10);
+        RedisIdGenerator second = new RedisIdGenerator(redisClient, key, 10);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 16;
+        int perThread = 10000;
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            RedisIdGenerator generator = t % 2 == 0 ? first : second;
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.nextId());
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+        Assertions.assertEquals(threads * perThread, ids.size());
+        // 消耗很快时步长会增大
+        Assertions.assertTrue(first.getStep() > 10);
+    }
+}
@@ -0,0 +1,60 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Disabled
+public class RedisLoadingCacheTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testLoadOnce() throws Exception {
+        String redisKey = "testLoadOnce" + System.currentTimeMillis();
+        AtomicInteger loads = new AtomicInteger();
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return redisClient.loadingCache().get(redisKey, Duration.ofSeconds(60), () -> {
+                    loads.incrementAndGet();
+                    return "value";
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<String> future : futures) {
+            Assertions.assertEquals("value", future.get());
+        }
+        executor.shutdown();
+        Assertions.assertEquals(1, loads.get());
+        redisClient.redisKeyCmd().del(redisKey);
+    }
+
+    @Test
+    public void testEarlyRefresh() throws InterruptedException {
+        String redisKey = "testEarlyRefresh" + System.currentTimeMillis();
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 30; i++) {
+            redisClient.loadingCache().get(redisKey, Duration.ofSeconds(1), () -> String.valueOf(loads.incrementAndGet()));
+            Thread.sleep(100);
+        }
+        // 1秒的有效期内持续读取，过期前应该已经被提前刷新过
+        Assertions.assertTrue(loads.get() > 1);
+        redisClient.redisKeyCmd().del(redisKey);
+    }
+}
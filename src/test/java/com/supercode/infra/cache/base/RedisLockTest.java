@@ -359,4 +359,65 @@ public class RedisLockTest {
         Assertions.assertFalse(getLockFlag);
         redisClient.redisLockCmd().tryRedLock(lockName);
     }
+
+    @Test
+    public void testRetryNotifiedOnRelease() throws InterruptedException {
+        String lockName = "testRetryNotifiedOnRelease" + System.currentTimeMillis();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            Assertions.assertTrue(redisClient.redisLockCmd().tryRedLock(lockName, 60000));
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            redisClient.redisLockCmd().releaseRedLock(lockName);
+        });
+        holder.start();
+        locked.await();
+
+        AtomicInteger waitMillis = new AtomicInteger();
+        Thread waiter = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            Assertions.assertTrue(redisClient.redisLockCmd().tryRedLockWithRetry(lockName, 10000));
+            waitMillis.set((int) (System.currentTimeMillis() - start));
+            redisClient.redisLockCmd().releaseRedLock(lockName);
+        });
+        waiter.start();
+        Thread.sleep(300);
+        release.countDown();
+        waiter.join();
+        holder.join();
+        // 释放通知唤醒等待者，不需要等到兜底轮询(1秒)
+        logger.info("waited {} ms for the lock", waitMillis.get());
+        Assertions.assertTrue(waitMillis.get() < 800);
+    }
+
+    @Test
+    public void testLeaseRenewal() throws InterruptedException {
+        String lockName = "testLeaseRenewal" + System.currentTimeMillis();
+        String resource = redisClient.redisLockCmd().getLockKey(lockName);
+        Assertions.assertTrue(redisClient.redisLockCmd().tryRedLockWithLease(lockName, 3000, 0));
+        // 超过租约时长后仍然持有
+        Thread.sleep(7000);
+        Assertions.assertTrue(redisClient.redisKeyCmd().pttl(resource) > 0);
+        Assertions.assertEquals(1, redisClient.getLockWatchdog().size());
+        Assertions.assertTrue(redisClient.redisLockCmd().releaseRedLock(lockName));
+        Assertions.assertEquals(0, redisClient.getLockWatchdog().size());
+    }
+
+    @Test
+    public void testLeaseStopsWhenOwnerDies() throws InterruptedException {
+        String lockName = "testLeaseStopsWhenOwnerDies" + System.currentTimeMillis();
+        Thread owner = new Thread(() -> Assertions.assertTrue(redisClient.redisLockCmd().tryRedLockWithLease(lockName, 3000, 0)));
+        owner.start();
+        owner.join();
+        // 持有线程结束后不再续期，锁在租约内过期
+        Thread.sleep(4000);
+        Assertions.assertEquals(0, redisClient.getLockWatchdog().size());
+        Assertions.assertTrue(redisClient.redisLockCmd().tryRedLock(lockName, 3000));
+        redisClient.redisLockCmd().releaseRedLock(lockName);
+    }
 }
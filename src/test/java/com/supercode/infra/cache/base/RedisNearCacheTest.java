@@ -0,0 +1,139 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.near.RedisNearCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Disabled
+public class RedisNearCacheTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    static {
+        redisClient.enableNearCache(1000, Duration.ofSeconds(30));
+    }
+
+    @Test
+    public void testStringNearCache() {
+        String redisKey = "testStringNearCache" + System.currentTimeMillis();
+        redisClient.redisStringCmd().setex(redisKey, 60, "v1");
+        Assertions.assertEquals("v1", redisClient.redisStringCmd().get(redisKey));
+        Assertions.assertEquals(1, redisClient.getNearCache().size());
+
+        // 通过本客户端的写操作会失效本地缓存
+        redisClient.redisStringCmd().setex(redisKey, 60, "v2");
+        Assertions.assertEquals("v2", redisClient.redisStringCmd().get(redisKey));
+
+        redisClient.redisKeyCmd().del(redisKey);
+        Assertions.assertNull(redisClient.redisStringCmd().get(redisKey));
+    }
+
+    @Test
+    public void testHashNearCache() {
+        String redisKey = "testHashNearCache" + System.currentTimeMillis();
+        redisClient.redisHashCmd().hset(redisKey, "f1", "v1");
+        redisClient.redisKeyCmd().expire(redisKey, 60);
+        Assertions.assertEquals("v1", redisClient.redisHashCmd().hget(redisKey, "f1"));
+        Assertions.assertNull(redisClient.redisHashCmd().hget(redisKey, "f2"));
+
+        redisClient.redisHashCmd().hset(redisKey, "f2", "v2");
+        Map<String, String> all = redisClient.redisHashCmd().hgetall(redisKey);
+        Assertions.assertEquals(2, all.size());
+        Assertions.assertEquals("v2", redisClient.redisHashCmd().hget(redisKey, "f2"));
+
+        redisClient.async().redisHashCmd().hdel(redisKey, "f1").join();
+        Assertions.assertNull(redisClient.redisHashCmd().hget(redisKey, "f1"));
+    }
+
+    @Test
+    public void testInvalidateDuringLoad() {
+        RedisNearCache nearCache = new RedisNearCache(100, Duration.ofSeconds(30));
+        try {
+            // 加载期间其他key的失效不影响本次写入
+            Assertions.assertEquals("a", nearCache.get("a", () -> {
+                nearCache.invalidate("b");
+                return "a";
+            }));
+            Assertions.assertEquals("a", nearCache.get("a", () -> "stale"));
+
+            // 加载期间本key被失效时丢弃本次结果
+            Assertions.assertEquals("old", nearCache.get("c", () -> {
+                nearCache.invalidate("c");
+                return "old";
+            }));
+            Assertions.assertEquals("new", nearCache.get("c", () -> "new"));
+        } finally {
+            nearCache.close();
+        }
+    }
+
+    @Test
+    public void testMetricsRebind() {
+        Metrics.addRegistry(new SimpleMeterRegistry());
+        // 客户端的近端缓存同样注册了指标，先关闭
+        redisClient.disableNearCache();
+        RedisNearCache first = new RedisNearCache(100, Duration.ofSeconds(30));
+        first.get("k", () -> "v");
+        first.get("k", () -> "v");
+        first.close();
+        RedisNearCache second = new RedisNearCache(100, Duration.ofSeconds(30));
+        try {
+            second.get("k", () -> "v");
+            second.get("k", () -> "v");
+            FunctionCounter hits = Metrics.globalRegistry.find("cache.gets")
+                    .tags("cache", RedisNearCache.METRIC_CACHE_NAME, "result", "hit").functionCounter();
+            Assertions.assertNotNull(hits);
+            Assertions.assertEquals(1, hits.count());
+        } finally {
+            second.close();
+            redisClient.enableNearCache(1000, Duration.ofSeconds(30));
+        }
+    }
+
+    @Test
+    public void testLoadingMarkerCountedAsMiss() {
+        Metrics.addRegistry(new SimpleMeterRegistry());
+        redisClient.disableNearCache();
+        RedisNearCache nearCache = new RedisNearCache(100, Duration.ofSeconds(30));
+        try {
+            // 加载期间同一个key的读取只读到占位标记，按未命中记录
+            nearCache.get("k", () -> nearCache.get("k", () -> "v"));
+            FunctionCounter hits = Metrics.globalRegistry.find("cache.gets")
+                    .tags("cache", RedisNearCache.METRIC_CACHE_NAME, "result", "hit").functionCounter();
+            FunctionCounter misses = Metrics.globalRegistry.find("cache.gets")
+                    .tags("cache", RedisNearCache.METRIC_CACHE_NAME, "result", "miss").functionCounter();
+            Assertions.assertEquals(0, hits.count());
+            Assertions.assertEquals(2, misses.count());
+        } finally {
+            nearCache.close();
+            redisClient.enableNearCache(1000, Duration.ofSeconds(30));
+        }
+    }
+
+    @Test
+    public void testClientTrackingInvalidation() throws InterruptedException {
+        SupercodeRedisClient<String, String> otherClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+        redisClient.enableClientTracking();
+        try {
+            String redisKey = "testClientTrackingInvalidation" + System.currentTimeMillis();
+            otherClient.redisStringCmd().setex(redisKey, 60, "v1");
+            Assertions.assertEquals("v1", redisClient.redisStringCmd().get(redisKey));
+
+            // 其他客户端的写入由服务端推送失效通知
+            otherClient.redisStringCmd().setex(redisKey, 60, "v2");
+            Thread.sleep(100);
+            Assertions.assertEquals("v2", redisClient.redisStringCmd().get(redisKey));
+        } finally {
+            redisClient.disableClientTracking();
+            otherClient.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+@Disabled
+public class RedisPipelineTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testPipeline() {
+        String redisKey = "testPipeline" + System.currentTimeMillis();
+        List<Object> results = redisClient.pipeline(p -> {
+            for (int i = 0; i < 500; i++) {
+                p.redisHashCmd().hset(redisKey + i, "field", String.valueOf(i));
+                p.redisKeyCmd().expire(redisKey + i, 60);
+            }
+        });
+        Assertions.assertEquals(1000, results.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertEquals(Boolean.TRUE, results.get(2 * i));
+            Assertions.assertEquals(Boolean.TRUE, results.get(2 * i + 1));
+            Assertions.assertEquals(String.valueOf(i), redisClient.redisHashCmd().hget(redisKey + i, "field"));
+        }
+    }
+
+    @Test
+    public void testPipelineFailedCommand() {
+        String redisKey = "testPipelineFailedCommand" + System.currentTimeMillis();
+        redisClient.redisStringCmd().set(redisKey, "not a hash");
+        List<Object> results = redisClient.pipeline(p -> {
+            p.redisHashCmd().hget(redisKey, "field");
+            p.redisStringCmd().get(redisKey);
+        });
+        Assertions.assertTrue(results.get(0) instanceof Throwable);
+        Assertions.assertEquals("not a hash", results.get(1));
+    }
+
+    @Test
+    public void testPipelineCombinedCalls() {
+        String redisKey = "testPipelineCombinedCalls" + System.currentTimeMillis();
+        redisClient.redisStringCmd().set(redisKey, "value");
+        List<Object> results = redisClient.pipeline(p -> {
+            p.redisStringCmd().setnx(redisKey + "nx", "value", 60);
+            p.redisStringCmd().getAndDel(redisKey);
+            p.redisStringCmd().getLong(redisKey + "missing");
+            p.redisKeyCmd().expire(redisKey + "nx", 60);
+        });
+        Assertions.assertEquals(4, results.size());
+        Assertions.assertEquals(Boolean.TRUE, results.get(0));
+        Assertions.assertEquals("value", results.get(1));
+        Assertions.assertEquals(0L, results.get(2));
+        Assertions.assertEquals(Boolean.TRUE, results.get(3));
+        Assertions.assertNull(redisClient.redisStringCmd().get(redisKey));
+    }
+}
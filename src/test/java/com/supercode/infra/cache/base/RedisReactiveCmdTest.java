@@ -0,0 +1,73 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import io.lettuce.core.KeyValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+@Disabled
+public class RedisReactiveCmdTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testReactiveString() {
+        String redisKey = "testReactiveString" + System.currentTimeMillis();
+        Assertions.assertEquals("OK", redisClient.reactive().redisStringCmd().setex(redisKey, 60, "reactive").block());
+        Assertions.assertEquals("reactive", redisClient.reactive().redisStringCmd().get(redisKey).block());
+        Assertions.assertEquals("reactive", redisClient.redisStringCmd().get(redisKey));
+
+        // 命令是惰性的，订阅之后才会发出
+        Mono<String> set = redisClient.reactive().redisStringCmd().set(redisKey, "lazy");
+        Assertions.assertEquals("reactive", redisClient.redisStringCmd().get(redisKey));
+        set.block();
+        Assertions.assertEquals("lazy", redisClient.redisStringCmd().get(redisKey));
+
+        redisClient.redisKeyCmd().del(redisKey);
+        Assertions.assertNull(redisClient.reactive().redisStringCmd().get(redisKey).block());
+    }
+
+    @Test
+    public void testReactiveList() {
+        String redisKey = "testReactiveList" + System.currentTimeMillis();
+        redisClient.reactive().redisListCmd().rpush(redisKey, "a", "b", "c").block();
+        List<String> values = redisClient.reactive().redisListCmd().lrange(redisKey, 0, -1).collectList().block();
+        Assertions.assertEquals(Arrays.asList("a", "b", "c"), values);
+        Assertions.assertEquals(2, redisClient.reactive().redisListCmd().lrange(redisKey, 0, -1).take(2).count().block());
+        redisClient.redisKeyCmd().del(redisKey);
+    }
+
+    @Test
+    public void testReactiveBlpop() {
+        String redisKey = "testReactiveBlpop" + System.currentTimeMillis();
+        int active = redisClient.getPool().getNumActive();
+        Mono<KeyValue<String, String>> blpop = redisClient.reactive().redisListCmd().blpop(redisKey, 5).cache();
+        blpop.subscribe();
+        redisClient.reactive().redisListCmd().rpush(redisKey, "btc").block();
+        KeyValue<String, String> popped = blpop.block(Duration.ofSeconds(10));
+        Assertions.assertNotNull(popped);
+        Assertions.assertEquals("btc", popped.getValue());
+        // 阻塞命令借用的连接在命令结束后归还
+        Assertions.assertEquals(active, redisClient.getPool().getNumActive());
+    }
+
+    @Test
+    public void testReactiveBlpopCancel() throws InterruptedException {
+        String redisKey = "testReactiveBlpopCancel" + System.currentTimeMillis();
+        long destroyed = redisClient.getPool().getDestroyedCount();
+        Assertions.assertThrows(RuntimeException.class,
+                () -> redisClient.reactive().redisListCmd().blpop(redisKey, 5).timeout(Duration.ofMillis(200)).block());
+        // 取消后连接被废弃，服务端的BLPOP随连接关闭，之后写入的元素不会被取走
+        Thread.sleep(100);
+        Assertions.assertEquals(destroyed + 1, redisClient.getPool().getDestroyedCount());
+        redisClient.redisListCmd().rpush(redisKey, "kept");
+        Assertions.assertEquals(1L, redisClient.redisListCmd().llen(redisKey));
+        redisClient.redisKeyCmd().del(redisKey);
+    }
+}
@@ -0,0 +1,135 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.lock.RedisLockOwner;
+import com.supercode.infra.cache.lock.RedisReadWriteLock;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+@Disabled
+public class RedisReadWriteLockTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379,
+            200, 200, 50, true, true, 0);
+
+    @Test
+    public void testSharedReadExclusiveWrite() {
+        RedisReadWriteLock lock = redisClient.readWriteLock("testReadWrite" + System.currentTimeMillis());
+        RedisLockOwner reader1 = RedisLockOwner.create();
+        RedisLockOwner reader2 = RedisLockOwner.create();
+        RedisLockOwner writer = RedisLockOwner.create();
+        Assertions.assertTrue(lock.tryReadLock(reader1, 30000, 0));
+        Assertions.assertTrue(lock.tryReadLock(reader2, 30000, 0));
+        Assertions.assertEquals("read", lock.getMode());
+        Assertions.assertFalse(lock.tryWriteLock(writer, 30000, 0));
+
+        Assertions.assertEquals(0L, lock.unlockRead(reader1));
+        Assertions.assertEquals(0L, lock.unlockRead(reader2));
+        Assertions.assertNull(lock.getMode());
+
+        Assertions.assertTrue(lock.tryWriteLock(writer, 30000, 0));
+        Assertions.assertTrue(lock.tryWriteLock(writer, 30000, 0));
+        Assertions.assertFalse(lock.tryReadLock(reader1, 30000, 0));
+        // 写锁持有者可以获取读锁(降级)
+        Assertions.assertTrue(lock.tryReadLock(writer, 30000, 0));
+        Assertions.assertEquals(1L, lock.unlockWrite(writer));
+        Assertions.assertEquals(0L, lock.unlockWrite(writer));
+        Assertions.assertEquals("read", lock.getMode());
+        Assertions.assertTrue(lock.tryReadLock(reader1, 30000, 0));
+        Assertions.assertEquals(0L, lock.unlockRead(writer));
+        Assertions.assertEquals(0L, lock.unlockRead(reader1));
+        Assertions.assertEquals(-1L, lock.unlockRead(reader1));
+    }
+
+    @Test
+    public void testWriterPreference() throws InterruptedException {
+        RedisReadWriteLock lock = redisClient.readWriteLock("testWriterPreference" + System.currentTimeMillis());
+        RedisLockOwner reader = RedisLockOwner.create();
+        Assertions.assertTrue(lock.tryReadLock(reader, 30000, 0));
+        CompletableFuture<Boolean> writer = CompletableFuture.supplyAsync(() -> lock.tryWriteLock(RedisLockOwner.of("writer"), 30000, 10000));
+        Thread.sleep(200);
+        // 有写锁在等待时新的读锁需要等待，已持有读锁的可以重入
+        Assertions.assertFalse(lock.tryReadLock(RedisLockOwner.create(), 30000, 0));
+        Assertions.assertTrue(lock.tryReadLock(reader, 30000, 0));
+        Assertions.assertEquals(1L, lock.unlockRead(reader));
+        Assertions.assertEquals(0L, lock.unlockRead(reader));
+        Assertions.assertTrue(writer.join());
+        Assertions.assertEquals("write", lock.getMode());
+        Assertions.assertEquals(0L, lock.unlockWrite(RedisLockOwner.of("writer")));
+    }
+
+    /**
+     * 读多写少(95%读)时读写锁与独占锁的吞吐对比，临界区耗时2ms
+     */
+    @Test
+    public void benchmark() throws InterruptedException {
+        int threads = 64;
+        long durationMillis = 10000;
+        String name = "benchmarkReadWrite" + System.currentTimeMillis();
+        RedisReadWriteLock rwLock = redisClient.readWriteLock(name);
+        long rwOps = run(threads, durationMillis, () -> {
+            RedisLockOwner owner = RedisLockOwner.create();
+            if (ThreadLocalRandom.current().nextInt(100) < 95) {
+                if (rwLock.tryReadLock(owner, 30000, 60000)) {
+                    work();
+                    rwLock.unlockRead(owner);
+                    return true;
+                }
+            } else if (rwLock.tryWriteLock(owner, 30000, 60000)) {
+                work();
+                rwLock.unlockWrite(owner);
+                return true;
+            }
+            return false;
+        });
+        long exclusiveOps = run(threads, durationMillis, () -> {
+            if (redisClient.redisLockCmd().tryRedLockWithRetry(name, 30000, 60000)) {
+                work();
+                redisClient.redisLockCmd().releaseRedLock(name);
+                return true;
+            }
+            return false;
+        });
+        System.out.printf("read-write lock ops/s=%d exclusive lock ops/s=%d%n", rwOps * 1000 / durationMillis, exclusiveOps * 1000 / durationMillis);
+        Assertions.assertTrue(rwOps > exclusiveOps);
+    }
+
+    private static long run(int threads, long durationMillis, BooleanSupplier op) throws InterruptedException {
+        AtomicLong ops = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.currentTimeMillis() + durationMillis;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    if (op.getAsBoolean()) {
+                        ops.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+        return ops.get();
+    }
+
+    private static void work() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.lock.RedisLockOwner;
+import com.supercode.infra.cache.lock.RedisReentrantLock;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Disabled
+public class RedisReentrantLockTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testReentrantAcrossThreads() {
+        RedisReentrantLock lock = redisClient.reentrantLock("testReentrant" + System.currentTimeMillis());
+        RedisLockOwner owner = RedisLockOwner.create();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Assertions.assertTrue(lock.tryLock(owner, 30000, 0));
+        // 同一个持有者在其他线程中重入
+        Assertions.assertTrue(CompletableFuture.supplyAsync(() -> lock.tryLock(owner, 30000, 0), executor).join());
+        Assertions.assertEquals(2, lock.getHoldCount(owner));
+        // 其他持有者无法获取
+        Assertions.assertFalse(CompletableFuture.supplyAsync(() -> lock.tryLock(RedisLockOwner.create(), 30000, 0), executor).join());
+
+        Assertions.assertEquals(1L, CompletableFuture.supplyAsync(() -> lock.unlock(owner), executor).join());
+        Assertions.assertTrue(lock.isLocked());
+        Assertions.assertEquals(0L, lock.unlock(owner));
+        Assertions.assertFalse(lock.isLocked());
+        Assertions.assertEquals(-1L, lock.unlock(owner));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testWaitAndLease() throws InterruptedException {
+        RedisReentrantLock lock = redisClient.reentrantLock("testReentrantLease" + System.currentTimeMillis());
+        RedisLockOwner holder = RedisLockOwner.of("holder");
+        Assertions.assertTrue(lock.tryLockWithLease(holder, 3000, 0));
+        // 超过租约时长后仍然持有
+        Thread.sleep(5000);
+        Assertions.assertEquals(1, lock.getHoldCount(holder));
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> lock.tryLock(RedisLockOwner.of("waiter"), 30000, 10000));
+        Thread.sleep(200);
+        long releaseAt = System.currentTimeMillis();
+        Assertions.assertEquals(0L, lock.unlock(holder));
+        Assertions.assertTrue(waiter.join());
+        Assertions.assertTrue(System.currentTimeMillis() - releaseAt < 500);
+        Assertions.assertEquals(0L, lock.unlock(RedisLockOwner.of("waiter")));
+    }
+}
@@ -0,0 +1,39 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+@Disabled
+public class RedisReplicatedKeyTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testString() {
+        String key = "testReplicated" + System.currentTimeMillis();
+        Assertions.assertEquals("OK", redisClient.redisStringCmd().setexReplicated(key, 60, "config", 4));
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals("config", redisClient.redisStringCmd().getReplicated(key, 4));
+        }
+        // 第0个副本就是key本身
+        Assertions.assertEquals("config", redisClient.redisStringCmd().get(key));
+        Assertions.assertEquals(4L, redisClient.redisKeyCmd().delReplicated(key, 4));
+        Assertions.assertNull(redisClient.redisStringCmd().getReplicated(key, 4));
+    }
+
+    @Test
+    public void testHash() {
+        String key = "testReplicatedHash" + System.currentTimeMillis();
+        redisClient.redisHashCmd().hmsetReplicated(key, Collections.singletonMap("feature", "on"), 3);
+        redisClient.redisKeyCmd().expireReplicated(key, 60, 3);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals("on", redisClient.redisHashCmd().hgetReplicated(key, "feature", 3));
+            Assertions.assertEquals("on", redisClient.redisHashCmd().hgetallReplicated(key, 3).get("feature"));
+        }
+        Assertions.assertEquals(3L, redisClient.redisKeyCmd().delReplicated(key, 3));
+    }
+}
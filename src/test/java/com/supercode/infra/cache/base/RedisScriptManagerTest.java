@@ -0,0 +1,46 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.script.RedisScript;
+import com.supercode.infra.cache.redis.script.RedisScriptManager;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+@Disabled
+public class RedisScriptManagerTest {
+
+    private static final RedisScript INCR_SCRIPT = RedisScriptManager.register("test-incr", ScriptOutputType.INTEGER,
+            "return redis.call(\"incrby\",KEYS[1],ARGV[1])");
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testReloadAfterScriptFlush() throws Exception {
+        String key = "testScriptManager" + System.currentTimeMillis();
+        try (StatefulConnection<String, String> conn = redisClient.getPool().borrowObject()) {
+            String nodeId = redisClient.getClusterClient().getPartitions().getPartitionBySlot(SlotHash.getSlot(key)).getNodeId();
+            RedisCommands<String, String> cmd = ((StatefulRedisClusterConnection<String, String>) conn).getConnection(nodeId).sync();
+            long first = RedisScriptManager.eval(cmd, INCR_SCRIPT, new String[]{key}, "2");
+            Assertions.assertEquals(2L, first);
+            // 模拟节点重启或切换：清空脚本缓存后仍然可以执行
+            cmd.scriptFlush();
+            long second = RedisScriptManager.eval(cmd, INCR_SCRIPT, new String[]{key}, "3");
+            Assertions.assertEquals(5L, second);
+            Assertions.assertEquals(INCR_SCRIPT.getSha1(), cmd.scriptLoad(INCR_SCRIPT.getText()));
+            cmd.del(key);
+        }
+    }
+
+    @Test
+    public void testRegisterTwice() {
+        Assertions.assertSame(INCR_SCRIPT, RedisScriptManager.register("test-incr", ScriptOutputType.INTEGER, INCR_SCRIPT.getText()));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> RedisScriptManager.register("test-incr", ScriptOutputType.INTEGER, "return 1"));
+    }
+}
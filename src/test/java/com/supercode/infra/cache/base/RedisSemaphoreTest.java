@@ -0,0 +1,72 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.lock.RedisSemaphore;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Disabled
+public class RedisSemaphoreTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testAcquireAndRelease() {
+        RedisSemaphore semaphore = redisClient.semaphore("testSemaphore" + System.currentTimeMillis(), 5);
+        RedisSemaphore.Permit first = semaphore.tryAcquire(3, 30000, 0);
+        Assertions.assertNotNull(first);
+        Assertions.assertNull(semaphore.tryAcquire(3, 30000, 0));
+        RedisSemaphore.Permit second = semaphore.tryAcquire(2, 30000, 0);
+        Assertions.assertNotNull(second);
+        Assertions.assertEquals(5, semaphore.usedPermits());
+        Assertions.assertEquals(3, semaphore.release(first));
+        Assertions.assertEquals(0, semaphore.release(first));
+        Assertions.assertNotNull(semaphore.tryAcquire(3, 30000, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> semaphore.tryAcquire(6, 30000, 0));
+    }
+
+    @Test
+    public void testLeaseExpires() throws InterruptedException {
+        RedisSemaphore semaphore = redisClient.semaphore("testSemaphoreExpire" + System.currentTimeMillis(), 1);
+        Assertions.assertNotNull(semaphore.tryAcquire(1, 500, 0));
+        // 持有者没有归还，租约到期后等待者获取到许可
+        long start = System.currentTimeMillis();
+        Assertions.assertNotNull(semaphore.tryAcquire(1, 30000, 3000));
+        Assertions.assertTrue(System.currentTimeMillis() - start < 1500);
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws InterruptedException {
+        RedisSemaphore semaphore = redisClient.semaphore("testSemaphoreLimit" + System.currentTimeMillis(), 4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        int threads = 32;
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                RedisSemaphore.Permit permit = semaphore.tryAcquireWithLease(1, 30000, 60000);
+                Assertions.assertNotNull(permit);
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                semaphore.release(permit);
+                done.countDown();
+            });
+        }
+        done.await();
+        executor.shutdown();
+        Assertions.assertTrue(maxRunning.get() <= 4);
+        Assertions.assertEquals(0, semaphore.usedPermits());
+    }
+}
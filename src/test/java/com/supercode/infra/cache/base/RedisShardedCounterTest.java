@@ -0,0 +1,77 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import com.supercode.infra.cache.redis.counter.RedisShardedCounter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Disabled
+public class RedisShardedCounterTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379,
+            200, 200, 50, true, true, 0);
+
+    @Test
+    public void testCounter() {
+        RedisShardedCounter counter = redisClient.shardedCounter("testShardedCounter" + System.currentTimeMillis(), 8, Duration.ofSeconds(1));
+        for (int i = 0; i < 1000; i++) {
+            counter.incr();
+        }
+        counter.incrby(500);
+        Assertions.assertEquals(1500L, counter.get());
+        counter.incr();
+        // 缓存期内返回旧值
+        Assertions.assertEquals(1500L, counter.get());
+        Assertions.assertEquals(1501L, counter.getExact());
+        counter.reset();
+        Assertions.assertEquals(0L, counter.getExact());
+    }
+
+    @Test
+    public void testShardsLimit() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> redisClient.shardedCounter("testShardsLimit", 0, Duration.ZERO));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> redisClient.shardedCounter("testShardsLimit", RedisClientConstant.SHARDED_COUNTER_MAX_SHARDS + 1, Duration.ZERO));
+    }
+
+    /**
+     * 固定并发下比较不同分片数的自增吞吐，分片数越多，单个节点上的热点越分散
+     */
+    @Test
+    public void benchmark() throws InterruptedException {
+        int threads = 128;
+        long durationMillis = 10000;
+        for (int shards : new int[]{1, 2, 4, 8, 16}) {
+            RedisShardedCounter counter = redisClient.shardedCounter("benchmarkShardedCounter" + shards, shards, Duration.ZERO);
+            counter.reset();
+            AtomicLong ops = new AtomicLong();
+            CountDownLatch done = new CountDownLatch(threads);
+            long deadline = System.currentTimeMillis() + durationMillis;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        counter.incr();
+                        ops.incrementAndGet();
+                    }
+                    done.countDown();
+                });
+            }
+            done.await();
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+            System.out.printf("shards=%d ops/s=%d total=%d%n", shards, ops.get() * 1000 / durationMillis, counter.getExact());
+            Assertions.assertEquals(ops.get(), counter.getExact());
+            counter.reset();
+        }
+    }
+}
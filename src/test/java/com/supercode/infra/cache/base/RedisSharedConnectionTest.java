@@ -0,0 +1,71 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.constant.RedisClientConstant;
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对比连接池模式与共享连接模式下GET的吞吐量
+ */
+@Disabled
+public class RedisSharedConnectionTest {
+
+    private static final String REDIS_URL = "tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com";
+
+    @Test
+    public void testSharedConnection() {
+        SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>(REDIS_URL, 6379,
+                RedisClientConstant.MAX_TOTAL, RedisClientConstant.MAX_IDLE, RedisClientConstant.MIN_IDLE, true, false, 2);
+        String redisKey = "testSharedConnection" + System.currentTimeMillis();
+        redisClient.redisStringCmd().set(redisKey, "shared");
+        Assertions.assertEquals("shared", redisClient.redisStringCmd().get(redisKey));
+        Assertions.assertNull(redisClient.redisListCmd().blpop(redisKey + "_list", 1));
+        redisClient.close();
+    }
+
+    @Test
+    public void benchmarkPoolVsSharedConnection() throws InterruptedException {
+        SupercodeRedisClient<String, String> pooledClient = new SupercodeRedisClient<>(REDIS_URL, 6379,
+                RedisClientConstant.MAX_TOTAL, RedisClientConstant.MAX_IDLE, RedisClientConstant.MIN_IDLE, true, true, 0);
+        SupercodeRedisClient<String, String> sharedClient = new SupercodeRedisClient<>(REDIS_URL, 6379,
+                RedisClientConstant.MAX_TOTAL, RedisClientConstant.MAX_IDLE, RedisClientConstant.MIN_IDLE, true, true, 4);
+        pooledClient.redisStringCmd().set("benchmarkPoolVsSharedConnection", "value");
+
+        System.out.println("pooled ops/s : " + this.throughput(pooledClient, 200, 10000));
+        System.out.println("shared ops/s : " + this.throughput(sharedClient, 200, 10000));
+
+        pooledClient.close();
+        sharedClient.close();
+    }
+
+    private long throughput(SupercodeRedisClient<String, String> redisClient, int threadCount, int opsPerThread) throws InterruptedException {
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threadCount);
+        AtomicLong errors = new AtomicLong();
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < opsPerThread; j++) {
+                        redisClient.redisStringCmd().get("benchmarkPoolVsSharedConnection");
+                    }
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    endLatch.countDown();
+                }
+            }).start();
+        }
+        long startTime = System.nanoTime();
+        startLatch.countDown();
+        endLatch.await();
+        long costNanos = System.nanoTime() - startTime;
+        System.out.println("errors : " + errors.get());
+        return (long) threadCount * opsPerThread * 1_000_000_000L / costNanos;
+    }
+}
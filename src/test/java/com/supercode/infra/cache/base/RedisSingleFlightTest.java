@@ -0,0 +1,56 @@
+package com.supercode.infra.cache.base;
+
+import com.supercode.infra.cache.redis.client.SupercodeRedisClient;
+import io.micrometer.core.instrument.Metrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Disabled
+public class RedisSingleFlightTest {
+
+    private static SupercodeRedisClient<String, String> redisClient = new SupercodeRedisClient<>("tf-usa-dev-common-cluster.kdavic.clustercfg.use1.cache.amazonaws.com", 6379);
+
+    @Test
+    public void testConcurrentHgetallCollapsed() throws Exception {
+        String redisKey = "testConcurrentHgetallCollapsed" + System.currentTimeMillis();
+        redisClient.redisHashCmd().hset(redisKey, "field", "value");
+        redisClient.redisKeyCmd().expire(redisKey, 60);
+        redisClient.redisHashCmd().setSingleFlight(true);
+
+        int threads = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, String>>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return redisClient.redisHashCmd().hgetall(redisKey);
+            }));
+        }
+        start.countDown();
+        Set<Map<String, String>> results = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Future<Map<String, String>> future : futures) {
+            Assertions.assertEquals("value", future.get().get("field"));
+            results.add(future.get());
+        }
+        // 合并的调用各自拿到一份拷贝
+        Assertions.assertEquals(threads, results.size());
+        executor.shutdown();
+
+        double collapsed = Metrics.globalRegistry.get("supercode.redis.singleflight.collapsed").tag("group", "RedisHashCmd").counter().count();
+        System.out.println("collapsed calls: " + collapsed);
+        Assertions.assertTrue(collapsed > 0);
+    }
+}